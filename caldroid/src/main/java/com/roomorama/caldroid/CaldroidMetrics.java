@@ -0,0 +1,180 @@
+package com.roomorama.caldroid;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.tracing.Trace;
+
+/*
+ * Timings and counts of the calendar hot paths, set with setMetrics on
+ * DateCaldroidFragment, MonthCaldroidFragment or YearCaldroidFragment. The
+ * default is no metrics at all, the fragments and adapters then do not even
+ * read the clock. Durations are in nanoseconds, all methods are called on the
+ * main thread and should return quickly.
+ * <p/>
+ * Independently of the metrics, the same work is wrapped in androidx.tracing
+ * sections named "Caldroid:..." so that it shows in system traces next to
+ * dropped frames.
+ * <p/>
+ * For the pages of MonthCaldroidFragment month is 0, for the grid of
+ * YearCaldroidFragment month is 0 and year is the last year shown, 0 if the
+ * fragment has no max date.
+ * <p/>
+ * The library measures its work with Section, see there.
+ */
+public interface CaldroidMetrics {
+    /*
+     * Trace section of one piece of work, timed for the metrics if there are
+     * any, and reported to them when closed. Used with try-with-resources, so
+     * that the trace section is ended even when code of the client called
+     * inside throws:
+     * <pre>
+     * try (CaldroidMetrics.Section section = CaldroidMetrics.Section.begin(
+     *         "Caldroid:refreshView", metrics, CaldroidMetrics.Section.REFRESH_VIEW)) {
+     *     ...
+     * }
+     * </pre>
+     * Without metrics the clock is not read and nothing is allocated.
+     */
+    final class Section implements AutoCloseable {
+        // Events reported when the section is closed
+        public static final int NONE = 0;
+        public static final int PAGE_CREATED = 1;
+        public static final int ADAPTER_CREATED = 2;
+        public static final int CELL_BOUND = 3;
+        public static final int VIEW_PAGER_RESIZED = 4;
+        public static final int REFRESH_VIEW = 5;
+
+        // Shared sections without metrics, with and without a trace section
+        private static final Section TRACED = new Section(true, null, NONE, 0);
+        private static final Section UNTRACED = new Section(false, null, NONE, 0);
+
+        private final boolean traced;
+        private final CaldroidMetrics metrics;
+        private final int event;
+        private final long start;
+        private int month;
+        private int year;
+
+        private Section(boolean traced, CaldroidMetrics metrics, int event, long start) {
+            this.traced = traced;
+            this.metrics = metrics;
+            this.event = event;
+            this.start = start;
+        }
+
+        /*
+         * Trace section only, nothing is reported
+         */
+        @NonNull
+        public static Section trace(@NonNull String traceName) {
+            return begin(traceName, null, NONE);
+        }
+
+        /*
+         * @param traceName : name of the trace section, null for none
+         * @param metrics   : metrics to report the event to, may be null
+         * @param event     : one of the events above
+         */
+        @NonNull
+        public static Section begin(@Nullable String traceName, @Nullable CaldroidMetrics metrics,
+                                    int event) {
+            if (traceName != null) {
+                Trace.beginSection(traceName);
+            }
+            if (metrics == null || event == NONE) {
+                return traceName != null ? TRACED : UNTRACED;
+            }
+            return new Section(traceName != null, metrics, event, SystemClock.elapsedRealtimeNanos());
+        }
+
+        @NonNull
+        public static Section begin(@Nullable String traceName, @Nullable CaldroidMetrics metrics,
+                                    int event, int month, int year) {
+            Section section = begin(traceName, metrics, event);
+            section.setPage(month, year);
+            return section;
+        }
+
+        /*
+         * Month and year reported with PAGE_CREATED and ADAPTER_CREATED, when
+         * they are only known inside the section
+         */
+        public void setPage(int month, int year) {
+            if (metrics != null) {
+                this.month = month;
+                this.year = year;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (traced) {
+                Trace.endSection();
+            }
+            if (metrics == null) {
+                return;
+            }
+
+            long nanos = SystemClock.elapsedRealtimeNanos() - start;
+            switch (event) {
+                case PAGE_CREATED:
+                    metrics.onPageCreated(month, year, nanos);
+                    break;
+                case ADAPTER_CREATED:
+                    metrics.onAdapterCreated(month, year, nanos);
+                    break;
+                case CELL_BOUND:
+                    metrics.onCellBound(nanos);
+                    break;
+                case VIEW_PAGER_RESIZED:
+                    metrics.onViewPagerResized(nanos);
+                    break;
+                case REFRESH_VIEW:
+                    metrics.onRefreshView(nanos);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /*
+     * A page was created, including the construction of its adapter
+     */
+    default void onPageCreated(int month, int year, long nanos) {
+    }
+
+    /*
+     * The grid adapter of a page was constructed
+     */
+    default void onAdapterCreated(int month, int year, long nanos) {
+    }
+
+    /*
+     * A cell was bound by the grid adapter, in customizeTextView
+     */
+    default void onCellBound(long nanos) {
+    }
+
+    /*
+     * The DateDecorationProvider result for a page arrived on the main thread,
+     * latencyNanos is the time since the request, 0 if they were prefetched.
+     * Results dropped because the page moved meanwhile are not reported
+     */
+    default void onDecorationsLoaded(int month, int year, long latencyNanos) {
+    }
+
+    /*
+     * The view pager, or the grid of years, was resized to its content
+     */
+    default void onViewPagerResized(long nanos) {
+    }
+
+    /*
+     * refreshView was called
+     */
+    default void onRefreshView(long nanos) {
+    }
+}
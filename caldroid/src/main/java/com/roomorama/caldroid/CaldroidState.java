@@ -0,0 +1,239 @@
+package com.roomorama.caldroid;
+
+import android.graphics.drawable.Drawable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import hirondelle.date4j.DateTime;
+
+/*
+ * Immutable snapshot of the parameters of DateCaldroidFragment, shared by all
+ * its pages. Each snapshot has a version, pages remember the version they
+ * rendered and only rebind when it differs from the current one.
+ * <p/>
+ * The sets and maps are private copies of the live ones of the fragment and
+ * must not be modified. The DecorationPalette is shared, not copied, a change
+ * of its version makes a new snapshot. A new snapshot reuses the copies of the previous one
+ * for everything unchanged, so memory stays proportional to the state, not to
+ * the number of pages.
+ * <p/>
+ * Nothing is compared element by element: the sets and the palette have
+ * versions, and the fragment counts the changes of its maps.
+ */
+public final class CaldroidState {
+    private final int version;
+
+    private final DateRangeSet disableDateRanges;
+    private final DateRuleSet disableDateRules;
+    private final DateBitSet selectedDates;
+    private final DateTime minDateTime;
+    private final DateTime maxDateTime;
+    private final int startDayOfWeek;
+    private final boolean sixWeeksInCalendar;
+    private final boolean squareTextViewCell;
+    private final int themeResource;
+    private final Map<DateTime, Drawable> backgroundForDateTimeMap;
+    private final Map<DateTime, Integer> textColorForDateTimeMap;
+    private final DecorationPalette decorationPalette;
+    private final int decorationPaletteVersion;
+
+    // Live sets the copies were taken from, and their versions at that time
+    private final DateRangeSet disableDateRangesSource;
+    private final int disableDateRangesVersion;
+    private final DateRuleSet disableDateRulesSource;
+    private final int disableDateRulesVersion;
+    private final DateBitSet selectedDatesSource;
+    private final int selectedDatesVersion;
+    private final int backgroundsVersion;
+    private final int textColorsVersion;
+
+    private CaldroidState(int version,
+                          DateRangeSet disableDateRangesSource, DateRangeSet disableDateRanges,
+                          DateRuleSet disableDateRulesSource, int disableDateRulesVersion,
+                          DateRuleSet disableDateRules,
+                          DateBitSet selectedDatesSource, DateBitSet selectedDates,
+                          DateTime minDateTime, DateTime maxDateTime, int startDayOfWeek,
+                          boolean sixWeeksInCalendar, boolean squareTextViewCell, int themeResource,
+                          Map<DateTime, Drawable> backgroundForDateTimeMap, int backgroundsVersion,
+                          Map<DateTime, Integer> textColorForDateTimeMap, int textColorsVersion,
+                          DecorationPalette decorationPalette, int decorationPaletteVersion) {
+        this.version = version;
+        this.disableDateRangesSource = disableDateRangesSource;
+        this.disableDateRangesVersion = disableDateRangesSource.getVersion();
+        this.disableDateRanges = disableDateRanges;
+        this.disableDateRulesSource = disableDateRulesSource;
+        this.disableDateRulesVersion = disableDateRulesVersion;
+        this.disableDateRules = disableDateRules;
+        this.selectedDatesSource = selectedDatesSource;
+        this.selectedDatesVersion = selectedDatesSource.getVersion();
+        this.selectedDates = selectedDates;
+        this.minDateTime = minDateTime;
+        this.maxDateTime = maxDateTime;
+        this.startDayOfWeek = startDayOfWeek;
+        this.sixWeeksInCalendar = sixWeeksInCalendar;
+        this.squareTextViewCell = squareTextViewCell;
+        this.themeResource = themeResource;
+        this.backgroundForDateTimeMap = backgroundForDateTimeMap;
+        this.backgroundsVersion = backgroundsVersion;
+        this.textColorForDateTimeMap = textColorForDateTimeMap;
+        this.textColorsVersion = textColorsVersion;
+        this.decorationPalette = decorationPalette;
+        this.decorationPaletteVersion = decorationPaletteVersion;
+    }
+
+    /*
+     * Snapshot of the given live parameters. Returns previous when nothing has
+     * changed since it was taken, otherwise a new snapshot with the next
+     * version, sharing the unchanged copies of previous. The versions of the
+     * maps are the change counts kept by the caller
+     */
+    @NonNull
+    public static CaldroidState snapshot(@Nullable CaldroidState previous,
+                                         @NonNull DateRangeSet disableDateRanges,
+                                         @NonNull DateRuleSet disableDateRules,
+                                         @NonNull DateBitSet selectedDates,
+                                         DateTime minDateTime, DateTime maxDateTime,
+                                         int startDayOfWeek, boolean sixWeeksInCalendar,
+                                         boolean squareTextViewCell, int themeResource,
+                                         @NonNull Map<DateTime, Drawable> backgroundForDateTimeMap,
+                                         int backgroundsVersion,
+                                         @NonNull Map<DateTime, Integer> textColorForDateTimeMap,
+                                         int textColorsVersion,
+                                         @Nullable DecorationPalette decorationPalette) {
+        boolean rangesChanged = previous == null
+                || previous.disableDateRangesSource != disableDateRanges
+                || previous.disableDateRangesVersion != disableDateRanges.getVersion();
+        boolean rulesChanged = previous == null
+                || previous.disableDateRulesSource != disableDateRules
+                || previous.disableDateRulesVersion != disableDateRules.getVersion();
+        boolean selectedChanged = previous == null
+                || previous.selectedDatesSource != selectedDates
+                || previous.selectedDatesVersion != selectedDates.getVersion();
+        boolean backgroundsChanged = previous == null
+                || previous.backgroundsVersion != backgroundsVersion;
+        boolean textColorsChanged = previous == null
+                || previous.textColorsVersion != textColorsVersion;
+
+        if (!rangesChanged && !rulesChanged && !selectedChanged
+                && !backgroundsChanged && !textColorsChanged
+                && Objects.equals(previous.minDateTime, minDateTime)
+                && Objects.equals(previous.maxDateTime, maxDateTime)
+                && previous.startDayOfWeek == startDayOfWeek
+                && previous.sixWeeksInCalendar == sixWeeksInCalendar
+                && previous.squareTextViewCell == squareTextViewCell
+                && previous.themeResource == themeResource
+                && previous.decorationPalette == decorationPalette
+                && (decorationPalette == null
+                || previous.decorationPaletteVersion == decorationPalette.getVersion())) {
+            return previous;
+        }
+
+        return new CaldroidState(previous == null ? 1 : previous.version + 1,
+                disableDateRanges,
+                rangesChanged ? new DateRangeSet(disableDateRanges) : previous.disableDateRanges,
+                disableDateRules, disableDateRules.getVersion(),
+                rulesChanged ? new DateRuleSet(disableDateRules) : previous.disableDateRules,
+                selectedDates,
+                selectedChanged ? new DateBitSet(selectedDates) : previous.selectedDates,
+                minDateTime, maxDateTime, startDayOfWeek, sixWeeksInCalendar,
+                squareTextViewCell, themeResource,
+                backgroundsChanged ? Collections.unmodifiableMap(new HashMap<>(backgroundForDateTimeMap))
+                        : previous.backgroundForDateTimeMap, backgroundsVersion,
+                textColorsChanged ? Collections.unmodifiableMap(new HashMap<>(textColorForDateTimeMap))
+                        : previous.textColorForDateTimeMap, textColorsVersion,
+                decorationPalette, decorationPalette != null ? decorationPalette.getVersion() : 0);
+    }
+
+    /*
+     * State differing from this one only in the disabled and selected dates,
+     * taken from the given live sets. Nothing else is compared or copied, for
+     * changes known to touch only the dates. Returns this when the sets have
+     * not changed
+     */
+    @NonNull
+    public CaldroidState withDates(@NonNull DateRangeSet disableDateRanges,
+                                   @NonNull DateBitSet selectedDates) {
+        boolean rangesChanged = disableDateRangesSource != disableDateRanges
+                || disableDateRangesVersion != disableDateRanges.getVersion();
+        boolean selectedChanged = selectedDatesSource != selectedDates
+                || selectedDatesVersion != selectedDates.getVersion();
+        if (!rangesChanged && !selectedChanged) {
+            return this;
+        }
+
+        return new CaldroidState(version + 1,
+                disableDateRanges,
+                rangesChanged ? new DateRangeSet(disableDateRanges) : this.disableDateRanges,
+                disableDateRulesSource, disableDateRulesVersion, disableDateRules,
+                selectedDates,
+                selectedChanged ? new DateBitSet(selectedDates) : this.selectedDates,
+                minDateTime, maxDateTime, startDayOfWeek, sixWeeksInCalendar,
+                squareTextViewCell, themeResource,
+                backgroundForDateTimeMap, backgroundsVersion,
+                textColorForDateTimeMap, textColorsVersion,
+                decorationPalette, decorationPaletteVersion);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    @NonNull
+    public DateRangeSet getDisableDateRanges() {
+        return disableDateRanges;
+    }
+
+    @NonNull
+    public DateRuleSet getDisableDateRules() {
+        return disableDateRules;
+    }
+
+    @NonNull
+    public DateBitSet getSelectedDates() {
+        return selectedDates;
+    }
+
+    public DateTime getMinDateTime() {
+        return minDateTime;
+    }
+
+    public DateTime getMaxDateTime() {
+        return maxDateTime;
+    }
+
+    public int getStartDayOfWeek() {
+        return startDayOfWeek;
+    }
+
+    public boolean isSixWeeksInCalendar() {
+        return sixWeeksInCalendar;
+    }
+
+    public boolean isSquareTextViewCell() {
+        return squareTextViewCell;
+    }
+
+    public int getThemeResource() {
+        return themeResource;
+    }
+
+    @NonNull
+    public Map<DateTime, Drawable> getBackgroundForDateTimeMap() {
+        return backgroundForDateTimeMap;
+    }
+
+    @NonNull
+    public Map<DateTime, Integer> getTextColorForDateTimeMap() {
+        return textColorForDateTimeMap;
+    }
+
+    @Nullable
+    public DecorationPalette getDecorationPalette() {
+        return decorationPalette;
+    }
+}
@@ -0,0 +1,130 @@
+package com.roomorama.caldroid;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.util.LongSparseArray;
+import android.util.TypedValue;
+import android.view.ContextThemeWrapper;
+
+import com.caldroid.R;
+
+import java.util.HashMap;
+
+import androidx.annotation.NonNull;
+
+/*
+ * Cache of what the adapters resolve from a Caldroid theme: the default
+ * background and text color of the normal and square cell styles. Without it
+ * every adapter instance wraps the context, resolves the cell style and
+ * obtains the styled attributes again.
+ * <p/>
+ * Styles are kept for the whole process, keyed by theme resource, cell type
+ * and configuration, so themes are expected to define their cell styles
+ * completely. A style resolved in another configuration, for e.g. before a
+ * night mode switch the activity handles itself, is not reused. Cached values
+ * hold no reference to the context.
+ * <p/>
+ * Themed inflaters are not cached here: a clone holds its context, which holds
+ * the inflater it was cloned from, so any map of them retains the activity.
+ */
+public final class CaldroidThemeCache {
+    /*
+     * Default look of a cell, resolved from the cell style of a theme
+     */
+    public static final class CellStyle {
+        private final int backgroundRes;
+        private final ColorStateList textColor;
+
+        CellStyle(int backgroundRes, ColorStateList textColor) {
+            this.backgroundRes = backgroundRes;
+            this.textColor = textColor;
+        }
+
+        /*
+         * Background resource of the cell, -1 if the style has none
+         */
+        public int getBackgroundRes() {
+            return backgroundRes;
+        }
+
+        public ColorStateList getTextColor() {
+            return textColor;
+        }
+    }
+
+    // Cell styles by theme resource, cell type and configuration, see getKey
+    private static final LongSparseArray<CellStyle> cellStyles = new LongSparseArray<>();
+
+    // Ids of the configurations the styles were resolved in, part of the keys
+    private static final HashMap<Configuration, Integer> configurationIds = new HashMap<>();
+
+    private CaldroidThemeCache() {
+    }
+
+    /*
+     * Default background and text color of the normal or square cell of the
+     * theme
+     */
+    @NonNull
+    public static synchronized CellStyle getCellStyle(@NonNull Context context, int themeResource,
+                                                      boolean squareTextViewCell) {
+        long key = getKey(getConfigurationId(context), themeResource, squareTextViewCell);
+        CellStyle cellStyle = cellStyles.get(key);
+        if (cellStyle == null) {
+            cellStyle = resolveCellStyle(context, themeResource, squareTextViewCell);
+            cellStyles.put(key, cellStyle);
+        }
+        return cellStyle;
+    }
+
+    private static CellStyle resolveCellStyle(Context context, int themeResource,
+                                              boolean squareTextViewCell) {
+        Context wrapped = new ContextThemeWrapper(context, themeResource);
+
+        // Get style of normal cell or square cell in the theme
+        Resources.Theme theme = wrapped.getTheme();
+        TypedValue styleCellVal = new TypedValue();
+        theme.resolveAttribute(squareTextViewCell ? R.attr.styleCaldroidSquareCell
+                : R.attr.styleCaldroidNormalCell, styleCellVal, true);
+
+        TypedArray typedArray = wrapped.obtainStyledAttributes(styleCellVal.data, R.styleable.Cell);
+        try {
+            return new CellStyle(typedArray.getResourceId(R.styleable.Cell_android_background, -1),
+                    typedArray.getColorStateList(R.styleable.Cell_android_textColor));
+        }
+        finally {
+            typedArray.recycle();
+        }
+    }
+
+    /*
+     * Drop everything
+     */
+    public static synchronized void clear() {
+        cellStyles.clear();
+        configurationIds.clear();
+    }
+
+    /*
+     * Key of a cell style: the configuration id above the 32 bits of the theme
+     * resource, which is negative for some package ids, and the cell type in
+     * the low bit
+     */
+    static long getKey(int configurationId, int themeResource, boolean squareTextViewCell) {
+        return (long) configurationId << 33 | (themeResource & 0xFFFFFFFFL) << 1
+                | (squareTextViewCell ? 1 : 0);
+    }
+
+    private static int getConfigurationId(Context context) {
+        Configuration configuration = context.getResources().getConfiguration();
+        Integer id = configurationIds.get(configuration);
+        if (id == null) {
+            id = configurationIds.size();
+            configurationIds.put(new Configuration(configuration), id);
+        }
+        return id;
+    }
+}
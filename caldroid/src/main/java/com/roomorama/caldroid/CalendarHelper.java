@@ -16,10 +16,64 @@ import hirondelle.date4j.DateTime;
  */
 public class CalendarHelper {
 
-    private static SimpleDateFormat yyyyMMddFormat;
+    private static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd";
 
+    /*
+     * Kept for compatibility. The default format is parsed by IsoDateCodec,
+     * which needs no setup
+     */
     public static void setup() {
-        yyyyMMddFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.ENGLISH);
+    }
+
+    /*
+     * Maximum number of dates in a month grid, 6 weeks
+     */
+    public static final int MAX_DAYS_IN_FULL_WEEKS = 6 * 7;
+
+    private static final MonthLayoutCache monthLayoutCache =
+            new MonthLayoutCache(MonthLayoutCache.DEFAULT_MAX_SIZE);
+
+    /*
+     * Get the immutable layout of the dates grid of a calendar month. Layouts
+     * are kept in a bounded LRU cache, so swiping back and forth between months
+     * does not compute them again. Thread safe
+     *
+     * @param month
+     * @param year
+     * @param startDayOfWeek : calendar can start from customized date instead of Sunday
+     * @param sixWeeksInCalendar
+     * @return
+     */
+    public static MonthLayout getMonthLayout(int month, int year, int startDayOfWeek,
+                                             boolean sixWeeksInCalendar) {
+        return monthLayoutCache.get(month, year, startDayOfWeek, sixWeeksInCalendar);
+    }
+
+    public static int getMonthLayoutCacheSize() {
+        return monthLayoutCache.getMaxSize();
+    }
+
+    /*
+     * Set maximum number of month layouts kept in the cache. Default is 24.
+     * Cached layouts are dropped
+     */
+    public static void setMonthLayoutCacheSize(int maxSize) {
+        monthLayoutCache.setMaxSize(maxSize);
+    }
+
+    public static long getMonthLayoutCacheHitCount() {
+        return monthLayoutCache.getHitCount();
+    }
+
+    public static long getMonthLayoutCacheMissCount() {
+        return monthLayoutCache.getMissCount();
+    }
+
+    /*
+     * Drop all cached month layouts and reset hit/miss counters
+     */
+    public static void clearMonthLayoutCache() {
+        monthLayoutCache.clear();
     }
 
     /*
@@ -33,70 +87,81 @@ public class CalendarHelper {
      */
     public static ArrayList<DateTime> getFullWeeks(int month, int year,
                                                    int startDayOfWeek, boolean sixWeeksInCalendar) {
-        ArrayList<DateTime> datetimeList = new ArrayList<>();
+        int[] epochDays = new int[MAX_DAYS_IN_FULL_WEEKS];
+        int numDays = getFullWeeks(month, year, startDayOfWeek, sixWeeksInCalendar, epochDays);
 
-        DateTime firstDateOfMonth = new DateTime(year, month, 1, 0, 0, 0, 0);
-        DateTime lastDateOfMonth = firstDateOfMonth.plusDays(firstDateOfMonth
-                .getNumDaysInMonth() - 1);
-
-        // Add dates of first week from previous month
-        int weekdayOfFirstDate = firstDateOfMonth.getWeekDay();
-
-        // If weekdayOfFirstDate smaller than startDayOfWeek
-        // For e.g: weekdayFirstDate is Monday, startDayOfWeek is Tuesday
-        // increase the weekday of FirstDate because it's in the future
-        if (weekdayOfFirstDate < startDayOfWeek) {
-            weekdayOfFirstDate += 7;
+        ArrayList<DateTime> datetimeList = new ArrayList<>(numDays);
+        for (int i = 0; i < numDays; i++) {
+            datetimeList.add(EpochDay.toDateTime(epochDays[i]));
         }
 
-        while (weekdayOfFirstDate > 0) {
-            DateTime dateTime = firstDateOfMonth.minusDays(weekdayOfFirstDate
-                    - startDayOfWeek);
-            if (!dateTime.lt(firstDateOfMonth)) {
-                break;
-            }
+        return datetimeList;
+    }
 
-            datetimeList.add(dateTime);
-            weekdayOfFirstDate--;
+    /*
+     * Allocation free variant of getFullWeeks. Writes the epoch days of all
+     * the dates of the calendar month into a caller supplied buffer
+     *
+     * @param month
+     * @param year
+     * @param startDayOfWeek : calendar can start from customized date instead of Sunday
+     * @param sixWeeksInCalendar
+     * @param outEpochDays : buffer with room for MAX_DAYS_IN_FULL_WEEKS dates
+     * @return number of dates written, a multiple of 7
+     */
+    public static int getFullWeeks(int month, int year, int startDayOfWeek,
+                                   boolean sixWeeksInCalendar, int[] outEpochDays) {
+        int leadingDays = getLeadingDays(month, year, startDayOfWeek);
+        int numDays = getNumDaysInFullWeeks(month, year, startDayOfWeek, sixWeeksInCalendar);
+
+        int firstDay = EpochDay.of(year, month, 1) - leadingDays;
+        for (int i = 0; i < numDays; i++) {
+            outEpochDays[i] = firstDay + i;
         }
 
-        // Add dates of current month
-        for (int i = 0; i < lastDateOfMonth.getDay(); i++) {
-            datetimeList.add(firstDateOfMonth.plusDays(i));
-        }
+        return numDays;
+    }
 
-        // Add dates of last week from next month
-        int endDayOfWeek = startDayOfWeek - 1;
+    /*
+     * Number of dates of previous month shown in the first week. If weekday of
+     * first date is before startDayOfWeek, the week before is shown
+     */
+    public static int getLeadingDays(int month, int year, int startDayOfWeek) {
+        int firstDayOfMonth = EpochDay.of(year, month, 1);
+        return firstDayOfMonth - getWeekStart(firstDayOfMonth, startDayOfWeek);
+    }
 
-        if (endDayOfWeek == 0) {
-            endDayOfWeek = 7;
-        }
+    /*
+     * Epoch day of the first date of the week holding the epoch day, the same
+     * week rows as getFullWeeks
+     */
+    public static int getWeekStart(int epochDay, int startDayOfWeek) {
+        return epochDay - Math.floorMod(EpochDay.weekDayOf(epochDay) - startDayOfWeek, 7);
+    }
 
-        if (lastDateOfMonth.getWeekDay() != endDayOfWeek) {
-            int i = 1;
-            while (true) {
-                DateTime nextDay = lastDateOfMonth.plusDays(i);
-                datetimeList.add(nextDay);
-                i++;
-                if (nextDay.getWeekDay() == endDayOfWeek) {
-                    break;
-                }
-            }
-        }
+    /*
+     * Number of dates of next month shown after the last date of the month
+     */
+    public static int getTrailingDays(int month, int year, int startDayOfWeek,
+                                      boolean sixWeeksInCalendar) {
+        return getNumDaysInFullWeeks(month, year, startDayOfWeek, sixWeeksInCalendar)
+                - getLeadingDays(month, year, startDayOfWeek)
+                - EpochDay.daysInMonth(year, month);
+    }
 
+    /*
+     * Number of dates in the grid of the calendar month, a multiple of 7
+     */
+    public static int getNumDaysInFullWeeks(int month, int year, int startDayOfWeek,
+                                            boolean sixWeeksInCalendar) {
         // Add more weeks to fill remaining rows
         if (sixWeeksInCalendar) {
-            int size = datetimeList.size();
-            int row = size / 7;
-            int numOfDays = (6 - row) * 7;
-            DateTime lastDateTime = datetimeList.get(size - 1);
-            for (int i = 1; i <= numOfDays; i++) {
-                DateTime nextDateTime = lastDateTime.plusDays(i);
-                datetimeList.add(nextDateTime);
-            }
+            return MAX_DAYS_IN_FULL_WEEKS;
         }
 
-        return datetimeList;
+        int numDays = getLeadingDays(month, year, startDayOfWeek)
+                + EpochDay.daysInMonth(year, month);
+        return (numDays + 6) / 7 * 7;
     }
 
     /*
@@ -143,17 +208,16 @@ public class CalendarHelper {
      */
     public static Date getDateFromString(String dateString, String dateFormat)
             throws ParseException {
-        SimpleDateFormat formatter;
         if (dateFormat == null) {
-            if (yyyyMMddFormat == null) {
-                setup();
+            int epochDay = IsoDateCodec.parse(dateString);
+            if (epochDay != IsoDateCodec.INVALID) {
+                return EpochDay.toDate(epochDay);
             }
-
-            formatter = yyyyMMddFormat;
-        } else {
-            formatter = new SimpleDateFormat(dateFormat, Locale.ENGLISH);
+            dateFormat = DEFAULT_DATE_FORMAT;
         }
 
+        // SimpleDateFormat is not thread safe, use a new one each time
+        SimpleDateFormat formatter = new SimpleDateFormat(dateFormat, Locale.ENGLISH);
         return formatter.parse(dateString);
     }
 
@@ -163,28 +227,28 @@ public class CalendarHelper {
      *
      * @param dateString
      * @param dateFormat
-     * @return
+     * @return the date, null if dateString does not match the format
      */
     public static DateTime getDateTimeFromString(String dateString,
                                                  String dateFormat) {
-        Date date;
+        if (dateFormat == null) {
+            int epochDay = IsoDateCodec.parse(dateString);
+            if (epochDay != IsoDateCodec.INVALID) {
+                return EpochDay.toDateTime(epochDay);
+            }
+        }
+
         try {
-            date = getDateFromString(dateString, dateFormat);
-            return convertDateToDateTime(date);
+            return convertDateToDateTime(getDateFromString(dateString, dateFormat));
         } catch (ParseException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
+            // Not a date in this format
+            return null;
         }
-        return null;
     }
 
     public static ArrayList<String> convertToStringList(
             ArrayList<DateTime> dateTimes) {
-        ArrayList<String> list = new ArrayList<>();
-        for (DateTime dateTime : dateTimes) {
-            list.add(dateTime.format("YYYY-MM-DD"));
-        }
-        return list;
+        return IsoDateCodec.formatAll(dateTimes);
     }
 
 }
@@ -2,10 +2,12 @@ package com.roomorama.caldroid;
 
 import android.content.Context;
 import android.util.AttributeSet;
+import android.view.DragEvent;
 
 import com.caldroid.R;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import androidx.appcompat.widget.AppCompatTextView;
 
@@ -19,7 +21,55 @@ public class CellView extends AppCompatTextView {
     public static final int STATE_DISABLED = R.attr.state_date_disabled;
     public static final int STATE_PREV_NEXT_MONTH = R.attr.state_date_prev_next_month;
 
-    private ArrayList<Integer> customStates = new ArrayList<>();
+    /*
+     * Custom states as bit flags, see setCustomStates
+     */
+    public static final int STATE_FLAG_TODAY = 1;
+    public static final int STATE_FLAG_SELECTED = 1 << 1;
+    public static final int STATE_FLAG_DISABLED = 1 << 2;
+    public static final int STATE_FLAG_PREV_NEXT_MONTH = 1 << 3;
+
+    private static final int STATE_FLAG_COUNT = 4;
+
+    // Shared state sets for all the combinations of the flags
+    private static final int[][] STATE_SETS = new int[1 << STATE_FLAG_COUNT][];
+
+    static {
+        for (int flags = 0; flags < STATE_SETS.length; flags++) {
+            int[] states = new int[Integer.bitCount(flags)];
+            int i = 0;
+            if ((flags & STATE_FLAG_TODAY) != 0) {
+                states[i++] = STATE_TODAY;
+            }
+            if ((flags & STATE_FLAG_SELECTED) != 0) {
+                states[i++] = STATE_SELECTED;
+            }
+            if ((flags & STATE_FLAG_DISABLED) != 0) {
+                states[i++] = STATE_DISABLED;
+            }
+            if ((flags & STATE_FLAG_PREV_NEXT_MONTH) != 0) {
+                states[i] = STATE_PREV_NEXT_MONTH;
+            }
+            STATE_SETS[flags] = states;
+        }
+    }
+
+    private int customStateFlags;
+
+    // States added with addCustomState which have no flag, merged the old way.
+    // Created on first use
+    private ArrayList<Integer> otherCustomStates;
+
+    // Last merged drawable state, reused while the view states and flags are
+    // the same. They are compared before calling super, which allocates for a
+    // multiline TextView, so that refreshing the state does not allocate
+    private int cachedViewStates;
+    private int cachedStateFlags;
+    private int[] cachedDrawableState;
+
+    // True from the start to the end of a drag, when the base state has drag
+    // states which the view states do not cover
+    private boolean dragging;
 
     public CellView(Context context) {
         super(context);
@@ -27,44 +77,194 @@ public class CellView extends AppCompatTextView {
 
     public CellView(Context context, AttributeSet attrs, int defStyle) {
         super(context, attrs, defStyle);
-        init();
     }
 
     public CellView(Context context, AttributeSet attrs) {
         super(context, attrs);
-        init();
     }
 
-    private void init() {
-        if (null == customStates) customStates = new ArrayList<>();
+    /*
+     * Shared state set of the STATE_FLAG_* combination, do not modify
+     */
+    public static int[] getStateSet(int stateFlags) {
+        return STATE_SETS[stateFlags & (STATE_SETS.length - 1)];
     }
 
+    /*
+     * STATE_FLAG_* of one of the STATE_* states, 0 for any other state
+     */
+    public static int toStateFlag(int state) {
+        if (state == STATE_TODAY) {
+            return STATE_FLAG_TODAY;
+        } else if (state == STATE_SELECTED) {
+            return STATE_FLAG_SELECTED;
+        } else if (state == STATE_DISABLED) {
+            return STATE_FLAG_DISABLED;
+        } else if (state == STATE_PREV_NEXT_MONTH) {
+            return STATE_FLAG_PREV_NEXT_MONTH;
+        }
+        return 0;
+    }
+
+    public int getCustomStates() {
+        return customStateFlags;
+    }
+
+    /*
+     * Set custom states as STATE_FLAG_* bits, replacing the ones added with
+     * addCustomState too. The drawable state is only refreshed when the states
+     * change
+     */
+    public void setCustomStates(int stateFlags) {
+        boolean hadOtherStates = otherCustomStates != null && !otherCustomStates.isEmpty();
+        if (hadOtherStates) {
+            otherCustomStates.clear();
+        }
+        if (customStateFlags != stateFlags || hadOtherStates) {
+            customStateFlags = stateFlags;
+            refreshDrawableState();
+        }
+    }
+
+    /*
+     * Reset custom states, call refreshDrawableState() after the states are
+     * set again
+     */
     public void resetCustomStates() {
-        customStates.clear();
+        customStateFlags = 0;
+        if (otherCustomStates != null) {
+            otherCustomStates.clear();
+        }
     }
 
+    /*
+     * Add a state, for e.g. one of STATE_TODAY, STATE_SELECTED, STATE_DISABLED
+     * or STATE_PREV_NEXT_MONTH. Call refreshDrawableState() after the states
+     * are set
+     */
     public void addCustomState(int state) {
-        if (!customStates.contains(state)) {
-            customStates.add(state);
+        int stateFlag = toStateFlag(state);
+        if (stateFlag != 0) {
+            customStateFlags |= stateFlag;
+            return;
+        }
+
+        if (otherCustomStates == null) {
+            otherCustomStates = new ArrayList<>();
+        }
+        if (!otherCustomStates.contains(state)) {
+            otherCustomStates.add(state);
         }
     }
 
     @Override
     protected int[] onCreateDrawableState(int extraSpace) {
-        init();
-        int customStateSize = customStates.size();
-        if (customStateSize > 0) {
-            final int[] drawableState = super.onCreateDrawableState(extraSpace + customStateSize);
-            int[] stateArray = new int[customStateSize];
-            int i = 0;
-            for (Integer state : customStates) {
-                stateArray[i] = state;
-                i++;
-            }
-            mergeDrawableStates(drawableState, stateArray);
+        if (otherCustomStates != null && !otherCustomStates.isEmpty()) {
+            return createMergedDrawableState(extraSpace);
+        }
+        if (customStateFlags == 0) {
+            return super.onCreateDrawableState(extraSpace);
+        }
+
+        int[] customStates = STATE_SETS[customStateFlags];
+        if (extraSpace != 0) {
+            final int[] drawableState = super.onCreateDrawableState(extraSpace + customStates.length);
+            mergeDrawableStates(drawableState, customStates);
             return drawableState;
+        }
+
+        int viewStates = getViewStates();
+        if (!dragging && cachedDrawableState != null && cachedStateFlags == customStateFlags
+                && cachedViewStates == viewStates) {
+            return cachedDrawableState;
+        }
+
+        int[] baseState = super.onCreateDrawableState(0);
+        int[] drawableState = Arrays.copyOf(baseState, baseState.length + customStates.length);
+        System.arraycopy(customStates, 0, drawableState, baseState.length, customStates.length);
+        if (dragging) {
+            cachedDrawableState = null;
         } else {
-            return super.onCreateDrawableState(extraSpace);
+            cachedViewStates = viewStates;
+            cachedStateFlags = customStateFlags;
+            cachedDrawableState = drawableState;
+        }
+        return drawableState;
+    }
+
+    /*
+     * Bits of the view states which the drawable state of super depends on,
+     * other than the drag states
+     */
+    private int getViewStates() {
+        int states = 0;
+        if (isPressed()) {
+            states |= 1;
+        }
+        if (isEnabled()) {
+            states |= 1 << 1;
+        }
+        if (isFocused()) {
+            states |= 1 << 2;
+        }
+        if (isSelected()) {
+            states |= 1 << 3;
+        }
+        if (isActivated()) {
+            states |= 1 << 4;
+        }
+        if (hasWindowFocus()) {
+            states |= 1 << 5;
+        }
+        if (isHovered()) {
+            states |= 1 << 6;
         }
+        if (isHardwareAccelerated()) {
+            states |= 1 << 7;
+        }
+        return states;
+    }
+
+    @Override
+    public boolean dispatchDragEvent(DragEvent event) {
+        int action = event.getAction();
+        if (action == DragEvent.ACTION_DRAG_STARTED) {
+            dragging = true;
+        } else if (action == DragEvent.ACTION_DRAG_ENDED) {
+            dragging = false;
+        }
+        return super.dispatchDragEvent(event);
+    }
+
+    /*
+     * Single line changes the multiline state of super, which the view states
+     * do not cover
+     */
+    @Override
+    public void setSingleLine(boolean singleLine) {
+        cachedDrawableState = null;
+        super.setSingleLine(singleLine);
+    }
+
+    @Override
+    public void setInputType(int type) {
+        cachedDrawableState = null;
+        super.setInputType(type);
+    }
+
+    /*
+     * Drawable state with states other than the STATE_* ones, allocated on
+     * each call
+     */
+    private int[] createMergedDrawableState(int extraSpace) {
+        int[] flagStates = STATE_SETS[customStateFlags];
+        int[] stateArray = Arrays.copyOf(flagStates, flagStates.length + otherCustomStates.size());
+        for (int i = 0; i < otherCustomStates.size(); i++) {
+            stateArray[flagStates.length + i] = otherCustomStates.get(i);
+        }
+
+        final int[] drawableState = super.onCreateDrawableState(extraSpace + stateArray.length);
+        mergeDrawableStates(drawableState, stateArray);
+        return drawableState;
     }
 }
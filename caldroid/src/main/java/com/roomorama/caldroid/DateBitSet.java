@@ -0,0 +1,395 @@
+package com.roomorama.caldroid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import hirondelle.date4j.DateTime;
+
+/*
+ * Set of dates stored as one 32 bit word per month: bit (day - 1) of the word
+ * of a month is set when the day is in the set. Months are kept as sorted
+ * epoch months (see EpochDay.toEpochMonth) and only months with at least one
+ * date are stored, so a selection of several years costs one int pair per
+ * month and no objects per date.
+ * <p/>
+ * Membership, toggling and "any date in month / year" are a binary search
+ * over the months, O(log n). Adding or removing a range touches one word per
+ * month of the range.
+ * <p/>
+ * This class is not thread safe.
+ */
+public class DateBitSet {
+    private static final int INITIAL_CAPACITY = 4;
+
+    // Sorted epoch months and their day bits, words are never 0
+    private int[] epochMonths;
+    private int[] words;
+    private int monthCount;
+    private int version;
+
+    public DateBitSet() {
+        epochMonths = new int[INITIAL_CAPACITY];
+        words = new int[INITIAL_CAPACITY];
+    }
+
+    public DateBitSet(@NonNull DateBitSet other) {
+        epochMonths = Arrays.copyOf(other.epochMonths, Math.max(other.monthCount, INITIAL_CAPACITY));
+        words = Arrays.copyOf(other.words, epochMonths.length);
+        monthCount = other.monthCount;
+    }
+
+    /*
+     * Create set from months encoded by toArray()
+     */
+    public static DateBitSet fromArray(@NonNull int[] encoded) {
+        if (encoded.length % 2 != 0) {
+            throw new IllegalArgumentException("Encoded months must be pairs of month and day bits, length was "
+                    + encoded.length);
+        }
+        DateBitSet set = new DateBitSet();
+        for (int i = 0; i < encoded.length; i += 2) {
+            set.orWord(encoded[i], encoded[i + 1]);
+        }
+        return set;
+    }
+
+    public static DateBitSet fromDateTimes(Iterable<DateTime> dateTimes) {
+        DateBitSet set = new DateBitSet();
+        if (dateTimes != null) {
+            for (DateTime dateTime : dateTimes) {
+                set.add(EpochDay.fromDateTime(dateTime));
+            }
+        }
+        return set;
+    }
+
+    public boolean isEmpty() {
+        return monthCount == 0;
+    }
+
+    /*
+     * Number of dates in the set
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < monthCount; i++) {
+            size += Integer.bitCount(words[i]);
+        }
+        return size;
+    }
+
+    public boolean contains(int epochDay) {
+        int index = indexOf(EpochDay.epochMonthOf(epochDay));
+        return index >= 0 && (words[index] & bitOf(epochDay)) != 0;
+    }
+
+    public boolean contains(DateTime dateTime) {
+        return contains(EpochDay.fromDateTime(dateTime));
+    }
+
+    /*
+     * Whether any date of the month is in the set
+     *
+     * @param epochMonth : see EpochDay.toEpochMonth
+     */
+    public boolean anyInMonth(int epochMonth) {
+        return indexOf(epochMonth) >= 0;
+    }
+
+    public boolean anyInMonth(int year, int month) {
+        return anyInMonth(EpochDay.toEpochMonth(year, month));
+    }
+
+    /*
+     * Whether any date of the year is in the set
+     */
+    public boolean anyInYear(int year) {
+        int index = insertionPoint(EpochDay.toEpochMonth(year, 1));
+        return index < monthCount && epochMonths[index] <= EpochDay.toEpochMonth(year, 12);
+    }
+
+    /*
+     * Day bits of the month, bit (day - 1) is set when the day is in the set
+     */
+    public int getMonthWord(int epochMonth) {
+        int index = indexOf(epochMonth);
+        return index >= 0 ? words[index] : 0;
+    }
+
+    public void add(int epochDay) {
+        orWord(EpochDay.epochMonthOf(epochDay), bitOf(epochDay));
+    }
+
+    public void remove(int epochDay) {
+        andNotWord(EpochDay.epochMonthOf(epochDay), bitOf(epochDay));
+    }
+
+    /*
+     * Flip the date
+     *
+     * @return true if the date is in the set after the toggle
+     */
+    public boolean toggle(int epochDay) {
+        if (contains(epochDay)) {
+            remove(epochDay);
+            return false;
+        }
+        add(epochDay);
+        return true;
+    }
+
+    /*
+     * Add all dates from fromEpochDay to toEpochDay, both inclusive
+     */
+    public void addRange(int fromEpochDay, int toEpochDay) {
+        checkRange(fromEpochDay, toEpochDay);
+        int epochDay = fromEpochDay;
+        while (epochDay <= toEpochDay) {
+            int days = daysInMonthFrom(epochDay, toEpochDay);
+            orWord(EpochDay.epochMonthOf(epochDay), maskOf(EpochDay.dayOf(epochDay), days));
+            epochDay += days;
+        }
+    }
+
+    public void addRange(DateTime fromDateTime, DateTime toDateTime) {
+        addRange(EpochDay.fromDateTime(fromDateTime), EpochDay.fromDateTime(toDateTime));
+    }
+
+    /*
+     * Remove all dates from fromEpochDay to toEpochDay, both inclusive
+     */
+    public void removeRange(int fromEpochDay, int toEpochDay) {
+        checkRange(fromEpochDay, toEpochDay);
+        int epochDay = fromEpochDay;
+        while (epochDay <= toEpochDay) {
+            int days = daysInMonthFrom(epochDay, toEpochDay);
+            andNotWord(EpochDay.epochMonthOf(epochDay), maskOf(EpochDay.dayOf(epochDay), days));
+            epochDay += days;
+        }
+    }
+
+    public void addAll(@NonNull DateBitSet other) {
+        if (other == this) {
+            return;
+        }
+        for (int i = 0; i < other.monthCount; i++) {
+            orWord(other.epochMonths[i], other.words[i]);
+        }
+    }
+
+    public void removeAll(@NonNull DateBitSet other) {
+        if (other == this) {
+            clear();
+            return;
+        }
+        for (int i = 0; i < other.monthCount; i++) {
+            andNotWord(other.epochMonths[i], other.words[i]);
+        }
+    }
+
+    public void clear() {
+        if (monthCount != 0) {
+            monthCount = 0;
+            version++;
+        }
+    }
+
+    /*
+     * Incremented on every change of the set
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /*
+     * Smallest epoch day of the set which is not before fromEpochDay
+     *
+     * @return epoch day, or Integer.MIN_VALUE if there is none
+     */
+    public int nextSetDay(int fromEpochDay) {
+        int epochMonth = EpochDay.epochMonthOf(fromEpochDay);
+        int index = insertionPoint(epochMonth);
+        if (index < monthCount && epochMonths[index] == epochMonth) {
+            // Drop days before fromEpochDay
+            int word = words[index] & (-1 << (EpochDay.dayOf(fromEpochDay) - 1));
+            if (word != 0) {
+                return fromEpochDay - EpochDay.dayOf(fromEpochDay) + 1
+                        + Integer.numberOfTrailingZeros(word);
+            }
+            index++;
+        }
+        if (index < monthCount) {
+            int month = epochMonths[index];
+            return EpochDay.of(month / 12, month % 12 + 1, 1)
+                    + Integer.numberOfTrailingZeros(words[index]);
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    /*
+     * Months as pairs of epoch month and day bits
+     */
+    public int[] toArray() {
+        int[] encoded = new int[monthCount * 2];
+        for (int i = 0; i < monthCount; i++) {
+            encoded[i * 2] = epochMonths[i];
+            encoded[i * 2 + 1] = words[i];
+        }
+        return encoded;
+    }
+
+    /*
+     * Epoch days of all the dates of the set, in ascending order
+     */
+    public int[] toEpochDays() {
+        int[] epochDays = new int[size()];
+        int count = 0;
+        for (int i = 0; i < monthCount; i++) {
+            int firstDay = EpochDay.of(epochMonths[i] / 12, epochMonths[i] % 12 + 1, 1);
+            int word = words[i];
+            while (word != 0) {
+                epochDays[count++] = firstDay + Integer.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return epochDays;
+    }
+
+    /*
+     * All the dates of the set, in ascending order
+     */
+    public ArrayList<DateTime> toDateTimeList() {
+        ArrayList<DateTime> dateTimes = new ArrayList<>(size());
+        for (int i = 0; i < monthCount; i++) {
+            int year = epochMonths[i] / 12;
+            int month = epochMonths[i] % 12 + 1;
+            int word = words[i];
+            while (word != 0) {
+                int day = Integer.numberOfTrailingZeros(word) + 1;
+                dateTimes.add(new DateTime(year, month, day, 0, 0, 0, 0));
+                word &= word - 1;
+            }
+        }
+        return dateTimes;
+    }
+
+    private static int bitOf(int epochDay) {
+        return 1 << (EpochDay.dayOf(epochDay) - 1);
+    }
+
+    /*
+     * Bits of count days starting at day
+     */
+    private static int maskOf(int day, int count) {
+        return (int) (((1L << count) - 1) << (day - 1));
+    }
+
+    /*
+     * Number of days from epochDay to the end of its month, not going past
+     * toEpochDay
+     */
+    private static int daysInMonthFrom(int epochDay, int toEpochDay) {
+        int daysLeftInMonth = EpochDay.daysInMonth(EpochDay.yearOf(epochDay), EpochDay.monthOf(epochDay))
+                - EpochDay.dayOf(epochDay) + 1;
+        return (int) Math.min(daysLeftInMonth, (long) toEpochDay - epochDay + 1);
+    }
+
+    private static void checkRange(int fromEpochDay, int toEpochDay) {
+        if (fromEpochDay > toEpochDay) {
+            throw new IllegalArgumentException("Range start " + fromEpochDay
+                    + " is after range end " + toEpochDay);
+        }
+    }
+
+    private int indexOf(int epochMonth) {
+        return Arrays.binarySearch(epochMonths, 0, monthCount, epochMonth);
+    }
+
+    /*
+     * Index of the first month not before epochMonth
+     */
+    private int insertionPoint(int epochMonth) {
+        int index = indexOf(epochMonth);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private void orWord(int epochMonth, int bits) {
+        if (bits == 0) {
+            return;
+        }
+        int index = indexOf(epochMonth);
+        if (index >= 0) {
+            if ((words[index] | bits) != words[index]) {
+                words[index] |= bits;
+                version++;
+            }
+            return;
+        }
+
+        // Insert new month
+        index = -index - 1;
+        if (monthCount == epochMonths.length) {
+            epochMonths = Arrays.copyOf(epochMonths, monthCount * 2);
+            words = Arrays.copyOf(words, monthCount * 2);
+        }
+        System.arraycopy(epochMonths, index, epochMonths, index + 1, monthCount - index);
+        System.arraycopy(words, index, words, index + 1, monthCount - index);
+        epochMonths[index] = epochMonth;
+        words[index] = bits;
+        monthCount++;
+        version++;
+    }
+
+    private void andNotWord(int epochMonth, int bits) {
+        int index = indexOf(epochMonth);
+        if (index < 0 || (words[index] & bits) == 0) {
+            return;
+        }
+        words[index] &= ~bits;
+        version++;
+
+        // Keep only months with some date
+        if (words[index] == 0) {
+            System.arraycopy(epochMonths, index + 1, epochMonths, index, monthCount - index - 1);
+            System.arraycopy(words, index + 1, words, index, monthCount - index - 1);
+            monthCount--;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DateBitSet)) {
+            return false;
+        }
+        DateBitSet other = (DateBitSet) o;
+        if (monthCount != other.monthCount) {
+            return false;
+        }
+        for (int i = 0; i < monthCount; i++) {
+            if (epochMonths[i] != other.epochMonths[i] || words[i] != other.words[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < monthCount; i++) {
+            result = 31 * result + epochMonths[i];
+            result = 31 * result + words[i];
+        }
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "DateBitSet{months=" + monthCount + ", size=" + size() + "}";
+    }
+}
@@ -6,6 +6,9 @@ import android.content.Context;
 import android.content.res.Configuration;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.text.format.DateUtils;
 import android.view.ContextThemeWrapper;
 import android.view.LayoutInflater;
@@ -34,6 +37,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -41,6 +46,8 @@ import androidx.fragment.app.DialogFragment;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentManager;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import androidx.viewpager2.widget.ViewPager2;
 import hirondelle.date4j.DateTime;
 
@@ -114,7 +121,8 @@ public class DateCaldroidFragment extends DialogFragment {
     private final Formatter monthYearFormatter = new Formatter(
             monthYearStringBuilder, Locale.getDefault());
 
-    private final MonthViewPagerHelper viewPagerHelper = new MonthViewPagerHelper();
+    // Sizes infinitePager to the rows of the current page
+    private PagerResizeScheduler resizeScheduler;
 
     /*
      * Caldroid view components
@@ -135,7 +143,12 @@ public class DateCaldroidFragment extends DialogFragment {
             YEAR = "year",
             SHOW_NAVIGATION_ARROWS = "showNavigationArrows",
             DISABLE_DATES = "disableDates",
+            DISABLE_DATE_RANGES = "disableDateRanges",
+            DISABLE_DATE_RULES = "disableDateRules",
             SELECTED_DATES = "selectedDates",
+            SELECTED_DATE_BITS = "selectedDateBits",
+            DISABLE_DATES_PARCEL = "disableDatesParcel",
+            SELECTED_DATES_PARCEL = "selectedDatesParcel",
             MIN_DATE = "minDate",
             MAX_DATE = "maxDate",
             ENABLE_SWIPE = "enableSwipe",
@@ -144,7 +157,11 @@ public class DateCaldroidFragment extends DialogFragment {
             ENABLE_CLICK_ON_DISABLED_DATES = "enableClickOnDisabledDates",
             SQUARE_TEXT_VIEW_CELL = "squareTextViewCell",
             THEME_RESOURCE = "themeResource",
-            CLICKABLE_TITLE = "clickableYear";
+            CLICKABLE_TITLE = "clickableYear",
+            USE_MONTH_VIEW = "useMonthView",
+            USE_VIEW_PAGES = "useViewPages",
+            WEEK_STRIP = "weekStrip",
+            VERTICAL_MONTH_LIST = "verticalMonthList";
 
     /*
      * For internal use
@@ -153,18 +170,43 @@ public class DateCaldroidFragment extends DialogFragment {
             MIN_DATE_TIME = "minDateTime",
             MAX_DATE_TIME = "maxDateTime",
             BACKGROUND_FOR_DATETIME_MAP = "backgroundForDateTimeMap",
-            TEXT_COLOR_FOR_DATETIME_MAP = "textColorForDateTimeMap";
+            TEXT_COLOR_FOR_DATETIME_MAP = "textColorForDateTimeMap",
+            CALDROID_STATE = "caldroidState",
+            DECORATION_PALETTE = "decorationPalette",
+            METRICS = "metrics";
 
     private static final String STATE_BUNDLE_KEY = "CALDROID_DATE_SAVED_STATE";
 
+    // Positions of a pager without min and max date
+    private static final MonthPageRange UNBOUNDED_PAGE_RANGE = new MonthPageRange(null, null);
+
     /*
      * Initial data
      */
     protected String dialogTitle;
     protected int month = -1;
     protected int year = -1;
-    protected final ArrayList<DateTime> disableDates = new ArrayList<>();
-    protected final ArrayList<DateTime> selectedDates = new ArrayList<>();
+    protected final DateRangeSet disableDateRanges = new DateRangeSet();
+
+    /*
+     * Disabled dates of the old API, still honoured: they are disabled in
+     * addition to disableDateRanges, and enabling a range enables them too.
+     * Use disableDateRanges instead
+     */
+    @Deprecated
+    protected final DateTimeList disableDates = new DateTimeList();
+    private final DateListMerger disableDatesMerger = new DateListMerger();
+    protected final DateRuleSet disableDateRules = new DateRuleSet();
+    protected final DateBitSet selectedDateSet = new DateBitSet();
+
+    /*
+     * Selected dates of the old API, still honoured: they are selected in
+     * addition to selectedDateSet, and clearing a selection clears them too.
+     * Use selectedDateSet instead
+     */
+    @Deprecated
+    protected final DateTimeList selectedDates = new DateTimeList();
+    private final DateListMerger selectedDatesMerger = new DateListMerger();
     protected DateTime minDateTime;
     protected DateTime maxDateTime;
 
@@ -174,15 +216,23 @@ public class DateCaldroidFragment extends DialogFragment {
     protected Map<String, Object> extraData = new HashMap<>();
 
     /*
-     * backgroundForDateMap holds background resource for each date
+     * backgroundForDateMap holds background resource for each date. Call
+     * onDateTimeMapsChanged() after changing it directly
      */
     protected final Map<DateTime, Drawable> backgroundForDateTimeMap = new HashMap<>();
+    protected DecorationPalette decorationPalette;
 
     /*
-     * textColorForDateMap holds color for text for each date
+     * textColorForDateMap holds color for text for each date. Call
+     * onDateTimeMapsChanged() after changing it directly
      */
     protected final Map<DateTime, Integer> textColorForDateTimeMap = new HashMap<>();
 
+    // Changes of the maps above, counted by the methods changing them, so
+    // that a snapshot does not compare the maps
+    private int backgroundsVersion;
+    private int textColorsVersion;
+
     /*
      * First column of calendar is Sunday
      */
@@ -207,6 +257,29 @@ public class DateCaldroidFragment extends DialogFragment {
      */
     protected boolean squareTextViewCell;
 
+    /*
+     * Draw each month with a single MonthView instead of a gridview of
+     * CellViews. Views from DateGridAdapter.getView are not used in this mode
+     */
+    protected boolean useMonthView = false;
+
+    /*
+     * Page months with plain views recycled by the pager, instead of a
+     * DateGridFragment per month
+     */
+    protected boolean useViewPages = false;
+
+    /*
+     * Page by week, one row of 7 dates per page, always with plain views
+     */
+    protected boolean weekStrip = false;
+
+    /*
+     * Show the months stacked in a vertical list instead of the pager, always
+     * with MonthViews. Takes precedence over the week strip
+     */
+    protected boolean verticalMonthList = false;
+
     /*
      * dateItemClickListener is fired when user click on the date cell
      */
@@ -218,14 +291,37 @@ public class DateCaldroidFragment extends DialogFragment {
      */
     private OnItemLongClickListener dateItemLongClickListener;
 
+    /*
+     * monthViewClickListener is fired when user clicks a date drawn by
+     * MonthView
+     */
+    private MonthView.OnDateClickListener monthViewClickListener;
+
     /*
      * dateCaldroidListener inform library client of the event happens inside
      * Caldroid
      */
     private DateCaldroidListener dateCaldroidListener;
 
+    /*
+     * decorationProvider loads backgrounds of the pages on decorationExecutor
+     */
+    private DateDecorationProvider decorationProvider;
+    private Executor decorationExecutor;
+    protected CaldroidMetrics metrics;
+
+    // Prepares the months next to the shown one on decorationExecutor
+    private final MonthPagePrefetcher pagePrefetcher = new MonthPagePrefetcher(this);
+
+    // Shared by all the calendars which do not set their own executor
+    private static Executor defaultDecorationExecutor;
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
     private CaldroidViewModel caldroidViewModel;
 
+    // Last snapshot of the parameters, see getCaldroidState
+    private CaldroidState caldroidState;
+
     /*
      * Retrieve current month
      * @return
@@ -251,6 +347,85 @@ public class DateCaldroidFragment extends DialogFragment {
      * provide custom adapter here
      */
     public DateGridAdapter getNewDatesGridAdapter(int month, int year) {
+        return new DateGridAdapter(requireActivity(), month, year,
+                getPageCaldroidData(month, year), extraData);
+    }
+
+    /*
+     * Move an adapter of a recycled page to another month
+     */
+    public void updateDatesGridAdapter(@NonNull DateGridAdapter adapter, int month, int year) {
+        adapter.setCaldroidData(getPageCaldroidData(month, year));
+        adapter.setAdapterDateTime(new DateTime(year, month, 1, 0, 0, 0, 0));
+        adapter.notifyDataSetChanged();
+    }
+
+    /*
+     * Move the adapter of a page of the week strip to the week starting at the
+     * epoch day
+     */
+    public void updateWeekGridAdapter(@NonNull DateGridAdapter adapter, int weekStart) {
+        adapter.setCaldroidData(getWeekPageCaldroidData(weekStart));
+        adapter.setAdapterWeek(weekStart);
+        adapter.notifyDataSetChanged();
+    }
+
+    /*
+     * Adapter of a new page of the week strip, created for the month of the
+     * week by getNewDatesGridAdapter
+     */
+    @NonNull
+    DateGridAdapter newWeekPageAdapter(int weekStart) {
+        int monthEpochDay = WeekPageRange.monthEpochDay(weekStart);
+        DateGridAdapter adapter = newPageAdapter(EpochDay.monthOf(monthEpochDay),
+                EpochDay.yearOf(monthEpochDay));
+        if (dateCaldroidListener != null
+                && EpochDay.monthOf(weekStart) != EpochDay.monthOf(weekStart + 6)) {
+            // Backgrounds of the other month too
+            adapter.setCaldroidData(getWeekPageCaldroidData(weekStart));
+        }
+        adapter.setAdapterWeek(weekStart);
+        return adapter;
+    }
+
+    /*
+     * caldroidData of the page of the week, with the backgrounds from the
+     * listener. A week across two months gets the backgrounds of both
+     */
+    protected Map<String, Object> getWeekPageCaldroidData(int weekStart) {
+        int monthEpochDay = WeekPageRange.monthEpochDay(weekStart);
+        int month = EpochDay.monthOf(monthEpochDay);
+        int year = EpochDay.yearOf(monthEpochDay);
+        Map<String, Object> caldroidData = getPageCaldroidData(month, year);
+
+        int firstMonth = EpochDay.monthOf(weekStart);
+        int lastMonth = EpochDay.monthOf(weekStart + 6);
+        if (dateCaldroidListener == null || firstMonth == lastMonth) {
+            return caldroidData;
+        }
+
+        // The middle date is in one of the months, add the other one
+        int otherEpochDay = firstMonth != month ? weekStart : weekStart + 6;
+        Map<DateTime, Drawable> other = dateCaldroidListener.getBackgroundDateTimeMap(
+                EpochDay.monthOf(otherEpochDay), EpochDay.yearOf(otherEpochDay));
+        if (other != null && !other.isEmpty()) {
+            @SuppressWarnings("unchecked")
+            Map<DateTime, Drawable> backgrounds =
+                    (Map<DateTime, Drawable>) caldroidData.get(BACKGROUND_FOR_DATETIME_MAP);
+            Map<DateTime, Drawable> merged = new HashMap<>(other);
+            if (backgrounds != null) {
+                merged.putAll(backgrounds);
+            }
+            caldroidData.put(BACKGROUND_FOR_DATETIME_MAP, merged);
+        }
+        return caldroidData;
+    }
+
+    /*
+     * caldroidData of the page of the month, with the backgrounds from the
+     * listener
+     */
+    protected Map<String, Object> getPageCaldroidData(int month, int year) {
         Map<String, Object> caldroidData = getCaldroidData();
 
         if (dateCaldroidListener != null) {
@@ -258,8 +433,7 @@ public class DateCaldroidFragment extends DialogFragment {
             caldroidData.put(BACKGROUND_FOR_DATETIME_MAP, backgrounds);
         }
 
-        return new DateGridAdapter(requireActivity(), month, year,
-                caldroidData, extraData);
+        return caldroidData;
     }
 
     /*
@@ -291,8 +465,23 @@ public class DateCaldroidFragment extends DialogFragment {
     }
 
 
+    public DecorationPalette getDecorationPalette() {
+        return decorationPalette;
+    }
+
+    /*
+     * Set palette of date styles, used for the dates without a background or
+     * text color of their own. This method does not refresh view, need to call
+     * refreshView()
+     */
+    public void setDecorationPalette(DecorationPalette decorationPalette) {
+        this.decorationPalette = decorationPalette;
+    }
+
     /*
-     * For client to access background and text color maps
+     * For client to access background and text color maps. The live maps are
+     * returned, call onDateTimeMapsChanged() after changing them directly so
+     * that refreshView() applies the changes
      */
     public Map<DateTime, Drawable> getBackgroundForDateTimeMap() {
         return backgroundForDateTimeMap;
@@ -302,6 +491,16 @@ public class DateCaldroidFragment extends DialogFragment {
         return textColorForDateTimeMap;
     }
 
+    /*
+     * Count a change made directly to backgroundForDateTimeMap or
+     * textColorForDateTimeMap, so that refreshView() applies it. Not needed
+     * after the setters, which count their changes
+     */
+    public void onDateTimeMapsChanged() {
+        backgroundsVersion++;
+        textColorsVersion++;
+    }
+
     /*
      * To let user customize the navigation buttons
      */
@@ -325,29 +524,55 @@ public class DateCaldroidFragment extends DialogFragment {
     }
 
     /*
-     * caldroidData return data belong to Caldroid
+     * Snapshot of the current parameters shared by all pages. A new snapshot
+     * with a new version is only taken when some parameter has changed
+     */
+    @NonNull
+    public CaldroidState getCaldroidState() {
+        caldroidState = CaldroidState.snapshot(caldroidState, getEffectiveDisableDates(),
+                disableDateRules, getEffectiveSelectedDates(), minDateTime, maxDateTime,
+                startDayOfWeek, sixWeeksInCalendar, squareTextViewCell, themeResource,
+                backgroundForDateTimeMap, backgroundsVersion,
+                textColorForDateTimeMap, textColorsVersion, decorationPalette);
+        return caldroidState;
+    }
+
+    /*
+     * caldroidData return data belong to Caldroid. Values come from the shared
+     * CaldroidState and must not be modified
      *
      * @return
      */
     public Map<String, Object> getCaldroidData() {
         Map<String, Object> caldroidData = new HashMap<>();
+        putCaldroidData(caldroidData, getCaldroidState());
+        return caldroidData;
+    }
 
-        caldroidData.put(DISABLE_DATES, disableDates);
-        caldroidData.put(SELECTED_DATES, selectedDates);
-        caldroidData.put(MIN_DATE_TIME, minDateTime);
-        caldroidData.put(MAX_DATE_TIME, maxDateTime);
-        caldroidData.put(START_DAY_OF_WEEK, startDayOfWeek);
-        caldroidData.put(SIX_WEEKS_IN_CALENDAR, sixWeeksInCalendar);
-        caldroidData.put(SQUARE_TEXT_VIEW_CELL, squareTextViewCell);
-        caldroidData.put(THEME_RESOURCE, themeResource);
+    /*
+     * Put the values of the state in caldroidData, replacing the previous
+     * ones. Putting keys already there allocates nothing
+     */
+    private void putCaldroidData(@NonNull Map<String, Object> caldroidData,
+                                 @NonNull CaldroidState state) {
+        caldroidData.put(CALDROID_STATE, state);
+        caldroidData.put(DISABLE_DATE_RANGES, state.getDisableDateRanges());
+        caldroidData.put(DISABLE_DATE_RULES, state.getDisableDateRules());
+        caldroidData.put(SELECTED_DATE_BITS, state.getSelectedDates());
+        caldroidData.put(MIN_DATE_TIME, state.getMinDateTime());
+        caldroidData.put(MAX_DATE_TIME, state.getMaxDateTime());
+        caldroidData.put(START_DAY_OF_WEEK, state.getStartDayOfWeek());
+        caldroidData.put(SIX_WEEKS_IN_CALENDAR, state.isSixWeeksInCalendar());
+        caldroidData.put(SQUARE_TEXT_VIEW_CELL, state.isSquareTextViewCell());
+        caldroidData.put(THEME_RESOURCE, state.getThemeResource());
 
 
         // For internal use
         caldroidData
-                .put(BACKGROUND_FOR_DATETIME_MAP, backgroundForDateTimeMap);
-        caldroidData.put(TEXT_COLOR_FOR_DATETIME_MAP, textColorForDateTimeMap);
-
-        return caldroidData;
+                .put(BACKGROUND_FOR_DATETIME_MAP, state.getBackgroundForDateTimeMap());
+        caldroidData.put(TEXT_COLOR_FOR_DATETIME_MAP, state.getTextColorForDateTimeMap());
+        caldroidData.put(DECORATION_PALETTE, state.getDecorationPalette());
+        caldroidData.put(METRICS, metrics);
     }
 
     /*
@@ -377,6 +602,7 @@ public class DateCaldroidFragment extends DialogFragment {
             return;
         }
 
+        backgroundsVersion++;
         backgroundForDateTimeMap.clear();
 
         for (Date date : backgroundForDateMap.keySet()) {
@@ -398,12 +624,14 @@ public class DateCaldroidFragment extends DialogFragment {
 
     public void setBackgroundDrawableForDateTimes(
             Map<DateTime, Drawable> backgroundForDateTimeMap) {
+        backgroundsVersion++;
         this.backgroundForDateTimeMap.putAll(backgroundForDateTimeMap);
     }
 
     public void clearBackgroundDrawableForDateTimes(List<DateTime> dateTimes) {
         if (dateTimes == null || dateTimes.isEmpty()) return;
 
+        backgroundsVersion++;
         for (DateTime dateTime : dateTimes) {
             backgroundForDateTimeMap.remove(dateTime);
         }
@@ -411,20 +639,24 @@ public class DateCaldroidFragment extends DialogFragment {
 
     public void setBackgroundDrawableForDate(Drawable drawable, Date date) {
         DateTime dateTime = CalendarHelper.convertDateToDateTime(date);
+        backgroundsVersion++;
         backgroundForDateTimeMap.put(dateTime, drawable);
     }
 
     public void clearBackgroundDrawableForDate(Date date) {
         DateTime dateTime = CalendarHelper.convertDateToDateTime(date);
+        backgroundsVersion++;
         backgroundForDateTimeMap.remove(dateTime);
     }
 
     public void setBackgroundDrawableForDateTime(Drawable drawable,
                                                  DateTime dateTime) {
+        backgroundsVersion++;
         backgroundForDateTimeMap.put(dateTime, drawable);
     }
 
     public void clearBackgroundDrawableForDateTime(DateTime dateTime) {
+        backgroundsVersion++;
         backgroundForDateTimeMap.remove(dateTime);
     }
 
@@ -438,6 +670,7 @@ public class DateCaldroidFragment extends DialogFragment {
             return;
         }
 
+        textColorsVersion++;
         textColorForDateTimeMap.clear();
 
         for (Date date : textColorForDateMap.keySet()) {
@@ -457,20 +690,24 @@ public class DateCaldroidFragment extends DialogFragment {
 
     public void setTextColorForDateTimes(
             Map<DateTime, Integer> textColorForDateTimeMap) {
+        textColorsVersion++;
         this.textColorForDateTimeMap.putAll(textColorForDateTimeMap);
     }
 
     public void setTextColorForDate(int textColorRes, Date date) {
         DateTime dateTime = CalendarHelper.convertDateToDateTime(date);
+        textColorsVersion++;
         textColorForDateTimeMap.put(dateTime, textColorRes);
     }
 
     public void clearTextColorForDate(Date date) {
         DateTime dateTime = CalendarHelper.convertDateToDateTime(date);
+        textColorsVersion++;
         textColorForDateTimeMap.remove(dateTime);
     }
 
     public void setTextColorForDateTime(int textColorRes, DateTime dateTime) {
+        textColorsVersion++;
         textColorForDateTimeMap.put(dateTime, textColorRes);
     }
 
@@ -488,14 +725,14 @@ public class DateCaldroidFragment extends DialogFragment {
             bundle.putString(DIALOG_TITLE, dialogTitle);
         }
 
-        if (!selectedDates.isEmpty()) {
-            bundle.putStringArrayList(SELECTED_DATES,
-                    CalendarHelper.convertToStringList(selectedDates));
+        DateBitSet effectiveSelectedDates = getEffectiveSelectedDates();
+        if (!effectiveSelectedDates.isEmpty()) {
+            bundle.putParcelable(SELECTED_DATES_PARCEL, DateSetParcel.of(effectiveSelectedDates));
         }
 
-        if (!disableDates.isEmpty()) {
-            bundle.putStringArrayList(DISABLE_DATES,
-                    CalendarHelper.convertToStringList(disableDates));
+        DateRangeSet effectiveDisableDates = getEffectiveDisableDates();
+        if (!effectiveDisableDates.isEmpty()) {
+            bundle.putParcelable(DISABLE_DATES_PARCEL, DateSetParcel.of(effectiveDisableDates));
         }
 
         if (minDateTime != null) {
@@ -512,6 +749,10 @@ public class DateCaldroidFragment extends DialogFragment {
         bundle.putBoolean(SIX_WEEKS_IN_CALENDAR, sixWeeksInCalendar);
         bundle.putInt(THEME_RESOURCE, themeResource);
         bundle.putBoolean(CLICKABLE_TITLE, clickableTitle);
+        bundle.putBoolean(USE_MONTH_VIEW, useMonthView);
+        bundle.putBoolean(USE_VIEW_PAGES, useViewPages);
+        bundle.putBoolean(WEEK_STRIP, weekStrip);
+        bundle.putBoolean(VERTICAL_MONTH_LIST, verticalMonthList);
 
         Bundle args = getArguments();
         if (args != null && args.containsKey(SQUARE_TEXT_VIEW_CELL)) {
@@ -578,6 +819,16 @@ public class DateCaldroidFragment extends DialogFragment {
      * @param dateTime
      */
     public void moveToDateTime(DateTime dateTime) {
+        if (mMonthListAdapter != null) {
+            // Jump to the month of dateTime
+            scrollMonthListTo(mMonthPageRange.dateTimeToPosition(dateTime));
+            return;
+        }
+        if (mWeekPageRange != null) {
+            // Swipe to the week of dateTime
+            binding.infinitePager.setCurrentItem(mWeekPageRange.dateTimeToPosition(dateTime));
+            return;
+        }
 
         DateTime firstOfMonth = new DateTime(year, month, 1, 0, 0, 0, 0);
         DateTime lastOfMonth = firstOfMonth.getEndOfMonth();
@@ -631,21 +882,30 @@ public class DateCaldroidFragment extends DialogFragment {
     }
 
     public void setCalendarDateTime(DateTime dateTime) {
-        month = dateTime.getMonth();
-        year = dateTime.getYear();
+        setCalendarMonth(dateTime.getMonth(), dateTime.getYear());
+    }
+
+    private void setCalendarMonth(int month, int year) {
+        this.month = month;
+        this.year = year;
 
         // Notify listener
         if (dateCaldroidListener != null) {
             dateCaldroidListener.onChangeMonth(month, year);
         }
 
-        refreshView();
+        // Only the title depends on the current month, pages are unchanged
+        refreshTitleTextView();
     }
 
     /*
      * Set calendar to previous month
      */
     public void prevMonth() {
+        if (mMonthListAdapter != null) {
+            scrollMonthListTo(Math.max(0, pageChangeListener.getCurrentPage() - 1));
+            return;
+        }
         binding.infinitePager.setCurrentItem(pageChangeListener.getCurrentPage() - 1);
     }
 
@@ -653,10 +913,22 @@ public class DateCaldroidFragment extends DialogFragment {
      * Set calendar to next month
      */
     public void nextMonth() {
+        if (mMonthListAdapter != null) {
+            scrollMonthListTo(Math.min(mMonthListAdapter.getItemCount() - 1,
+                    pageChangeListener.getCurrentPage() + 1));
+            return;
+        }
         binding.infinitePager.setCurrentItem(pageChangeListener.getCurrentPage() + 1);
     }
 
+    /*
+     * Position of the current page, in the vertical month list the position of
+     * the month at the top
+     */
     public int getCurrentPagerPoistion() {
+        if (mMonthListAdapter != null) {
+            return pageChangeListener.getCurrentPage();
+        }
         return binding.infinitePager.getCurrentItem();
     }
 
@@ -665,9 +937,19 @@ public class DateCaldroidFragment extends DialogFragment {
      * to explicitly call refreshView()
      */
     public void clearDisableDates() {
+        disableDateRanges.clear();
         disableDates.clear();
     }
 
+    /*
+     * disableDateRanges with the dates of the deprecated disableDates list,
+     * merged again only when either of them has changed
+     */
+    @NonNull
+    protected DateRangeSet getEffectiveDisableDates() {
+        return disableDatesMerger.merge(disableDateRanges, disableDates);
+    }
+
     /*
      * Set disableDates from ArrayList of Date
      *
@@ -678,13 +960,107 @@ public class DateCaldroidFragment extends DialogFragment {
             return;
         }
 
-        disableDates.clear();
+        clearDisableDates();
 
         for (Date date : disableDateList) {
-            DateTime dateTime = CalendarHelper.convertDateToDateTime(date);
-            disableDates.add(dateTime);
+            disableDateRanges.add(EpochDay.fromDate(date));
+        }
+
+    }
+
+    /*
+     * Disable all dates from fromDate to toDate, both inclusive, in addition
+     * to the dates already disabled. Large ranges are stored as a single
+     * interval, not date by date. This method does not refresh view, need to
+     * explicitly call refreshView()
+     *
+     * @param fromDate
+     * @param toDate
+     */
+    public void setDisabledRange(Date fromDate, Date toDate) {
+        if (fromDate == null || toDate == null || fromDate.after(toDate)) {
+            return;
+        }
+        disableDateRanges.addRange(EpochDay.fromDate(fromDate), EpochDay.fromDate(toDate));
+    }
+
+    public void setDisabledRange(DateTime fromDateTime, DateTime toDateTime) {
+        if (fromDateTime == null || toDateTime == null || fromDateTime.gt(toDateTime)) {
+            return;
+        }
+        disableDateRanges.addRange(fromDateTime, toDateTime);
+    }
+
+    /*
+     * Enable again all dates from fromDate to toDate, both inclusive. This
+     * method does not refresh view, need to explicitly call refreshView()
+     *
+     * @param fromDate
+     * @param toDate
+     */
+    public void clearDisabledRange(Date fromDate, Date toDate) {
+        if (fromDate == null || toDate == null || fromDate.after(toDate)) {
+            return;
+        }
+        removeDisabledRange(EpochDay.fromDate(fromDate), EpochDay.fromDate(toDate));
+    }
+
+    public void clearDisabledRange(DateTime fromDateTime, DateTime toDateTime) {
+        if (fromDateTime == null || toDateTime == null || fromDateTime.gt(toDateTime)) {
+            return;
         }
+        removeDisabledRange(EpochDay.fromDateTime(fromDateTime), EpochDay.fromDateTime(toDateTime));
+    }
 
+    private void removeDisabledRange(int fromEpochDay, int toEpochDay) {
+        disableDateRanges.removeRange(fromEpochDay, toEpochDay);
+        disableDates.removeEpochDays(fromEpochDay, toEpochDay);
+    }
+
+    /*
+     * Disable all dates matched by the rule, for e.g DateRules.weekends(). Rules
+     * are evaluated only for the visible dates. They are not saved in the
+     * instance state, add them again when the fragment is recreated. This
+     * method does not refresh view, need to explicitly call refreshView()
+     *
+     * @param rule
+     */
+    public void addDisableDateRule(@NonNull DateRule rule) {
+        disableDateRules.add(rule);
+    }
+
+    public void removeDisableDateRule(DateRule rule) {
+        disableDateRules.remove(rule);
+    }
+
+    /*
+     * Remove all disable date rules. This method does not refresh view, need
+     * to explicitly call refreshView()
+     */
+    public void clearDisableDateRules() {
+        disableDateRules.clear();
+    }
+
+    /*
+     * Copy of the disabled dates
+     *
+     * @return
+     */
+    public DateRangeSet getDisableDateRanges() {
+        return new DateRangeSet(getEffectiveDisableDates());
+    }
+
+    /*
+     * Replace disabled dates with the ranges of the set. This method does not
+     * refresh view, need to explicitly call refreshView()
+     *
+     * @param disableDateRanges
+     */
+    public void setDisableDateRanges(DateRangeSet disableDateRanges) {
+        clearDisableDates();
+        if (disableDateRanges != null) {
+            this.disableDateRanges.addAll(disableDateRanges);
+        }
     }
 
     /*
@@ -712,12 +1088,14 @@ public class DateCaldroidFragment extends DialogFragment {
             return;
         }
 
-        disableDates.clear();
+        clearDisableDates();
 
         for (String dateString : disableDateStrings) {
             DateTime dateTime = CalendarHelper.getDateTimeFromString(
                     dateString, dateFormat);
-            disableDates.add(dateTime);
+            if (dateTime != null) {
+                disableDateRanges.add(EpochDay.fromDateTime(dateTime));
+            }
         }
     }
 
@@ -726,9 +1104,19 @@ public class DateCaldroidFragment extends DialogFragment {
      * explicitly call refreshView()
      */
     public void clearSelectedDates() {
+        selectedDateSet.clear();
         selectedDates.clear();
     }
 
+    /*
+     * selectedDateSet with the dates of the deprecated selectedDates list,
+     * merged again only when either of them has changed
+     */
+    @NonNull
+    protected DateBitSet getEffectiveSelectedDates() {
+        return selectedDatesMerger.merge(selectedDateSet, selectedDates);
+    }
+
     /*
      * Select the dates from fromDate to toDate. By default the background color
      * is holo_blue_light, and the text color is black. You can customize the
@@ -745,17 +1133,8 @@ public class DateCaldroidFragment extends DialogFragment {
             return;
         }
 
-        selectedDates.clear();
-
-        DateTime fromDateTime = CalendarHelper.convertDateToDateTime(fromDate);
-        DateTime toDateTime = CalendarHelper.convertDateToDateTime(toDate);
-
-        DateTime dateTime = fromDateTime;
-        while (dateTime.lt(toDateTime)) {
-            selectedDates.add(dateTime);
-            dateTime = dateTime.plusDays(1);
-        }
-        selectedDates.add(toDateTime);
+        clearSelectedDates();
+        selectedDateSet.addRange(EpochDay.fromDate(fromDate), EpochDay.fromDate(toDate));
     }
 
     /*
@@ -784,8 +1163,7 @@ public class DateCaldroidFragment extends DialogFragment {
         if (date == null) {
             return;
         }
-        DateTime dateTime = CalendarHelper.convertDateToDateTime(date);
-        selectedDates.add(dateTime);
+        selectedDateSet.add(EpochDay.fromDate(date));
     }
     
     /*
@@ -796,8 +1174,37 @@ public class DateCaldroidFragment extends DialogFragment {
         if (date == null) {
             return;
         }
-        DateTime dateTime = CalendarHelper.convertDateToDateTime(date);
-        selectedDates.remove(dateTime);
+        int epochDay = EpochDay.fromDate(date);
+        selectedDateSet.remove(epochDay);
+        selectedDates.removeEpochDays(epochDay, epochDay);
+    }
+
+    /*
+     * Select the date if it is not selected, clear its selection otherwise.
+     * This method does not refresh view, need to call refreshView()
+     *
+     * @param date
+     * @return true if the date is selected after the toggle
+     */
+    public boolean toggleSelectedDate(Date date) {
+        if (date == null) {
+            return false;
+        }
+        if (isSelectedDate(date)) {
+            clearSelectedDate(date);
+            return false;
+        }
+        setSelectedDate(date);
+        return true;
+    }
+
+    /*
+     * Copy of the selected dates
+     *
+     * @return
+     */
+    public DateBitSet getSelectedDateSet() {
+        return new DateBitSet(getEffectiveSelectedDates());
     }
     
     /*
@@ -808,8 +1215,7 @@ public class DateCaldroidFragment extends DialogFragment {
         if (date == null) {
             return false;
         }
-        DateTime dateTime = CalendarHelper.convertDateToDateTime(date);
-        return selectedDates.contains(dateTime);
+        return getEffectiveSelectedDates().contains(EpochDay.fromDate(date));
     }
 
     /*
@@ -870,7 +1276,7 @@ public class DateCaldroidFragment extends DialogFragment {
 
     public void setSixWeeksInCalendar(boolean sixWeeksInCalendar) {
         this.sixWeeksInCalendar = sixWeeksInCalendar;
-        viewPagerHelper.setSixWeeksInCalendar(sixWeeksInCalendar);
+        requestPagerResize();
     }
 
     /*
@@ -937,6 +1343,171 @@ public class DateCaldroidFragment extends DialogFragment {
         this.dateCaldroidListener = dateCaldroidListener;
     }
 
+    public DateDecorationProvider getDecorationProvider() {
+        return decorationProvider;
+    }
+
+    /*
+     * Set provider of page backgrounds, called off the main thread for each
+     * page created or moved to another month. Pages already shown are not
+     * decorated again
+     */
+    public void setDecorationProvider(DateDecorationProvider decorationProvider) {
+        this.decorationProvider = decorationProvider;
+        pagePrefetcher.clear();
+    }
+
+    public int getPrefetchDistance() {
+        return pagePrefetcher.getDistance();
+    }
+
+    /*
+     * Number of months before and after the shown one whose decorations are
+     * prepared on the decoration executor, so that swiping only binds them.
+     * Default is 2, 0 disables the prefetching
+     */
+    public void setPrefetchDistance(int prefetchDistance) {
+        pagePrefetcher.setDistance(prefetchDistance);
+    }
+
+    /*
+     * Executor running the decoration provider, a single background thread
+     * shared by all calendars by default
+     */
+    @NonNull
+    public Executor getDecorationExecutor() {
+        if (decorationExecutor != null) {
+            return decorationExecutor;
+        }
+        synchronized (DateCaldroidFragment.class) {
+            if (defaultDecorationExecutor == null) {
+                defaultDecorationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "CaldroidDecorations");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            return defaultDecorationExecutor;
+        }
+    }
+
+    public void setDecorationExecutor(Executor decorationExecutor) {
+        this.decorationExecutor = decorationExecutor;
+    }
+
+    public CaldroidMetrics getMetrics() {
+        return metrics;
+    }
+
+    /*
+     * Set metrics of the hot paths, null for none. Must be set before the view
+     * is created to cover the first pages
+     */
+    public void setMetrics(CaldroidMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /*
+     * Load the decorations of the page of the adapter. The page keeps its
+     * default look until they arrive, results for a page which has been moved
+     * or reset meanwhile are dropped
+     */
+    protected void requestDecorations(@NonNull DateGridAdapter adapter, int month, int year) {
+        final DateDecorationProvider provider = decorationProvider;
+        if (provider == null) {
+            return;
+        }
+
+        final int request = adapter.newDecorationRequest();
+        Map<DateTime, Drawable> prepared = pagePrefetcher.getDecorations(
+                EpochDay.toEpochMonth(year, month));
+        if (prepared != null) {
+            // Prefetched, the page is bound with them
+            if (!prepared.isEmpty()) {
+                adapter.setDecorationBackgrounds(prepared);
+            }
+            if (metrics != null) {
+                metrics.onDecorationsLoaded(month, year, 0);
+            }
+            return;
+        }
+
+        // The page is needed now, do not let it wait behind the prefetches
+        pagePrefetcher.cancelPending();
+        final CaldroidMetrics requestMetrics = metrics;
+        final long requestNanos = requestMetrics != null ? SystemClock.elapsedRealtimeNanos() : 0;
+        getDecorationExecutor().execute(() -> {
+            Map<DateTime, Drawable> backgrounds = provider.getBackgroundDateTimeMap(month, year);
+            postDecorations(adapter, request, backgrounds, month, year,
+                    requestMetrics, requestNanos);
+        });
+    }
+
+    /*
+     * Load the decorations of a page of the week strip. A week across two
+     * months gets the backgrounds of both
+     */
+    protected void requestWeekDecorations(@NonNull DateGridAdapter adapter, int weekStart) {
+        final int month = EpochDay.monthOf(weekStart);
+        final int year = EpochDay.yearOf(weekStart);
+        final int lastMonth = EpochDay.monthOf(weekStart + 6);
+        final int lastYear = EpochDay.yearOf(weekStart + 6);
+        if (month == lastMonth) {
+            requestDecorations(adapter, month, year);
+            return;
+        }
+
+        final DateDecorationProvider provider = decorationProvider;
+        if (provider == null) {
+            return;
+        }
+
+        final int request = adapter.newDecorationRequest();
+        // Read on the main thread, the adapter may move meanwhile
+        final int pageMonth = adapter.getMonth();
+        final int pageYear = adapter.getYear();
+        final CaldroidMetrics requestMetrics = metrics;
+        final long requestNanos = requestMetrics != null ? SystemClock.elapsedRealtimeNanos() : 0;
+        getDecorationExecutor().execute(() -> {
+            Map<DateTime, Drawable> backgrounds = new HashMap<>();
+            Map<DateTime, Drawable> first = provider.getBackgroundDateTimeMap(month, year);
+            if (first != null) {
+                backgrounds.putAll(first);
+            }
+            Map<DateTime, Drawable> last = provider.getBackgroundDateTimeMap(lastMonth, lastYear);
+            if (last != null) {
+                backgrounds.putAll(last);
+            }
+            postDecorations(adapter, request, backgrounds, pageMonth, pageYear,
+                    requestMetrics, requestNanos);
+        });
+    }
+
+    // Apply the loaded decorations on the main thread, unless the page moved.
+    // No decorations still drop the ones of a page whose decorations were
+    // invalidated
+    private void postDecorations(@NonNull DateGridAdapter adapter, int request,
+                                 Map<DateTime, Drawable> backgrounds, int month, int year,
+                                 CaldroidMetrics requestMetrics, long requestNanos) {
+        final boolean empty = backgrounds == null || backgrounds.isEmpty();
+        mainHandler.post(() -> {
+            if (empty && adapter.getDecorationBackgrounds() == null) {
+                return;
+            }
+            if (isAdded() && adapter.isDecorationRequestCurrent(request)) {
+                try (CaldroidMetrics.Section section =
+                             CaldroidMetrics.Section.trace("Caldroid:applyDecorations")) {
+                    adapter.setDecorationBackgrounds(empty ? null : backgrounds);
+                    adapter.notifyDataSetChanged();
+                }
+                if (requestMetrics != null) {
+                    requestMetrics.onDecorationsLoaded(month, year,
+                            SystemClock.elapsedRealtimeNanos() - requestNanos);
+                }
+            }
+        });
+    }
+
     /*
      * Callback to listener when date is valid (not disable, not outside of
      * min/max date)
@@ -952,21 +1523,7 @@ public class DateCaldroidFragment extends DialogFragment {
                                         int position, long id) {
                     DateGridAdapter pageAdapter = getPageAdapter(getCurrentPagerPoistion());
                     if (pageAdapter != null) {
-                        DateTime dateTime = pageAdapter.getDatetimeList().get(position);
-
-                        if (!enableClickOnDisabledDates) {
-                            if (minDateTime != null && dateTime
-                                    .lt(minDateTime) || maxDateTime != null && dateTime
-                                    .gt(maxDateTime) || disableDates.contains(dateTime)) {
-                                return;
-                            }
-                        }
-
-                        Date date = CalendarHelper.convertDateTimeToDate(dateTime);
-                        caldroidViewModel.selectDate(date);
-                        if (dateCaldroidListener != null) {
-                            dateCaldroidListener.onSelectDate(date, view);
-                        }
+                        onDateCellClick(pageAdapter, position, view);
                     }
                     else {
                         throw new InternalError("Current page adapter not found");
@@ -995,18 +1552,7 @@ public class DateCaldroidFragment extends DialogFragment {
                     if (dateCaldroidListener != null) {
                         DateGridAdapter pageAdapter = getPageAdapter(getCurrentPagerPoistion());
                         if (pageAdapter != null) {
-                            DateTime dateTime = pageAdapter.getDatetimeList().get(position);
-
-                            if (!enableClickOnDisabledDates) {
-                                if (minDateTime != null && dateTime
-                                        .lt(minDateTime) || maxDateTime != null && dateTime
-                                        .gt(maxDateTime) || disableDates.contains(dateTime)) {
-                                    return false;
-                                }
-                            }
-                            Date date = CalendarHelper
-                                    .convertDateTimeToDate(dateTime);
-                            dateCaldroidListener.onLongClickDate(date, view);
+                            onDateCellLongClick(pageAdapter, position, view);
                         }
                         else {
                             throw new InternalError("Current page adapter not found");
@@ -1021,11 +1567,86 @@ public class DateCaldroidFragment extends DialogFragment {
         return dateItemLongClickListener;
     }
 
+    /*
+     * Click listener of the dates drawn by MonthView, same callbacks as the
+     * gridview listeners
+     *
+     * @return
+     */
+    public MonthView.OnDateClickListener getMonthViewClickListener() {
+        if (monthViewClickListener == null) {
+            monthViewClickListener = new MonthView.OnDateClickListener() {
+                @Override
+                public void onDateClick(@NonNull MonthView monthView, int position) {
+                    onDateCellClick(monthView.getAdapter(), position, monthView);
+                }
+
+                @Override
+                public boolean onDateLongClick(@NonNull MonthView monthView, int position) {
+                    if (dateCaldroidListener != null) {
+                        onDateCellLongClick(monthView.getAdapter(), position, monthView);
+                    }
+                    return true;
+                }
+            };
+        }
+
+        return monthViewClickListener;
+    }
+
+    /*
+     * Whether a click on the date cell at position is passed to the listener
+     */
+    protected boolean isDateCellClickable(@NonNull DateGridAdapter pageAdapter, int position) {
+        if (enableClickOnDisabledDates) {
+            return true;
+        }
+
+        DateTime dateTime = pageAdapter.getCellDateTime(position);
+        return !(minDateTime != null && dateTime
+                .lt(minDateTime) || maxDateTime != null && dateTime
+                .gt(maxDateTime) || getEffectiveDisableDates().contains(dateTime)
+                || disableDateRules.matches(pageAdapter.getCellEpochDay(position)));
+    }
+
+    /*
+     * Select the date of the cell at position and inform the listener
+     */
+    protected void onDateCellClick(@NonNull DateGridAdapter pageAdapter, int position, View view) {
+        if (!isDateCellClickable(pageAdapter, position)) {
+            return;
+        }
+
+        Date date = CalendarHelper.convertDateTimeToDate(pageAdapter.getCellDateTime(position));
+        caldroidViewModel.selectDate(date);
+        if (dateCaldroidListener != null) {
+            dateCaldroidListener.onSelectDate(date, view);
+        }
+    }
+
+    protected void onDateCellLongClick(@NonNull DateGridAdapter pageAdapter, int position, View view) {
+        if (dateCaldroidListener == null || !isDateCellClickable(pageAdapter, position)) {
+            return;
+        }
+
+        Date date = CalendarHelper
+                .convertDateTimeToDate(pageAdapter.getCellDateTime(position));
+        dateCaldroidListener.onLongClickDate(date, view);
+    }
+
     /*
      * Refresh month title text view when user swipe
      */
     protected void refreshTitleTextView() {
         // Refresh title view
+        titleTextView.setText(getMonthTitle(month, year));
+    }
+
+    /*
+     * Localized title of a month, as shown by the title view
+     */
+    @NonNull
+    String getMonthTitle(int month, int year) {
         firstMonthTime.set(Calendar.YEAR, year);
         firstMonthTime.set(Calendar.MONTH, month - 1);
         firstMonthTime.set(android.icu.util.Calendar.DAY_OF_MONTH, 15);
@@ -1037,7 +1658,26 @@ public class DateCaldroidFragment extends DialogFragment {
         String monthTitle = DateUtils.formatDateRange(getActivity(),
                 monthYearFormatter, millis, millis, MONTH_YEAR_FLAG).toString();
 
-        titleTextView.setText(monthTitle.toUpperCase(Locale.getDefault()));
+        return monthTitle.toUpperCase(Locale.getDefault());
+    }
+
+    /*
+     * Load the decorations of the DateDecorationProvider again, for the pages
+     * shown and the months prepared around them, when the data of the
+     * provider has changed. refreshView() does not reload them
+     */
+    public void invalidateDecorations() {
+        pagePrefetcher.clear();
+        for (DateGridAdapter adapter : getPageAdapters()) {
+            if (mWeekPageRange != null) {
+                requestWeekDecorations(adapter, adapter.getCellEpochDay(0));
+            } else {
+                requestDecorations(adapter, adapter.getMonth(), adapter.getYear());
+            }
+        }
+        if (mMonthPageRange != null) {
+            pagePrefetcher.prefetchAgain(mMonthPageRange);
+        }
     }
 
     /*
@@ -1051,12 +1691,159 @@ public class DateCaldroidFragment extends DialogFragment {
             return;
         }
 
-        refreshTitleTextView();
+        try (CaldroidMetrics.Section section = CaldroidMetrics.Section.begin(
+                "Caldroid:refreshView", metrics, CaldroidMetrics.Section.REFRESH_VIEW)) {
+            updatePageRange();
+            refreshTitleTextView();
+
+            // Rebind only the pages which rendered an older snapshot
+            int version = getCaldroidState().getVersion();
+            for (DateGridAdapter adapter : getPageAdapters()) {
+                if (adapter.getStateVersion() != version) {
+                    refreshPage(adapter);
+                }
+            }
+        }
+    }
+
+    /*
+     * Apply changed min and max dates to the pager. The pages keep their month
+     * and the pager stays on the current month, only the positions move
+     */
+    private void updatePageRange() {
+        int position;
+        if (mWeekPageRange != null) {
+            int weekStart = mWeekPageRange.positionToEpochDay(getCurrentPagerPoistion());
+            if (!mWeekPageRange.setBounds(minDateTime, maxDateTime)) {
+                return;
+            }
+            position = mWeekPageRange.epochDayToPosition(weekStart);
+        } else {
+            if (mMonthPageRange == null
+                    || !mMonthPageRange.setBounds(minDateTime, maxDateTime)) {
+                return;
+            }
+            position = mMonthPageRange.dateTimeToPosition(
+                    new DateTime(year, month, 1, 0, 0, 0, 0));
+        }
+
+        if (mMonthListAdapter != null) {
+            mMonthListAdapter.notifyDataSetChanged();
+            scrollMonthListTo(position);
+            return;
+        }
+
+        RecyclerView.Adapter<?> pagerAdapter = binding.infinitePager.getAdapter();
+        if (pagerAdapter != null) {
+            pagerAdapter.notifyDataSetChanged();
+        }
+
+        pageChangeListener.setCurrentPage(position);
+        binding.infinitePager.setCurrentItem(position, false);
+    }
+
+    /*
+     * Rebind a page with the current parameters, keeping the backgrounds the
+     * listener gave for its month
+     */
+    protected void refreshPage(@NonNull DateGridAdapter adapter) {
+        updatePageData(adapter);
+        adapter.notifyDataSetChanged();
+    }
+
+    /*
+     * Put the current state in the caldroidData the page already has, each
+     * page got its own map from getPageCaldroidData
+     */
+    private void updatePageData(@NonNull DateGridAdapter adapter) {
+        Map<String, Object> caldroidData = adapter.getCaldroidData();
+        Object backgrounds = caldroidData.get(BACKGROUND_FOR_DATETIME_MAP);
+        putCaldroidData(caldroidData, getCaldroidState());
+        if (dateCaldroidListener != null) {
+            caldroidData.put(BACKGROUND_FOR_DATETIME_MAP, backgrounds);
+        }
+        adapter.setCaldroidData(caldroidData);
+    }
+
+    /*
+     * Apply the changes to the selected and disabled dates, and refresh only
+     * the cells of the dates which actually changed. Pages which do not show
+     * any of them are not redrawn. There is no need to call refreshView()
+     * afterwards, unless other parameters were changed too
+     */
+    public void applyDateChanges(@NonNull DateChangeSet changes) {
+        CaldroidState previous = getCaldroidState();
+        int previousVersion = previous.getVersion();
+        DateBitSet changed = changes.applyTo(selectedDateSet, disableDateRanges,
+                selectedDates, disableDates);
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        // Only the dates changed, the pages get just the new date sets
+        caldroidState = previous.withDates(getEffectiveDisableDates(),
+                getEffectiveSelectedDates());
+        int version = caldroidState.getVersion();
+        for (DateGridAdapter adapter : getPageAdapters()) {
+            int pageVersion = adapter.getStateVersion();
+            if (pageVersion == version) {
+                continue;
+            }
+            if (pageVersion != previousVersion) {
+                // The page missed other changes as well
+                refreshPage(adapter);
+                continue;
+            }
+
+            adapter.setDateSets(caldroidState);
+            refreshCells(adapter, changed);
+        }
+    }
+
+    private int getPagePosition(@NonNull DateGridAdapter adapter) {
+        if (mWeekPageRange != null) {
+            return mWeekPageRange.epochDayToPosition(adapter.getCellEpochDay(0));
+        }
+        return mMonthPageRange.epochMonthToPosition(
+                EpochDay.toEpochMonth(adapter.getYear(), adapter.getMonth()));
+    }
+
+    /*
+     * Rebind the cells of the page showing one of the dates
+     */
+    protected void refreshCells(@NonNull DateGridAdapter adapter, @NonNull DateBitSet dates) {
+        boolean onPage = false;
+        for (int position = 0; position < adapter.getCount() && !onPage; position++) {
+            onPage = dates.contains(adapter.getCellEpochDay(position));
+        }
+        if (!onPage) {
+            return;
+        }
+
+        View pageView = getPageView(getPagePosition(adapter));
+        if (pageView instanceof GridView) {
+            GridView gridView = (GridView) pageView;
+            int firstPosition = gridView.getFirstVisiblePosition();
+            for (int position = 0; position < adapter.getCount(); position++) {
+                if (dates.contains(adapter.getCellEpochDay(position))) {
+                    View cellView = gridView.getChildAt(position - firstPosition);
+                    if (cellView != null) {
+                        adapter.getView(position, cellView, gridView);
+                    }
+                }
+            }
+        } else if (pageView instanceof MonthView) {
+            // Cells are drawn in one pass, redrawing is cheap
+            pageView.invalidate();
+        } else {
+            adapter.notifyDataSetChanged();
+        }
     }
 
     /*
      * Retrieve initial arguments to the fragment Data can include: month, year,
-     * dialogTitle, showNavigationArrows,(String) disableDates, selectedDates,
+     * dialogTitle, showNavigationArrows,(String) disableDates or (int[])
+     * disableDateRanges, selectedDates,
      * minDate, maxDate, squareTextViewCell
      */
     protected void retrieveInitialArgs() {
@@ -1110,28 +1897,43 @@ public class DateCaldroidFragment extends DialogFragment {
             enableClickOnDisabledDates = args.getBoolean(
                     ENABLE_CLICK_ON_DISABLED_DATES, false);
 
-            // Get disable dates
+            // Get rendering mode
+            useMonthView = args.getBoolean(USE_MONTH_VIEW, false);
+            useViewPages = args.getBoolean(USE_VIEW_PAGES, false);
+            weekStrip = args.getBoolean(WEEK_STRIP, false);
+            verticalMonthList = args.getBoolean(VERTICAL_MONTH_LIST, false);
+
+            // Get disable dates, as saved state, as ranges or as list of date
+            // strings
+            DateSetParcel disableDatesParcel = DateSetParcel.fromBundle(args, DISABLE_DATES_PARCEL);
+            int[] disableDateRangeArray = args.getIntArray(DISABLE_DATE_RANGES);
             ArrayList<String> disableDateStrings = args
                     .getStringArrayList(DISABLE_DATES);
-            if (disableDateStrings != null && !disableDateStrings.isEmpty()) {
-                disableDates.clear();
-                for (String dateString : disableDateStrings) {
-                    DateTime dt = CalendarHelper.getDateTimeFromString(
-                            dateString, null);
-                    disableDates.add(dt);
-                }
+            if (disableDatesParcel != null) {
+                clearDisableDates();
+                disableDatesParcel.addTo(disableDateRanges);
+            } else if (disableDateRangeArray != null && disableDateRangeArray.length > 0) {
+                setDisableDateRanges(DateRangeSet.fromArray(disableDateRangeArray));
+            } else if (disableDateStrings != null && !disableDateStrings.isEmpty()) {
+                clearDisableDates();
+                IsoDateCodec.parseInto(disableDateStrings, disableDateRanges);
             }
 
-            // Get selected dates
+            // Get selected dates, as saved state, as month bits or as list of
+            // date strings
+            DateSetParcel selectedDatesParcel = DateSetParcel.fromBundle(args, SELECTED_DATES_PARCEL);
+            int[] selectedDateBits = args.getIntArray(SELECTED_DATE_BITS);
             ArrayList<String> selectedDateStrings = args
                     .getStringArrayList(SELECTED_DATES);
-            if (selectedDateStrings != null && !selectedDateStrings.isEmpty()) {
-                selectedDates.clear();
-                for (String dateString : selectedDateStrings) {
-                    DateTime dt = CalendarHelper.getDateTimeFromString(
-                            dateString, null);
-                    selectedDates.add(dt);
-                }
+            if (selectedDatesParcel != null) {
+                clearSelectedDates();
+                selectedDatesParcel.addTo(selectedDateSet);
+            } else if (selectedDateBits != null && selectedDateBits.length > 0) {
+                clearSelectedDates();
+                selectedDateSet.addAll(DateBitSet.fromArray(selectedDateBits));
+            } else if (selectedDateStrings != null && !selectedDateStrings.isEmpty()) {
+                clearSelectedDates();
+                IsoDateCodec.parseInto(selectedDateStrings, selectedDateSet);
             }
 
             // Get min date and max date
@@ -1235,6 +2037,34 @@ public class DateCaldroidFragment extends DialogFragment {
         requireActivity().setTheme(themeResource);
 
         binding = DateCalendarViewBinding.inflate(localInflater, container, false);
+        resizeScheduler = new PagerResizeScheduler(binding.infinitePager,
+                new PagerResizeScheduler.Source() {
+                    @Override
+                    public View getResizeChild() {
+                        return getPageView(getCurrentPagerPoistion());
+                    }
+
+                    @Override
+                    public int getResizeRows() {
+                        DateGridAdapter pageAdapter = getPageAdapter(getCurrentPagerPoistion());
+                        return getPagerRows(pageAdapter != null ? pageAdapter.getRowCount() : 6);
+                    }
+
+                    @Override
+                    public int getThemeResource() {
+                        return themeResource;
+                    }
+
+                    @Override
+                    public boolean isSquareTextViewCell() {
+                        return squareTextViewCell;
+                    }
+
+                    @Override
+                    public CaldroidMetrics getMetrics() {
+                        return metrics;
+                    }
+                });
 
         // For the monthTitleTextView
         titleTextView = binding.calendarDaytitleButton;
@@ -1297,7 +2127,29 @@ public class DateCaldroidFragment extends DialogFragment {
     }
 
     public void resizeViewPager(@NonNull View _childView, ArrayList<DateTime> _datesInMonth) {
-        viewPagerHelper.resizeCalendarViewPager(binding.infinitePager, _childView, _datesInMonth);
+        resizeViewPager(_childView, _datesInMonth.size() / 7);
+    }
+
+    public void resizeViewPager(@NonNull View _childView, int _rows) {
+        resizeScheduler.resize(_childView, getPagerRows(_rows));
+    }
+
+    /*
+     * Resize the pager to the current page on the next frame. Requests until
+     * then are merged into one
+     */
+    void requestPagerResize() {
+        if (resizeScheduler != null) {
+            resizeScheduler.requestResize();
+        }
+    }
+
+    // If fit 6 weeks, the pager always shows 6 rows. A week strip has one
+    private int getPagerRows(int _rows) {
+        if (weekStrip) {
+            return 1;
+        }
+        return sixWeeksInCalendar ? 6 : _rows;
     }
 
 	/*
@@ -1310,6 +2162,13 @@ public class DateCaldroidFragment extends DialogFragment {
     }
 
     private MonthPagerAdapter mMonthPagerAdapter;
+    private MonthPageViewAdapter mMonthPageViewAdapter;
+    private MonthPageRange mMonthPageRange;
+    private WeekPageViewAdapter mWeekPageViewAdapter;
+    private WeekPageRange mWeekPageRange;
+    private MonthListAdapter mMonthListAdapter;
+    private LinearLayoutManager monthListLayoutManager;
+    private RecyclerView.RecycledViewPool recycledViewPool;
 
     /*
      * Setup 4 pages contain date grid views. These pages are recycled to use
@@ -1321,67 +2180,294 @@ public class DateCaldroidFragment extends DialogFragment {
         // Get current date time
         DateTime shownDateTime = new DateTime(year, month, 1, 0, 0, 0, 0);
 
+        if (verticalMonthList) {
+            setupMonthList(shownDateTime);
+            return;
+        }
+
         // Set enable swipe
         binding.infinitePager.setEnabled(enableSwipe);
 
-        // Set if viewpager wrap around particular month or all months (6 rows)
-        viewPagerHelper.setSixWeeksInCalendar(sixWeeksInCalendar);
-
-        // MonthPagerAdapter
-        mMonthPagerAdapter = new MonthPagerAdapter(
-                getChildFragmentManager(), getLifecycle(), this);
+        RecyclerView.Adapter<?> pagerAdapter;
+        int pos;
+        if (weekStrip) {
+            // One row of dates per page, recycled like the view pages
+            mWeekPageViewAdapter = new WeekPageViewAdapter(this);
+            mWeekPageRange = mWeekPageViewAdapter.getPageRange();
+            View pagerChild = binding.infinitePager.getChildAt(0);
+            if (pagerChild instanceof RecyclerView) {
+                ((RecyclerView) pagerChild).setRecycledViewPool(getRecycledViewPool());
+            }
+            pagerAdapter = mWeekPageViewAdapter;
+
+            // Start on the week of today if it is in the shown month
+            int today = EpochDay.today();
+            pos = mWeekPageRange.epochDayToPosition(
+                    EpochDay.monthOf(today) == month && EpochDay.yearOf(today) == year
+                            ? today : EpochDay.fromDateTime(shownDateTime));
+        } else if (useViewPages) {
+            // Plain views recycled through a pool, no fragment per page
+            mMonthPageViewAdapter = new MonthPageViewAdapter(this);
+            mMonthPageRange = mMonthPageViewAdapter.getPageRange();
+            View pagerChild = binding.infinitePager.getChildAt(0);
+            if (pagerChild instanceof RecyclerView) {
+                ((RecyclerView) pagerChild).setRecycledViewPool(getRecycledViewPool());
+            }
+            pagerAdapter = mMonthPageViewAdapter;
+            pos = mMonthPageRange.dateTimeToPosition(shownDateTime);
+        } else {
+            // MonthPagerAdapter
+            mMonthPagerAdapter = new MonthPagerAdapter(
+                    getChildFragmentManager(), getLifecycle(), this);
+            mMonthPageRange = mMonthPagerAdapter.getPageRange();
+            pagerAdapter = mMonthPagerAdapter;
+            pos = mMonthPageRange.dateTimeToPosition(shownDateTime);
+        }
 
         // Set to pageChangeListener
-        pageChangeListener = new DatePageChangeListener(mMonthPagerAdapter.getItemCount() - 1);
+        pageChangeListener = new DatePageChangeListener(pagerAdapter.getItemCount() - 1);
         setCalendarDateTime(shownDateTime);
 
         // Use the infinitePagerAdapter to provide data for dateViewPager
-        binding.infinitePager.setAdapter(mMonthPagerAdapter);
+        binding.infinitePager.setAdapter(pagerAdapter);
 
         binding.infinitePager.registerOnPageChangeCallback(new ViewPager2.OnPageChangeCallback() {
             @Override
             public void onPageSelected(int position) {
-                String childTag = getViewPager2FragmentTag(position);
-                Fragment child = getChildFragmentManager().findFragmentByTag(childTag);
-                if (child instanceof DateGridFragment) {
-                    DateGridFragment dateGridFragment = (DateGridFragment) child;
-                    View childView = child.getView();
-                    if (childView != null) {
-                        resizeViewPager(childView, dateGridFragment.getGridAdapter().getDatetimeList());
-                    }
-                }
+                requestPagerResize();
             }
         });
 
         // Setup pageChangeListener
         binding.infinitePager.registerOnPageChangeCallback(pageChangeListener);
-        int pos = mMonthPagerAdapter.dateTimeToPosition(shownDateTime);
         binding.infinitePager.setCurrentItem(pos, false);
     }
 
+    /*
+     * Setup the vertical month list in place of the pager. Rows are recycled
+     * through the same pool as the view pages, and the layout manager lets
+     * GapWorker bind the next month between frames while the list scrolls
+     */
+    private void setupMonthList(@NonNull DateTime shownDateTime) {
+        binding.infinitePager.setVisibility(View.GONE);
+        binding.monthList.setVisibility(View.VISIBLE);
+
+        mMonthListAdapter = new MonthListAdapter(this);
+        mMonthPageRange = mMonthListAdapter.getPageRange();
+        int pos = mMonthPageRange.dateTimeToPosition(shownDateTime);
+
+        monthListLayoutManager = new LinearLayoutManager(requireContext());
+        binding.monthList.setLayoutManager(monthListLayoutManager);
+        binding.monthList.setHasFixedSize(true);
+        binding.monthList.setRecycledViewPool(getRecycledViewPool());
+        binding.monthList.addItemDecoration(
+                new MonthListHeaderDecoration(requireContext(), themeResource));
+
+        pageChangeListener = new DatePageChangeListener(pos);
+        setCalendarDateTime(shownDateTime);
+        binding.monthList.setAdapter(mMonthListAdapter);
+
+        // The month at the top is the current month
+        binding.monthList.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                int position = monthListLayoutManager.findFirstVisibleItemPosition();
+                if (position != RecyclerView.NO_POSITION
+                        && position != pageChangeListener.getCurrentPage()) {
+                    pageChangeListener.onPageSelected(position);
+                }
+            }
+        });
+        monthListLayoutManager.scrollToPositionWithOffset(pos, 0);
+    }
+
+    /*
+     * Put the month at position at the top of the vertical month list
+     */
+    private void scrollMonthListTo(int _position) {
+        pageChangeListener.onPageSelected(_position);
+        monthListLayoutManager.scrollToPositionWithOffset(_position, 0);
+    }
+
     @NonNull
     public DateGridFragment createDateGridFragment(int _position) {
-        DateGridFragment dateGridFragment = new DateGridFragment();
+        int pageMonth = mMonthPageRange.positionToMonth(_position);
+        int pageYear = mMonthPageRange.positionToYear(_position);
+        try (CaldroidMetrics.Section section = CaldroidMetrics.Section.begin("Caldroid:createPage",
+                metrics, CaldroidMetrics.Section.PAGE_CREATED, pageMonth, pageYear)) {
+            DateGridFragment dateGridFragment = new DateGridFragment();
+            DateGridAdapter adapter = newPageAdapter(pageMonth, pageYear);
+            requestDecorations(adapter, pageMonth, pageYear);
+
+            dateGridFragment.setGridViewRes(getGridViewRes());
+            dateGridFragment.setGridAdapter(adapter);
+            dateGridFragment.setOnItemClickListener(getDateItemClickListener());
+            dateGridFragment
+                    .setOnItemLongClickListener(getDateItemLongClickListener());
+            dateGridFragment.setUseMonthView(useMonthView);
+            dateGridFragment.setOnDateClickListener(getMonthViewClickListener());
+            return dateGridFragment;
+        }
+    }
+
+    /*
+     * getNewDatesGridAdapter, timed for the metrics
+     */
+    @NonNull
+    DateGridAdapter newPageAdapter(int month, int year) {
+        try (CaldroidMetrics.Section section = CaldroidMetrics.Section.begin("Caldroid:newAdapter",
+                metrics, CaldroidMetrics.Section.ADAPTER_CREATED, month, year)) {
+            return getNewDatesGridAdapter(month, year);
+        }
+    }
+
+    /*
+     * Tag ViewPager2 gives the page fragment at the given position, for a
+     * pager without min and max date. Positions start at the min date
+     * otherwise, see getPageFragmentTag
+     */
+    public static String getViewPager2FragmentTag(int _position) {
+        return getViewPager2FragmentTagForItemId(UNBOUNDED_PAGE_RANGE.positionToEpochMonth(_position));
+    }
 
-        DateTime fragmentDateTime = mMonthPagerAdapter.positionToDateTime(_position);
-        DateGridAdapter adapter = getNewDatesGridAdapter(fragmentDateTime.getMonth(), fragmentDateTime.getYear());
+    /*
+     * Tag ViewPager2 gives the page fragment with the given item id. The item
+     * id of a month page is its epoch month
+     */
+    public static String getViewPager2FragmentTagForItemId(long _itemId) {
+        return "f" + _itemId;
+    }
 
-        dateGridFragment.setGridViewRes(getGridViewRes());
-        dateGridFragment.setGridAdapter(adapter);
-        dateGridFragment.setOnItemClickListener(getDateItemClickListener());
-        dateGridFragment
-                .setOnItemLongClickListener(getDateItemLongClickListener());
+    String getPageFragmentTag(int _position) {
+        return getViewPager2FragmentTagForItemId(mMonthPageRange.positionToEpochMonth(_position));
+    }
 
-        return dateGridFragment;
+    /*
+     * Create the view of a page when paging with views, a MonthView or the
+     * gridview of getGridViewRes()
+     */
+    @NonNull
+    public View createDatePageView(@NonNull ViewGroup container, boolean monthView) {
+        if (monthView) {
+            MonthView view = new MonthView(requireContext(), themeResource, squareTextViewCell);
+            view.setOnDateClickListener(getMonthViewClickListener());
+            return view;
+        }
+
+        LayoutInflater localInflater = getThemeInflater(getActivity(),
+                LayoutInflater.from(container.getContext()), themeResource);
+        GridView gridView = (GridView) localInflater.inflate(getGridViewRes(), container, false);
+        gridView.setOnItemClickListener(getDateItemClickListener());
+        gridView.setOnItemLongClickListener(getDateItemLongClickListener());
+        return gridView;
     }
 
-    public static String getViewPager2FragmentTag(int _position) {
-        return "f" + _position;
+    void setDatePageAdapter(@NonNull View page, @NonNull DateGridAdapter adapter) {
+        if (page instanceof MonthView) {
+            ((MonthView) page).setAdapter(adapter);
+        } else if (page instanceof GridView) {
+            ((GridView) page).setAdapter(adapter);
+        }
+    }
+
+    /*
+     * Resize the pager when the page of the current month gets attached
+     */
+    void onDatePageAttached(int _position, @NonNull View page, @Nullable DateGridAdapter adapter) {
+        if (adapter != null && _position == getCurrentPagerPoistion()) {
+            requestPagerResize();
+        }
+    }
+
+    public boolean isUseMonthView() {
+        return useMonthView;
+    }
+
+    public boolean isWeekStrip() {
+        return weekStrip;
+    }
+
+    public boolean isVerticalMonthList() {
+        return verticalMonthList;
+    }
+
+    /*
+     * Pool of recycled pages when paging with views. Calendars showing the same
+     * theme and cell type can share one pool
+     */
+    @NonNull
+    public RecyclerView.RecycledViewPool getRecycledViewPool() {
+        if (recycledViewPool == null) {
+            recycledViewPool = new RecyclerView.RecycledViewPool();
+        }
+        return recycledViewPool;
+    }
+
+    /*
+     * Set pool of recycled pages, must be called before the view is created
+     */
+    public void setRecycledViewPool(@NonNull RecyclerView.RecycledViewPool recycledViewPool) {
+        this.recycledViewPool = recycledViewPool;
+    }
+
+    /*
+     * Adapters of the pages currently created by the pager
+     */
+    @NonNull
+    protected List<DateGridAdapter> getPageAdapters() {
+        if (mMonthListAdapter != null) {
+            return mMonthListAdapter.getBoundRowAdapters();
+        }
+        if (mWeekPageViewAdapter != null) {
+            return mWeekPageViewAdapter.getBoundPageAdapters();
+        }
+        if (mMonthPageViewAdapter != null) {
+            return mMonthPageViewAdapter.getBoundPageAdapters();
+        }
+
+        List<DateGridAdapter> adapters = new ArrayList<>();
+        if (isAdded()) {
+            for (Fragment fragment : getChildFragmentManager().getFragments()) {
+                if (fragment instanceof DateGridFragment) {
+                    DateGridAdapter adapter = ((DateGridFragment) fragment).getGridAdapter();
+                    if (adapter != null) {
+                        adapters.add(adapter);
+                    }
+                }
+            }
+        }
+        return adapters;
+    }
+
+    @Nullable
+    View getPageView(int _position) {
+        if (mMonthListAdapter != null) {
+            return mMonthListAdapter.getBoundRowView(_position);
+        }
+        if (mWeekPageViewAdapter != null) {
+            return mWeekPageViewAdapter.getBoundPageView(_position);
+        }
+        if (mMonthPageViewAdapter != null) {
+            return mMonthPageViewAdapter.getBoundPageView(_position);
+        }
+
+        Fragment pageFragment = getChildFragmentManager().findFragmentByTag(getPageFragmentTag(_position));
+        return pageFragment != null ? pageFragment.getView() : null;
     }
 
     @Nullable
     DateGridAdapter getPageAdapter(int _position) {
-        Fragment currentPageFragment = getChildFragmentManager().findFragmentByTag(getViewPager2FragmentTag(_position));
+        if (mMonthListAdapter != null) {
+            return mMonthListAdapter.getBoundRowAdapter(_position);
+        }
+        if (mWeekPageViewAdapter != null) {
+            return mWeekPageViewAdapter.getBoundPageAdapter(_position);
+        }
+        if (mMonthPageViewAdapter != null) {
+            return mMonthPageViewAdapter.getBoundPageAdapter(_position);
+        }
+
+        Fragment currentPageFragment = getChildFragmentManager().findFragmentByTag(getPageFragmentTag(_position));
         if (currentPageFragment instanceof DateGridFragment) {
             DateGridFragment currentDateGrid = (DateGridFragment) currentPageFragment;
             return currentDateGrid.getGridAdapter();
@@ -1451,8 +2537,22 @@ public class DateCaldroidFragment extends DialogFragment {
         public void onPageSelected(int position) {
             setCurrentPage(position);
 
-            // Update current date time of the selected page
-            setCalendarDateTime(mMonthPagerAdapter.positionToDateTime(position));
+            if (mWeekPageRange != null) {
+                // The month holding most dates of the week
+                int monthEpochDay = WeekPageRange.monthEpochDay(
+                        mWeekPageRange.positionToEpochDay(position));
+                setCalendarMonth(EpochDay.monthOf(monthEpochDay),
+                        EpochDay.yearOf(monthEpochDay));
+                return;
+            }
+
+            // Update current month of the selected page
+            setCalendarMonth(mMonthPageRange.positionToMonth(position),
+                    mMonthPageRange.positionToYear(position));
+
+            // Prepare the next months in the swipe direction
+            pagePrefetcher.onPageSelected(mMonthPageRange.positionToEpochMonth(position),
+                    mMonthPageRange);
        }
     }
 }
@@ -0,0 +1,163 @@
+package com.roomorama.caldroid;
+
+import java.util.Date;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import hirondelle.date4j.DateTime;
+
+/*
+ * Dates to select, unselect, disable or enable, applied at once with
+ * DateCaldroidFragment.applyDateChanges. Only the pages showing one of the
+ * changed dates are refreshed, and only the cells of these dates are rebound.
+ * <p/>
+ * Changes are applied in the order select, unselect, disable, enable; a date
+ * both selected and unselected in the same change set ends up unselected.
+ */
+public class DateChangeSet {
+    private final DateBitSet selected = new DateBitSet();
+    private final DateBitSet unselected = new DateBitSet();
+    private final DateBitSet disabled = new DateBitSet();
+    private final DateBitSet enabled = new DateBitSet();
+
+    public DateChangeSet select(int epochDay) {
+        selected.add(epochDay);
+        return this;
+    }
+
+    public DateChangeSet select(@NonNull Date date) {
+        return select(EpochDay.fromDate(date));
+    }
+
+    public DateChangeSet select(@NonNull DateTime dateTime) {
+        return select(EpochDay.fromDateTime(dateTime));
+    }
+
+    public DateChangeSet unselect(int epochDay) {
+        unselected.add(epochDay);
+        return this;
+    }
+
+    public DateChangeSet unselect(@NonNull Date date) {
+        return unselect(EpochDay.fromDate(date));
+    }
+
+    public DateChangeSet unselect(@NonNull DateTime dateTime) {
+        return unselect(EpochDay.fromDateTime(dateTime));
+    }
+
+    public DateChangeSet disable(int epochDay) {
+        disabled.add(epochDay);
+        return this;
+    }
+
+    public DateChangeSet disable(@NonNull Date date) {
+        return disable(EpochDay.fromDate(date));
+    }
+
+    public DateChangeSet disable(@NonNull DateTime dateTime) {
+        return disable(EpochDay.fromDateTime(dateTime));
+    }
+
+    public DateChangeSet enable(int epochDay) {
+        enabled.add(epochDay);
+        return this;
+    }
+
+    public DateChangeSet enable(@NonNull Date date) {
+        return enable(EpochDay.fromDate(date));
+    }
+
+    public DateChangeSet enable(@NonNull DateTime dateTime) {
+        return enable(EpochDay.fromDateTime(dateTime));
+    }
+
+    public boolean isEmpty() {
+        return selected.isEmpty() && unselected.isEmpty()
+                && disabled.isEmpty() && enabled.isEmpty();
+    }
+
+    public void clear() {
+        selected.clear();
+        unselected.clear();
+        disabled.clear();
+        enabled.clear();
+    }
+
+    /*
+     * Apply the changes to the selected and disabled sets
+     *
+     * @return dates whose selection or disabled state actually changed
+     */
+    @NonNull
+    public DateBitSet applyTo(@NonNull DateBitSet selectedDates,
+                              @NonNull DateRangeSet disableDates) {
+        return applyTo(selectedDates, disableDates, null, null);
+    }
+
+    /*
+     * Apply the changes to the selected and disabled sets, and to the
+     * deprecated date lists merged into them. Unselected and enabled dates are
+     * removed from these lists as well
+     *
+     * @return dates whose selection or disabled state actually changed
+     */
+    @NonNull
+    public DateBitSet applyTo(@NonNull DateBitSet selectedDates,
+                              @NonNull DateRangeSet disableDates,
+                              @Nullable DateTimeList selectedDateList,
+                              @Nullable DateTimeList disableDateList) {
+        DateBitSet candidates = new DateBitSet(selected);
+        candidates.addAll(unselected);
+        candidates.addAll(disabled);
+        candidates.addAll(enabled);
+
+        // Previous state of the candidates, the lists count too
+        DateBitSet listSelected = toDateBitSet(selectedDateList);
+        DateBitSet listDisabled = toDateBitSet(disableDateList);
+        int[] epochDays = candidates.toEpochDays();
+        boolean[] wasSelected = new boolean[epochDays.length];
+        boolean[] wasDisabled = new boolean[epochDays.length];
+        for (int i = 0; i < epochDays.length; i++) {
+            wasSelected[i] = selectedDates.contains(epochDays[i])
+                    || listSelected.contains(epochDays[i]);
+            wasDisabled[i] = disableDates.contains(epochDays[i])
+                    || listDisabled.contains(epochDays[i]);
+        }
+
+        selectedDates.addAll(selected);
+        selectedDates.removeAll(unselected);
+        for (int epochDay : disabled.toEpochDays()) {
+            disableDates.add(epochDay);
+        }
+        for (int epochDay : enabled.toEpochDays()) {
+            disableDates.remove(epochDay);
+        }
+        if (selectedDateList != null && !selectedDateList.isEmpty()
+                && selectedDateList.removeEpochDays(unselected)) {
+            listSelected.removeAll(unselected);
+        }
+        if (disableDateList != null && !disableDateList.isEmpty()
+                && disableDateList.removeEpochDays(enabled)) {
+            listDisabled.removeAll(enabled);
+        }
+
+        // Keep only the dates whose state differs
+        DateBitSet changed = new DateBitSet();
+        for (int i = 0; i < epochDays.length; i++) {
+            boolean isSelected = selectedDates.contains(epochDays[i])
+                    || listSelected.contains(epochDays[i]);
+            boolean isDisabled = disableDates.contains(epochDays[i])
+                    || listDisabled.contains(epochDays[i]);
+            if (wasSelected[i] != isSelected || wasDisabled[i] != isDisabled) {
+                changed.add(epochDays[i]);
+            }
+        }
+        return changed;
+    }
+
+    @NonNull
+    private static DateBitSet toDateBitSet(@Nullable DateTimeList dateList) {
+        return dateList != null ? dateList.toDateBitSet() : new DateBitSet();
+    }
+}
@@ -0,0 +1,28 @@
+package com.roomorama.caldroid;
+
+import android.graphics.drawable.Drawable;
+
+import java.util.Map;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import hirondelle.date4j.DateTime;
+
+/*
+ * Asynchronous alternative to DateCaldroidListener.getBackgroundDateTimeMap.
+ * The provider is called on the decoration executor of DateCaldroidFragment, so
+ * it can query a database or the network. Pages render with the default cell
+ * styles first, the backgrounds are applied when they arrive on the main thread.
+ * Results for a page that has moved to another month meanwhile are discarded.
+ */
+public interface DateDecorationProvider {
+    /*
+     * Backgrounds of the dates of the month, null if there are none
+     *
+     * @param month
+     * @param year
+     */
+    @WorkerThread
+    @Nullable
+    Map<DateTime, Drawable> getBackgroundDateTimeMap(int month, int year);
+}
@@ -3,10 +3,7 @@ package com.roomorama.caldroid;
 import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.Resources;
-import android.content.res.TypedArray;
 import android.graphics.drawable.Drawable;
-import android.util.TypedValue;
-import android.view.ContextThemeWrapper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -16,11 +13,11 @@ import android.widget.TextView;
 import com.caldroid.R;
 
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
+import androidx.annotation.NonNull;
 import hirondelle.date4j.DateTime;
 
 /*
@@ -29,27 +26,72 @@ import hirondelle.date4j.DateTime;
  * @author thomasdao
  */
 public class DateGridAdapter extends BaseAdapter {
+    // Texts of day numbers, shared so that binding a cell does not allocate
+    private static final String[] DAY_TEXTS = new String[32];
+
+    static {
+        for (int i = 1; i < DAY_TEXTS.length; i++) {
+            DAY_TEXTS[i] = String.valueOf(i);
+        }
+    }
+
+    // Built lazily from cellEpochDays, use getDatetimeList(). Filled with each
+    // page when fillsProtectedLists() is true
     protected ArrayList<DateTime> datetimeList;
+    // Epoch days of the cells, reused when the adapter moves to another month
+    protected final int[] cellEpochDays = new int[CalendarHelper.MAX_DAYS_IN_FULL_WEEKS];
+    protected int cellCount;
+    protected MonthLayout monthLayout;
     protected int month;
     protected int year;
+    // Set for a page of the week strip, see setAdapterWeek
+    protected boolean weekPage;
+    protected int weekStartEpochDay;
     protected final Context context;
     protected ArrayList<DateTime> disableDates;
-    protected ArrayList<DateTime> selectedDates;
-
-    // Use internally, to make the search for date faster instead of using
-    // indexOf methods on ArrayList
+    // Filled only when fillsProtectedLists() is true
     protected final Map<DateTime, Integer> disableDatesMap = new HashMap<>();
+    protected DateRangeSet disableDateRanges = new DateRangeSet();
+    protected DateRuleSet disableDateRules = new DateRuleSet();
+    protected ArrayList<DateTime> selectedDates;
     protected final Map<DateTime, Integer> selectedDatesMap = new HashMap<>();
+    protected DateBitSet selectedDateSet = new DateBitSet();
+
+    // Use internally, results of disableDateRules for the cells of the month,
+    // bit per cell position. Valid while the version matches the rules
+    private long disabledByRuleBits;
+    private int disabledByRuleVersion;
+    private boolean disabledByRuleValid;
 
     protected DateTime minDateTime;
     protected DateTime maxDateTime;
     protected DateTime today;
+    protected int minEpochDay = Integer.MIN_VALUE;
+    protected int maxEpochDay = Integer.MAX_VALUE;
+    protected int todayEpochDay = EpochDay.today();
     protected int startDayOfWeek;
     protected boolean sixWeeksInCalendar;
     protected boolean squareTextViewCell;
     protected int themeResource;
     protected final Resources resources;
 
+    /*
+     * Backgrounds from the DateDecorationProvider, null until they arrive
+     */
+    protected Map<DateTime, Drawable> decorationBackgrounds;
+    // Incremented whenever the page changes, see newDecorationRequest
+    private int decorationRequest;
+
+    /*
+     * Date styles shared with the fragment, may be null
+     */
+    protected DecorationPalette decorationPalette;
+
+    // Built on demand, see getPageModel
+    private MonthPageModel pageModel;
+
+    // Version of the CaldroidState the page was bound to, 0 if none
+    private int stateVersion;
     protected int defaultCellBackgroundRes = -1;
     protected ColorStateList defaultTextColorRes;
 
@@ -64,24 +106,153 @@ public class DateGridAdapter extends BaseAdapter {
 
 	protected final LayoutInflater localInflater;
 
+    /*
+     * Metrics of the fragment, may be null
+     */
+    protected CaldroidMetrics metrics;
+
     public void setAdapterDateTime(DateTime dateTime) {
         this.month = dateTime.getMonth();
         this.year = dateTime.getYear();
-        this.datetimeList = CalendarHelper.getFullWeeks(this.month, this.year,
-                startDayOfWeek, sixWeeksInCalendar);
+        this.weekPage = false;
+        fillCells();
+        clearDecorations();
+    }
+
+    /*
+     * Show the 7 dates of the week starting at the epoch day, as one row. The
+     * month of the page is the one holding most of these dates, and no date is
+     * shown as of a previous or next month
+     */
+    public void setAdapterWeek(int weekStartEpochDay) {
+        int monthEpochDay = WeekPageRange.monthEpochDay(weekStartEpochDay);
+        this.month = EpochDay.monthOf(monthEpochDay);
+        this.year = EpochDay.yearOf(monthEpochDay);
+        this.weekPage = true;
+        this.weekStartEpochDay = weekStartEpochDay;
+        fillCells();
+        clearDecorations();
+    }
+
+    public boolean isWeekPage() {
+        return weekPage;
+    }
+
+    private void fillCells() {
+        if (weekPage) {
+            monthLayout = null;
+            for (int i = 0; i < 7; i++) {
+                cellEpochDays[i] = weekStartEpochDay + i;
+            }
+            cellCount = 7;
+        } else {
+            monthLayout = CalendarHelper.getMonthLayout(this.month, this.year,
+                    startDayOfWeek, sixWeeksInCalendar);
+            cellCount = monthLayout.copyEpochDays(cellEpochDays);
+        }
+        disabledByRuleValid = false;
+        datetimeList = null;
+        pageModel = null;
+        if (fillsProtectedLists()) {
+            getDatetimeList();
+        }
+    }
+
+    /*
+     * Precomputed cells of the page. Rebuilt when the page moves, the data of
+     * the adapter is set, the live selected / disabled sets change, or
+     * notifyDataSetChanged() is called
+     */
+    @NonNull
+    public MonthPageModel getPageModel() {
+        if (pageModel == null || !pageModel.isCurrent(this)) {
+            pageModel = MonthPageModel.build(this);
+        }
+        return pageModel;
+    }
+
+    /*
+     * Drop the page model, for e.g. after changing the maps of custom
+     * backgrounds and text colors
+     */
+    public void invalidatePageModel() {
+        pageModel = null;
+    }
+
+    @Override
+    public void notifyDataSetChanged() {
+        pageModel = null;
+        super.notifyDataSetChanged();
+    }
+
+    /*
+     * Whether datetimeList, disableDates, disableDatesMap, selectedDates and
+     * selectedDatesMap are filled with every page. They are built on demand by
+     * their getters otherwise, so binding a page allocates no DateTime per
+     * cell. Subclasses reading these fields directly return true
+     */
+    protected boolean fillsProtectedLists() {
+        return false;
     }
 
     // GETTERS AND SETTERS
     public ArrayList<DateTime> getDatetimeList() {
+        if (datetimeList == null) {
+            datetimeList = new ArrayList<>(cellCount);
+            for (int i = 0; i < cellCount; i++) {
+                datetimeList.add(EpochDay.toDateTime(cellEpochDays[i]));
+            }
+        }
         return datetimeList;
     }
 
+    /*
+     * Layout of the month, null for a page of the week strip
+     */
+    public MonthLayout getMonthLayout() {
+        return monthLayout;
+    }
+
+    /*
+     * Text of the day number, shared instances
+     */
+    public static String getDayText(int day) {
+        return DAY_TEXTS[day];
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getCellEpochDay(int _position) {
+        return cellEpochDays[_position];
+    }
+
+    public DateTime getCellDateTime(int _position) {
+        return datetimeList != null ? datetimeList.get(_position)
+                : EpochDay.toDateTime(cellEpochDays[_position]);
+    }
+
+    /*
+     * Number of week rows shown by the grid
+     */
+    public int getRowCount() {
+        return cellCount / 7;
+    }
+
     public DateTime getMinDateTime() {
         return minDateTime;
     }
 
     public void setMinDateTime(DateTime minDateTime) {
         this.minDateTime = minDateTime;
+        this.minEpochDay = minDateTime == null ? Integer.MIN_VALUE
+                : EpochDay.fromDateTime(minDateTime);
+        this.pageModel = null;
     }
 
     public DateTime getMaxDateTime() {
@@ -90,22 +261,96 @@ public class DateGridAdapter extends BaseAdapter {
 
     public void setMaxDateTime(DateTime maxDateTime) {
         this.maxDateTime = maxDateTime;
+        this.maxEpochDay = maxDateTime == null ? Integer.MAX_VALUE
+                : EpochDay.fromDateTime(maxDateTime);
+        this.pageModel = null;
     }
 
+    /*
+     * Disabled dates expanded to a list. Prefer getDisableDateRanges, disabled
+     * ranges may cover many dates
+     */
     public ArrayList<DateTime> getDisableDates() {
+        if (disableDates == null) {
+            disableDates = disableDateRanges.toDateTimeList();
+        }
         return disableDates;
     }
 
     public void setDisableDates(ArrayList<DateTime> disableDates) {
         this.disableDates = disableDates;
+        this.disableDateRanges = DateRangeSet.fromDateTimes(disableDates);
+        this.pageModel = null;
+        fillDisableDatesMap();
+    }
+
+    public DateRangeSet getDisableDateRanges() {
+        return disableDateRanges;
+    }
+
+    public void setDisableDateRanges(DateRangeSet disableDateRanges) {
+        this.disableDates = null;
+        this.disableDateRanges = disableDateRanges != null ? disableDateRanges
+                : new DateRangeSet();
+        this.pageModel = null;
+        fillDisableDatesMap();
+    }
+
+    private void fillDisableDatesMap() {
+        disableDatesMap.clear();
+        if (!fillsProtectedLists()) {
+            return;
+        }
+        for (DateTime dateTime : getDisableDates()) {
+            disableDatesMap.put(dateTime, 1);
+        }
+    }
+
+    public DateRuleSet getDisableDateRules() {
+        return disableDateRules;
+    }
+
+    public void setDisableDateRules(DateRuleSet disableDateRules) {
+        this.disableDateRules = disableDateRules != null ? disableDateRules
+                : new DateRuleSet();
+        this.disabledByRuleValid = false;
+        this.pageModel = null;
     }
 
     public ArrayList<DateTime> getSelectedDates() {
+        if (selectedDates == null) {
+            selectedDates = selectedDateSet.toDateTimeList();
+        }
         return selectedDates;
     }
 
     public void setSelectedDates(ArrayList<DateTime> selectedDates) {
         this.selectedDates = selectedDates;
+        this.selectedDateSet = DateBitSet.fromDateTimes(selectedDates);
+        fillSelectedDatesMap();
+        this.pageModel = null;
+    }
+
+    public DateBitSet getSelectedDateSet() {
+        return selectedDateSet;
+    }
+
+    public void setSelectedDateSet(DateBitSet selectedDateSet) {
+        this.selectedDates = null;
+        this.selectedDateSet = selectedDateSet != null ? selectedDateSet
+                : new DateBitSet();
+        fillSelectedDatesMap();
+        this.pageModel = null;
+    }
+
+    private void fillSelectedDatesMap() {
+        selectedDatesMap.clear();
+        if (!fillsProtectedLists()) {
+            return;
+        }
+        for (DateTime dateTime : getSelectedDates()) {
+            selectedDatesMap.put(dateTime, 1);
+        }
     }
 
     public int getThemeResource() {
@@ -121,6 +366,61 @@ public class DateGridAdapter extends BaseAdapter {
 
         // Reset parameters
         populateFromCaldroidData();
+        pageModel = null;
+    }
+
+    /*
+     * Move the page to a state differing from the one in caldroidData only in
+     * the disabled and selected dates, see CaldroidState.withDates. Only these
+     * values of caldroidData are replaced
+     */
+    public void setDateSets(@NonNull CaldroidState state) {
+        caldroidData.put(DateCaldroidFragment.CALDROID_STATE, state);
+        caldroidData.put(DateCaldroidFragment.DISABLE_DATE_RANGES, state.getDisableDateRanges());
+        caldroidData.put(DateCaldroidFragment.SELECTED_DATE_BITS, state.getSelectedDates());
+        stateVersion = state.getVersion();
+        setDisableDateRanges(state.getDisableDateRanges());
+        setSelectedDateSet(state.getSelectedDates());
+    }
+
+    /*
+     * Version of the CaldroidState in caldroidData, 0 when caldroidData does
+     * not come from a snapshot
+     */
+    public int getStateVersion() {
+        return stateVersion;
+    }
+
+    public Map<DateTime, Drawable> getDecorationBackgrounds() {
+        return decorationBackgrounds;
+    }
+
+    /*
+     * Set backgrounds loaded by the DateDecorationProvider, they take
+     * precedence over BACKGROUND_FOR_DATETIME_MAP. This method does not
+     * refresh view, need to call notifyDataSetChanged()
+     */
+    public void setDecorationBackgrounds(Map<DateTime, Drawable> decorationBackgrounds) {
+        this.decorationBackgrounds = decorationBackgrounds;
+        this.pageModel = null;
+    }
+
+    /*
+     * Start a new decoration request for the current page. Results of previous
+     * requests are stale once the page has been moved or the data reset
+     */
+    int newDecorationRequest() {
+        return ++decorationRequest;
+    }
+
+    boolean isDecorationRequestCurrent(int request) {
+        return decorationRequest == request;
+    }
+
+    private void clearDecorations() {
+        decorationBackgrounds = null;
+        pageModel = null;
+        decorationRequest++;
     }
 
     public Map<String, Object> getExtraData() {
@@ -164,28 +464,35 @@ public class DateGridAdapter extends BaseAdapter {
      */
     @SuppressWarnings("unchecked")
     private void populateFromCaldroidData() {
-        disableDates = (ArrayList<DateTime>) caldroidData
-                .get(DateCaldroidFragment.DISABLE_DATES);
-        if (disableDates != null) {
-            disableDatesMap.clear();
-            for (DateTime dateTime : disableDates) {
-                disableDatesMap.put(dateTime, 1);
-            }
+        CaldroidState state = (CaldroidState) caldroidData
+                .get(DateCaldroidFragment.CALDROID_STATE);
+        stateVersion = state != null ? state.getVersion() : 0;
+        decorationPalette = (DecorationPalette) caldroidData
+                .get(DateCaldroidFragment.DECORATION_PALETTE);
+
+        setDisableDateRules((DateRuleSet) caldroidData
+                .get(DateCaldroidFragment.DISABLE_DATE_RULES));
+        DateRangeSet disableDateRanges = (DateRangeSet) caldroidData
+                .get(DateCaldroidFragment.DISABLE_DATE_RANGES);
+        if (disableDateRanges != null) {
+            setDisableDateRanges(disableDateRanges);
+        } else {
+            setDisableDates((ArrayList<DateTime>) caldroidData
+                    .get(DateCaldroidFragment.DISABLE_DATES));
         }
-
-        selectedDates = (ArrayList<DateTime>) caldroidData
-                .get(DateCaldroidFragment.SELECTED_DATES);
-        if (selectedDates != null) {
-            selectedDatesMap.clear();
-            for (DateTime dateTime : selectedDates) {
-                selectedDatesMap.put(dateTime, 1);
-            }
+        DateBitSet selectedDateSet = (DateBitSet) caldroidData
+                .get(DateCaldroidFragment.SELECTED_DATE_BITS);
+        if (selectedDateSet != null) {
+            setSelectedDateSet(selectedDateSet);
+        } else {
+            setSelectedDates((ArrayList<DateTime>) caldroidData
+                    .get(DateCaldroidFragment.SELECTED_DATES));
         }
 
-        minDateTime = (DateTime) caldroidData
-                .get(DateCaldroidFragment.MIN_DATE_TIME);
-        maxDateTime = (DateTime) caldroidData
-                .get(DateCaldroidFragment.MAX_DATE_TIME);
+        setMinDateTime((DateTime) caldroidData
+                .get(DateCaldroidFragment.MIN_DATE_TIME));
+        setMaxDateTime((DateTime) caldroidData
+                .get(DateCaldroidFragment.MAX_DATE_TIME));
         startDayOfWeek = Optional.ofNullable((Integer) caldroidData
                 .get(DateCaldroidFragment.START_DAY_OF_WEEK)).orElse(0);
         sixWeeksInCalendar = Optional.ofNullable((Boolean) caldroidData
@@ -196,47 +503,167 @@ public class DateGridAdapter extends BaseAdapter {
         // Get theme
         themeResource = Optional.ofNullable((Integer) caldroidData
                 .get(DateCaldroidFragment.THEME_RESOURCE)).orElse(0);
+        metrics = (CaldroidMetrics) caldroidData.get(DateCaldroidFragment.METRICS);
 
-        this.datetimeList = CalendarHelper.getFullWeeks(this.month, this.year,
-                startDayOfWeek, sixWeeksInCalendar);
+        fillCells();
 
         getDefaultResources();
     }
 
     // This method retrieve default resources for background and text color,
-    // based on the Caldroid theme
+    // based on the Caldroid theme. They are resolved once per theme and cell
+    // type, see CaldroidThemeCache
     private void getDefaultResources() {
-        Context wrapped = new ContextThemeWrapper(context, themeResource);
+        CaldroidThemeCache.CellStyle cellStyle = CaldroidThemeCache.getCellStyle(context,
+                themeResource, squareTextViewCell);
+        defaultCellBackgroundRes = cellStyle.getBackgroundRes();
+        defaultTextColorRes = cellStyle.getTextColor();
+    }
 
-        // Get style of normal cell or square cell in the theme
-        Resources.Theme theme = wrapped.getTheme();
-        TypedValue styleCellVal = new TypedValue();
-        if (squareTextViewCell) {
-            theme.resolveAttribute(R.attr.styleCaldroidSquareCell, styleCellVal, true);
-        } else {
-            theme.resolveAttribute(R.attr.styleCaldroidNormalCell, styleCellVal, true);
+    public void updateToday() {
+        todayEpochDay = EpochDay.today();
+        today = null;
+    }
+
+    protected DateTime getToday() {
+        if (today == null) {
+            today = EpochDay.toDateTime(todayEpochDay);
         }
+        return today;
+    }
 
-        // Get default background of cell
-        TypedArray typedArray = wrapped.obtainStyledAttributes(styleCellVal.data, R.styleable.Cell);
-        try {
-            defaultCellBackgroundRes = typedArray.getResourceId(R.styleable.Cell_android_background, -1);
-            defaultTextColorRes = typedArray.getColorStateList(R.styleable.Cell_android_textColor);
+    protected boolean isDisabled(int epochDay) {
+        return epochDay < minEpochDay || epochDay > maxEpochDay
+                || disableDateRanges.contains(epochDay)
+                || isDisabledByRule(epochDay);
+    }
+
+    /*
+     * Whether the date is disabled by disableDateRules. The rules are evaluated
+     * once for all the cells of the page and the results are reused until the
+     * rules or the page change
+     */
+    public boolean isDisabledByRule(int epochDay) {
+        if (disableDateRules.isEmpty()) {
+            return false;
         }
-        finally {
-            typedArray.recycle();
+
+        // Cells hold consecutive dates
+        int position = epochDay - cellEpochDays[0];
+        if (position < 0 || position >= cellCount) {
+            return disableDateRules.matches(epochDay);
+        }
+
+        if (!disabledByRuleValid || disabledByRuleVersion != disableDateRules.getVersion()) {
+            long bits = 0;
+            for (int i = 0; i < cellCount; i++) {
+                if (disableDateRules.matches(cellEpochDays[i])) {
+                    bits |= 1L << i;
+                }
+            }
+            disabledByRuleBits = bits;
+            disabledByRuleVersion = disableDateRules.getVersion();
+            disabledByRuleValid = true;
         }
+        return (disabledByRuleBits & (1L << position)) != 0;
     }
 
-    public void updateToday() {
-        today = CalendarHelper.convertDateToDateTime(new Date());
+    protected boolean isSelected(int epochDay) {
+        return selectedDateSet.contains(epochDay);
     }
 
-    protected DateTime getToday() {
-        if (today == null) {
-            today = CalendarHelper.convertDateToDateTime(new Date());
+    /*
+     * Apply custom background and text color of the date of the cell at
+     * position, by calling setCustomResources(DateTime, ...) with the date of
+     * the cell
+     * <p/>
+     * Only called by customizeTextView when callsCustomResourcesHooks()
+     * returns true, after the resources of the page model are applied
+     */
+    protected void setCustomResources(int position, View backgroundView,
+                                      TextView textView) {
+        setCustomResources(getCellDateTime(position), backgroundView, textView);
+    }
+
+    /*
+     * Whether customizeTextView calls the setCustomResources hooks. The page
+     * model applies the custom backgrounds, text colors and DecorationPalette
+     * styles either way, the hooks are called after it so that they can change
+     * them. Subclasses overriding a hook return true, no DateTime is created
+     * for the cells otherwise
+     */
+    protected boolean callsCustomResourcesHooks() {
+        return false;
+    }
+
+    /*
+     * States of the cell at position as CellView.STATE_FLAG_* bits
+     */
+    public int getCellStates(int position) {
+        int epochDay = cellEpochDays[position];
+        int states = 0;
+
+        if (epochDay == todayEpochDay) {
+            states |= CellView.STATE_FLAG_TODAY;
         }
-        return today;
+        if (!weekPage && EpochDay.monthOf(epochDay) != month) {
+            states |= CellView.STATE_FLAG_PREV_NEXT_MONTH;
+        }
+        if (isDisabled(epochDay)) {
+            states |= CellView.STATE_FLAG_DISABLED;
+        }
+        if (isSelected(epochDay)) {
+            states |= CellView.STATE_FLAG_SELECTED;
+        }
+        return states;
+    }
+
+    /*
+     * Custom background of the cell at position from
+     * BACKGROUND_FOR_DATETIME_MAP, null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public Drawable getCustomBackground(int position) {
+        if (decorationBackgrounds != null && !decorationBackgrounds.isEmpty()) {
+            Drawable drawable = decorationBackgrounds.get(getCellDateTime(position));
+            if (drawable != null) {
+                return drawable;
+            }
+        }
+
+        Map<DateTime, Drawable> backgroundForDateTimeMap = (Map<DateTime, Drawable>) caldroidData
+                .get(DateCaldroidFragment.BACKGROUND_FOR_DATETIME_MAP);
+        if (backgroundForDateTimeMap == null || backgroundForDateTimeMap.isEmpty()) {
+            return null;
+        }
+        return backgroundForDateTimeMap.get(getCellDateTime(position));
+    }
+
+    public DecorationPalette getDecorationPalette() {
+        return decorationPalette;
+    }
+
+    /*
+     * Style of the cell at position in the DecorationPalette, NO_STYLE if
+     * there is none
+     */
+    public int getCellStyle(int position) {
+        return decorationPalette != null ? decorationPalette.getDateStyle(cellEpochDays[position])
+                : DecorationPalette.NO_STYLE;
+    }
+
+    /*
+     * Custom text color resource of the cell at position from
+     * TEXT_COLOR_FOR_DATETIME_MAP, null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public Integer getCustomTextColorRes(int position) {
+        Map<DateTime, Integer> textColorForDateTimeMap = (Map<DateTime, Integer>) caldroidData
+                .get(DateCaldroidFragment.TEXT_COLOR_FOR_DATETIME_MAP);
+        if (textColorForDateTimeMap == null || textColorForDateTimeMap.isEmpty()) {
+            return null;
+        }
+        return textColorForDateTimeMap.get(getCellDateTime(position));
     }
 
     @SuppressWarnings("unchecked")
@@ -255,6 +682,14 @@ public class DateGridAdapter extends BaseAdapter {
             }
         }
 
+        // Decorations from the provider win over the static backgrounds
+        if (decorationBackgrounds != null) {
+            Drawable drawable = decorationBackgrounds.get(dateTime);
+            if (drawable != null) {
+                backgroundView.setBackground(drawable);
+            }
+        }
+
         // Set custom text color
         Map<DateTime, Integer> textColorForDateTimeMap = (Map<DateTime, Integer>) caldroidData
                 .get(DateCaldroidFragment.TEXT_COLOR_FOR_DATETIME_MAP);
@@ -290,42 +725,29 @@ public class DateGridAdapter extends BaseAdapter {
         int bottomPadding = cellView.getPaddingBottom();
         int rightPadding = cellView.getPaddingRight();
 
-        // Get dateTime of this cell
-        DateTime dateTime = this.datetimeList.get(position);
+        // Everything about the cell is precomputed in the page model
+        MonthPageModel model = getPageModel();
 
-        cellView.resetCustomStates();
         resetCustomResources(cellView);
 
-        if (dateTime.equals(getToday())) {
-            cellView.addCustomState(CellView.STATE_TODAY);
-        }
-
-        // Set color of the dates in previous / next month
-        if (dateTime.getMonth() != month) {
-            cellView.addCustomState(CellView.STATE_PREV_NEXT_MONTH);
-        }
-
-        // Customize for disabled dates and date outside min/max dates
-        if ((minDateTime != null && dateTime.lt(minDateTime))
-                || (maxDateTime != null && dateTime.gt(maxDateTime))
-                || (disableDates != null && disableDatesMap
-                .containsKey(dateTime))) {
-
-            cellView.addCustomState(CellView.STATE_DISABLED);
-        }
-
-        // Customize for selected dates
-        if (selectedDates != null && selectedDatesMap.containsKey(dateTime)) {
-            cellView.addCustomState(CellView.STATE_SELECTED);
-        }
-
-        cellView.refreshDrawableState();
+        // States for today, dates in previous / next month, disabled dates,
+        // dates outside min/max dates and selected dates
+        cellView.setCustomStates(model.getStates(position));
 
         // Set text
-        cellView.setText(String.valueOf(dateTime.getDay()));
+        cellView.setText(DAY_TEXTS[model.getDay(position)]);
 
         // Set custom color if required
-        setCustomResources(dateTime, cellView, cellView);
+        Drawable background = model.getBackground(position);
+        if (background != null) {
+            cellView.setBackground(background);
+        }
+        if (model.hasCustomTextColor(position)) {
+            cellView.setTextColor(model.getTextColor(position));
+        }
+        if (callsCustomResourcesHooks()) {
+            setCustomResources(position, cellView, cellView);
+        }
 
         // Somehow after setBackgroundResource, the padding collapse.
         // This is to recover the padding
@@ -335,12 +757,12 @@ public class DateGridAdapter extends BaseAdapter {
 
     @Override
     public int getCount() {
-        return this.datetimeList.size();
+        return cellCount;
     }
 
     @Override
     public Object getItem(int position) {
-        return datetimeList.get(position);
+        return getCellDateTime(position);
     }
 
     @Override
@@ -361,7 +783,10 @@ public class DateGridAdapter extends BaseAdapter {
 			cellView = (CellView) convertView;
 		}
 
-		customizeTextView(position, cellView);
+		try (CaldroidMetrics.Section section = CaldroidMetrics.Section.begin(null, metrics,
+					CaldroidMetrics.Section.CELL_BOUND)) {
+			customizeTextView(position, cellView);
+		}
 
 		return cellView;
 	}
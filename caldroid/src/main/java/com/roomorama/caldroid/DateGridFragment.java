@@ -4,7 +4,6 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.view.ViewTreeObserver;
 import android.widget.AdapterView.OnItemClickListener;
 import android.widget.AdapterView.OnItemLongClickListener;
 import android.widget.GridView;
@@ -21,14 +20,20 @@ import androidx.fragment.app.Fragment;
  * <p/>
  * Client must supply gridAdapter and onItemClickListener before the fragment is
  * attached to avoid complex crash due to fragment life cycles.
+ * <p/>
+ * When useMonthView is set, a single MonthView drawing all the dates is used
+ * instead of the gridview, with onDateClickListener receiving the clicks.
  *
  * @author thomasdao
  */
 public class DateGridFragment extends Fragment {
     private GridView gridView;
+    private MonthView monthView;
     private DateGridAdapter gridAdapter;
     private OnItemClickListener onItemClickListener;
     private OnItemLongClickListener onItemLongClickListener;
+    private MonthView.OnDateClickListener onDateClickListener;
+    private boolean useMonthView = false;
     private int gridViewRes = 0;
     private int themeResource = 0;
 
@@ -48,6 +53,22 @@ public class DateGridFragment extends Fragment {
         this.onItemLongClickListener = onItemLongClickListener;
     }
 
+    public MonthView.OnDateClickListener getOnDateClickListener() {
+        return onDateClickListener;
+    }
+
+    public void setOnDateClickListener(MonthView.OnDateClickListener onDateClickListener) {
+        this.onDateClickListener = onDateClickListener;
+    }
+
+    public boolean isUseMonthView() {
+        return useMonthView;
+    }
+
+    public void setUseMonthView(boolean useMonthView) {
+        this.useMonthView = useMonthView;
+    }
+
     public DateGridAdapter getGridAdapter() {
         return gridAdapter;
     }
@@ -60,6 +81,10 @@ public class DateGridFragment extends Fragment {
         return gridView;
     }
 
+    public MonthView getMonthView() {
+        return monthView;
+    }
+
     public void setGridViewRes(int gridViewRes) {
         this.gridViewRes = gridViewRes;
     }
@@ -95,6 +120,10 @@ public class DateGridFragment extends Fragment {
             }
         }
 
+        if (useMonthView) {
+            return onCreateMonthView();
+        }
+
         if (gridView == null) {
             LayoutInflater localInflater = DateCaldroidFragment.getThemeInflater(getActivity(),
                     inflater, themeResource);
@@ -110,22 +139,31 @@ public class DateGridFragment extends Fragment {
         return gridView;
     }
 
+    private View onCreateMonthView() {
+        if (monthView == null) {
+            monthView = new MonthView(requireContext(), themeResource,
+                    gridAdapter != null && gridAdapter.squareTextViewCell);
+            monthView.setLayoutParams(new ViewGroup.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            monthView.setAdapter(gridAdapter);
+            monthView.setOnDateClickListener(onDateClickListener);
+        } else {
+            ViewGroup parent = (ViewGroup) monthView.getParent();
+            if (parent != null) {
+                parent.removeView(monthView);
+            }
+        }
+
+        return monthView;
+    }
+
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
-        ViewTreeObserver vto = view.getViewTreeObserver();
-        vto.addOnGlobalLayoutListener(() -> {
-            Fragment parentFragment = getParentFragment();
-            if (parentFragment instanceof DateCaldroidFragment) {
-                DateCaldroidFragment dateCaldroidFragment = (DateCaldroidFragment)parentFragment;
-
-                String childTag = DateCaldroidFragment.getViewPager2FragmentTag(dateCaldroidFragment.getCurrentPagerPoistion());
-                Fragment child = parentFragment.getChildFragmentManager().findFragmentByTag(childTag);
-                if (child instanceof DateGridFragment) {
-                    DateGridFragment dateGridFragment = (DateGridFragment) child;
-                    dateCaldroidFragment.resizeViewPager(view, dateGridFragment.getGridAdapter().getDatetimeList());
-                }
-            }
-        });
+        // The pager is resized once to the current page, which may be this one
+        Fragment parentFragment = getParentFragment();
+        if (parentFragment instanceof DateCaldroidFragment) {
+            ((DateCaldroidFragment) parentFragment).requestPagerResize();
+        }
 
         super.onViewCreated(view, savedInstanceState);
     }
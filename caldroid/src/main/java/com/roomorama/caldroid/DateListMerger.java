@@ -0,0 +1,65 @@
+package com.roomorama.caldroid;
+
+import androidx.annotation.NonNull;
+
+import hirondelle.date4j.DateTime;
+
+/*
+ * Merges the dates of a deprecated protected DateTimeList of a fragment into
+ * the date set which replaced it. The merged set is always the same instance,
+ * filled again only when the set or the list has changed, so its version tells
+ * the pages whether they need a refresh. Without any date in the list the set
+ * itself is returned.
+ * <p/>
+ * A merger is used for one set and one list.
+ */
+final class DateListMerger {
+    private final DateBitSet mergedBits = new DateBitSet();
+    private final DateRangeSet mergedRanges = new DateRangeSet();
+    private int setVersion = -1;
+    private int listModificationCount = -1;
+
+    @NonNull
+    DateBitSet merge(@NonNull DateBitSet set, @NonNull DateTimeList list) {
+        if (list.isEmpty()) {
+            return set;
+        }
+        if (isChanged(set.getVersion(), list)) {
+            mergedBits.clear();
+            mergedBits.addAll(set);
+            for (DateTime dateTime : list) {
+                if (dateTime != null) {
+                    mergedBits.add(EpochDay.fromDateTime(dateTime));
+                }
+            }
+        }
+        return mergedBits;
+    }
+
+    @NonNull
+    DateRangeSet merge(@NonNull DateRangeSet set, @NonNull DateTimeList list) {
+        if (list.isEmpty()) {
+            return set;
+        }
+        if (isChanged(set.getVersion(), list)) {
+            mergedRanges.clear();
+            mergedRanges.addAll(set);
+            for (DateTime dateTime : list) {
+                if (dateTime != null) {
+                    mergedRanges.add(EpochDay.fromDateTime(dateTime));
+                }
+            }
+        }
+        return mergedRanges;
+    }
+
+    private boolean isChanged(int version, @NonNull DateTimeList list) {
+        if (version == setVersion
+                && list.getModificationCount() == listModificationCount) {
+            return false;
+        }
+        setVersion = version;
+        listModificationCount = list.getModificationCount();
+        return true;
+    }
+}
@@ -0,0 +1,359 @@
+package com.roomorama.caldroid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import hirondelle.date4j.DateTime;
+
+/*
+ * Sorted set of dates stored as coalesced, non overlapping intervals of epoch
+ * days (see EpochDay). Adjacent and overlapping ranges are merged when added,
+ * so a blackout window of several years is a single interval no matter how
+ * many dates it covers.
+ * <p/>
+ * Membership tests are a binary search over the interval starts, O(log n) in
+ * the number of intervals, and do not allocate.
+ * <p/>
+ * This class is not thread safe.
+ */
+public class DateRangeSet {
+    private static final int INITIAL_CAPACITY = 4;
+
+    // Inclusive bounds of the intervals, sorted, non overlapping and not adjacent
+    private int[] starts;
+    private int[] ends;
+    private int rangeCount;
+    private int version;
+
+    public DateRangeSet() {
+        starts = new int[INITIAL_CAPACITY];
+        ends = new int[INITIAL_CAPACITY];
+    }
+
+    public DateRangeSet(@NonNull DateRangeSet other) {
+        starts = Arrays.copyOf(other.starts, Math.max(other.rangeCount, INITIAL_CAPACITY));
+        ends = Arrays.copyOf(other.ends, starts.length);
+        rangeCount = other.rangeCount;
+    }
+
+    /*
+     * Create set from intervals encoded by toArray()
+     */
+    public static DateRangeSet fromArray(@NonNull int[] ranges) {
+        if (ranges.length % 2 != 0) {
+            throw new IllegalArgumentException("Ranges must be pairs of start and end, length was "
+                    + ranges.length);
+        }
+        DateRangeSet set = new DateRangeSet();
+        for (int i = 0; i < ranges.length; i += 2) {
+            set.addRange(ranges[i], ranges[i + 1]);
+        }
+        return set;
+    }
+
+    public static DateRangeSet fromDateTimes(Iterable<DateTime> dateTimes) {
+        DateRangeSet set = new DateRangeSet();
+        if (dateTimes != null) {
+            for (DateTime dateTime : dateTimes) {
+                set.add(EpochDay.fromDateTime(dateTime));
+            }
+        }
+        return set;
+    }
+
+    public boolean isEmpty() {
+        return rangeCount == 0;
+    }
+
+    /*
+     * Number of coalesced intervals, not dates
+     */
+    public int getRangeCount() {
+        return rangeCount;
+    }
+
+    public int getRangeStart(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    public int getRangeEnd(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= rangeCount) {
+            throw new IndexOutOfBoundsException("Index " + index + ", range count " + rangeCount);
+        }
+    }
+
+    /*
+     * Number of dates in the set
+     */
+    public long getDayCount() {
+        long count = 0;
+        for (int i = 0; i < rangeCount; i++) {
+            count += (long) ends[i] - starts[i] + 1;
+        }
+        return count;
+    }
+
+    public boolean contains(int epochDay) {
+        int index = lastStartAtMost(epochDay);
+        return index >= 0 && ends[index] >= epochDay;
+    }
+
+    public boolean contains(DateTime dateTime) {
+        return contains(EpochDay.fromDateTime(dateTime));
+    }
+
+    /*
+     * Whether any date between fromEpochDay and toEpochDay (inclusive) is in
+     * the set
+     */
+    public boolean intersects(int fromEpochDay, int toEpochDay) {
+        if (fromEpochDay > toEpochDay) {
+            return false;
+        }
+        int index = firstEndAtLeast(fromEpochDay);
+        return index < rangeCount && starts[index] <= toEpochDay;
+    }
+
+    /*
+     * Whether all dates between fromEpochDay and toEpochDay (inclusive) are in
+     * the set
+     */
+    public boolean containsRange(int fromEpochDay, int toEpochDay) {
+        if (fromEpochDay > toEpochDay) {
+            return true;
+        }
+        int index = lastStartAtMost(fromEpochDay);
+        return index >= 0 && ends[index] >= toEpochDay;
+    }
+
+    public void add(int epochDay) {
+        addRange(epochDay, epochDay);
+    }
+
+    /*
+     * Add all dates between fromEpochDay and toEpochDay, both inclusive.
+     * Overlapping and adjacent intervals are merged
+     */
+    public void addRange(int fromEpochDay, int toEpochDay) {
+        checkRange(fromEpochDay, toEpochDay);
+
+        // Intervals touching [from - 1, to + 1] are merged with the new one
+        int first = firstEndAtLeast((long) fromEpochDay - 1);
+        int last = lastStartAtMost((long) toEpochDay + 1);
+        if (first <= last) {
+            fromEpochDay = Math.min(fromEpochDay, starts[first]);
+            toEpochDay = Math.max(toEpochDay, ends[last]);
+        }
+        replace(first, last, fromEpochDay, toEpochDay, 1);
+    }
+
+    public void addRange(DateTime fromDateTime, DateTime toDateTime) {
+        addRange(EpochDay.fromDateTime(fromDateTime), EpochDay.fromDateTime(toDateTime));
+    }
+
+    public void addAll(@NonNull DateRangeSet other) {
+        if (other == this) {
+            return;
+        }
+        for (int i = 0; i < other.rangeCount; i++) {
+            addRange(other.starts[i], other.ends[i]);
+        }
+    }
+
+    public void remove(int epochDay) {
+        removeRange(epochDay, epochDay);
+    }
+
+    /*
+     * Remove all dates between fromEpochDay and toEpochDay, both inclusive.
+     * Intervals crossing the bounds are split
+     */
+    public void removeRange(int fromEpochDay, int toEpochDay) {
+        checkRange(fromEpochDay, toEpochDay);
+
+        int first = firstEndAtLeast(fromEpochDay);
+        int last = lastStartAtMost(toEpochDay);
+        if (first > last) {
+            return;
+        }
+
+        boolean keepHead = starts[first] < fromEpochDay;
+        boolean keepTail = ends[last] > toEpochDay;
+        int headStart = starts[first];
+        int tailEnd = ends[last];
+
+        if (keepHead && keepTail) {
+            // Split, make room for one more interval
+            replace(first, last, headStart, fromEpochDay - 1, 1);
+            replace(first + 1, first, toEpochDay + 1, tailEnd, 1);
+        } else if (keepHead) {
+            replace(first, last, headStart, fromEpochDay - 1, 1);
+        } else if (keepTail) {
+            replace(first, last, toEpochDay + 1, tailEnd, 1);
+        } else {
+            replace(first, last, 0, 0, 0);
+        }
+    }
+
+    public void removeRange(DateTime fromDateTime, DateTime toDateTime) {
+        removeRange(EpochDay.fromDateTime(fromDateTime), EpochDay.fromDateTime(toDateTime));
+    }
+
+    public void clear() {
+        if (rangeCount != 0) {
+            rangeCount = 0;
+            version++;
+        }
+    }
+
+    /*
+     * Incremented on every change of the set
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /*
+     * Intervals as pairs of start and end epoch days
+     */
+    public int[] toArray() {
+        int[] ranges = new int[rangeCount * 2];
+        for (int i = 0; i < rangeCount; i++) {
+            ranges[i * 2] = starts[i];
+            ranges[i * 2 + 1] = ends[i];
+        }
+        return ranges;
+    }
+
+    /*
+     * All the dates of the set. Expands the intervals, do not use with large
+     * ranges
+     */
+    public ArrayList<DateTime> toDateTimeList() {
+        ArrayList<DateTime> dateTimes = new ArrayList<>();
+        for (int i = 0; i < rangeCount; i++) {
+            for (int epochDay = starts[i]; epochDay <= ends[i]; epochDay++) {
+                dateTimes.add(EpochDay.toDateTime(epochDay));
+            }
+        }
+        return dateTimes;
+    }
+
+    private static void checkRange(int fromEpochDay, int toEpochDay) {
+        if (fromEpochDay > toEpochDay) {
+            throw new IllegalArgumentException("Range start " + fromEpochDay
+                    + " is after range end " + toEpochDay);
+        }
+    }
+
+    /*
+     * Index of the first interval ending at or after value, rangeCount if none
+     */
+    private int firstEndAtLeast(long value) {
+        int low = 0;
+        int high = rangeCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /*
+     * Index of the last interval starting at or before value, -1 if none
+     */
+    private int lastStartAtMost(long value) {
+        int low = 0;
+        int high = rangeCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - 1;
+    }
+
+    /*
+     * Replace intervals first..last (empty when last < first) with newCount
+     * (0 or 1) intervals
+     */
+    private void replace(int first, int last, int start, int end, int newCount) {
+        int removed = last - first + 1;
+        int newRangeCount = rangeCount - removed + newCount;
+        if (newRangeCount > starts.length) {
+            int capacity = Math.max(newRangeCount, starts.length * 2);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+
+        int tail = rangeCount - last - 1;
+        System.arraycopy(starts, last + 1, starts, first + newCount, tail);
+        System.arraycopy(ends, last + 1, ends, first + newCount, tail);
+        if (newCount == 1) {
+            starts[first] = start;
+            ends[first] = end;
+        }
+        rangeCount = newRangeCount;
+        version++;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DateRangeSet)) {
+            return false;
+        }
+        DateRangeSet other = (DateRangeSet) o;
+        if (rangeCount != other.rangeCount) {
+            return false;
+        }
+        for (int i = 0; i < rangeCount; i++) {
+            if (starts[i] != other.starts[i] || ends[i] != other.ends[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < rangeCount; i++) {
+            result = 31 * result + starts[i];
+            result = 31 * result + ends[i];
+        }
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < rangeCount; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(EpochDay.toDateTime(starts[i]).format("YYYY-MM-DD"));
+            if (ends[i] != starts[i]) {
+                builder.append("..").append(EpochDay.toDateTime(ends[i]).format("YYYY-MM-DD"));
+            }
+        }
+        return builder.append("]").toString();
+    }
+}
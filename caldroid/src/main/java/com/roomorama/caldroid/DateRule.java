@@ -0,0 +1,17 @@
+package com.roomorama.caldroid;
+
+/*
+ * Rule matching dates, for e.g every weekend or a yearly holiday. Rules are
+ * evaluated lazily, only for the dates of the visible month, so a rule can
+ * describe any number of dates without enumerating them.
+ * <p/>
+ * See DateRules for the common rules. A rule must always return the same result
+ * for the same date, the results are cached per month.
+ */
+public interface DateRule {
+    /*
+     * @param epochDay : see EpochDay
+     * @return true if the rule matches the date
+     */
+    boolean matches(int epochDay);
+}
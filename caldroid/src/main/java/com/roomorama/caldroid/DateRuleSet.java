@@ -0,0 +1,69 @@
+package com.roomorama.caldroid;
+
+import java.util.ArrayList;
+
+import androidx.annotation.NonNull;
+
+/*
+ * Mutable list of rules, matching a date when any of its rules does. Every
+ * change increments the version, so the cached results of the rules can be
+ * invalidated by comparing versions.
+ * <p/>
+ * This class is not thread safe.
+ */
+public class DateRuleSet implements DateRule {
+    private final ArrayList<DateRule> rules = new ArrayList<>();
+    private int version;
+
+    public DateRuleSet() {
+    }
+
+    public DateRuleSet(@NonNull DateRuleSet other) {
+        rules.addAll(other.rules);
+    }
+
+    public void add(@NonNull DateRule rule) {
+        rules.add(rule);
+        version++;
+    }
+
+    public boolean remove(DateRule rule) {
+        boolean removed = rules.remove(rule);
+        if (removed) {
+            version++;
+        }
+        return removed;
+    }
+
+    public void clear() {
+        if (!rules.isEmpty()) {
+            rules.clear();
+            version++;
+        }
+    }
+
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    /*
+     * Incremented on every change of the rules
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean matches(int epochDay) {
+        for (int i = 0; i < rules.size(); i++) {
+            if (rules.get(i).matches(epochDay)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
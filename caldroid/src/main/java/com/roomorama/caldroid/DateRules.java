@@ -0,0 +1,87 @@
+package com.roomorama.caldroid;
+
+import java.util.function.Predicate;
+
+import androidx.annotation.NonNull;
+import hirondelle.date4j.DateTime;
+
+/*
+ * Factory of common DateRule implementations
+ */
+public final class DateRules {
+    private DateRules() {}
+
+    /*
+     * Match dates falling on any of the weekdays
+     *
+     * @param weekDays : 1 (Sunday) to 7 (Saturday), same as DateTime.getWeekDay()
+     * @return
+     */
+    public static DateRule weekDays(int... weekDays) {
+        int mask = 0;
+        for (int weekDay : weekDays) {
+            if (weekDay < 1 || weekDay > 7) {
+                throw new IllegalArgumentException("Week day must be between 1 and 7, was " + weekDay);
+            }
+            mask |= 1 << weekDay;
+        }
+
+        final int weekDayMask = mask;
+        return epochDay -> (weekDayMask & (1 << EpochDay.weekDayOf(epochDay))) != 0;
+    }
+
+    /*
+     * Match Saturdays and Sundays
+     */
+    public static DateRule weekends() {
+        return weekDays(1, 7);
+    }
+
+    /*
+     * Match the same date every year, for e.g 12-25. February 29th only
+     * matches in leap years
+     *
+     * @param month : 1-12
+     * @param day
+     * @return
+     */
+    public static DateRule yearly(int month, int day) {
+        if (month < 1 || month > 12 || day < 1 || day > EpochDay.daysInMonth(2000, month)) {
+            throw new IllegalArgumentException("Invalid month " + month + " or day " + day);
+        }
+        return epochDay -> EpochDay.dayOf(epochDay) == day && EpochDay.monthOf(epochDay) == month;
+    }
+
+    /*
+     * Match dates between fromDateTime and toDateTime, both inclusive
+     */
+    public static DateRule between(@NonNull DateTime fromDateTime, @NonNull DateTime toDateTime) {
+        final int fromEpochDay = EpochDay.fromDateTime(fromDateTime);
+        final int toEpochDay = EpochDay.fromDateTime(toDateTime);
+        return epochDay -> epochDay >= fromEpochDay && epochDay <= toEpochDay;
+    }
+
+    /*
+     * Rule from a custom predicate on DateTime. Converting to DateTime costs an
+     * allocation per evaluated date, implement DateRule directly for rules
+     * which can work on epoch days
+     */
+    public static DateRule of(@NonNull Predicate<DateTime> predicate) {
+        return epochDay -> predicate.test(EpochDay.toDateTime(epochDay));
+    }
+
+    /*
+     * Match dates matched by any of the rules
+     */
+    public static DateRule anyOf(@NonNull DateRule... rules) {
+        final DateRule[] copy = rules.clone();
+        return epochDay -> {
+            for (DateRule rule : copy) {
+                if (rule.matches(epochDay)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+}
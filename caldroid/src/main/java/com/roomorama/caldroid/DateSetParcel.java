@@ -0,0 +1,211 @@
+package com.roomorama.caldroid;
+
+import android.os.Bundle;
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import hirondelle.date4j.DateTime;
+
+/*
+ * Compact saved state of a set of dates, used by the fragments instead of
+ * lists of "YYYY-MM-DD" strings. The dates are stored as sorted ranges of
+ * epoch days, each range as the varint gap from the previous range and the
+ * varint length, so consecutive dates cost nothing and a scattered date
+ * usually 2 to 4 bytes. Every other day of a year takes less than 1 KB instead
+ * of about 10 KB of strings, which keeps big sets far from the Binder
+ * transaction limit.
+ * <p/>
+ * Instances are immutable.
+ */
+public final class DateSetParcel implements Parcelable {
+    private final byte[] encoded;
+
+    private DateSetParcel(byte[] encoded) {
+        this.encoded = encoded;
+    }
+
+    @NonNull
+    public static DateSetParcel of(@NonNull DateRangeSet dates) {
+        return fromRanges(dates.toArray());
+    }
+
+    @NonNull
+    public static DateSetParcel of(@NonNull DateBitSet dates) {
+        return fromSortedEpochDays(dates.toEpochDays(), dates.size());
+    }
+
+    @NonNull
+    public static DateSetParcel ofDateTimes(@NonNull Iterable<DateTime> dateTimes) {
+        int[] epochDays = new int[16];
+        int count = 0;
+        for (DateTime dateTime : dateTimes) {
+            if (dateTime == null) {
+                continue;
+            }
+            if (count == epochDays.length) {
+                epochDays = Arrays.copyOf(epochDays, count * 2);
+            }
+            epochDays[count++] = EpochDay.fromDateTime(dateTime);
+        }
+        Arrays.sort(epochDays, 0, count);
+        return fromSortedEpochDays(epochDays, count);
+    }
+
+    private static DateSetParcel fromSortedEpochDays(int[] epochDays, int count) {
+        int[] ranges = new int[count * 2];
+        int rangeIndex = 0;
+        int index = 0;
+        while (index < count) {
+            int start = epochDays[index];
+            int end = start;
+            while (++index < count && epochDays[index] <= end + 1) {
+                end = epochDays[index];
+            }
+            ranges[rangeIndex++] = start;
+            ranges[rangeIndex++] = end;
+        }
+        return fromRanges(Arrays.copyOf(ranges, rangeIndex));
+    }
+
+    /*
+     * Ranges as pairs of inclusive start and end, sorted and not adjacent
+     */
+    private static DateSetParcel fromRanges(int[] ranges) {
+        // 5 bytes is the longest varint of an int
+        byte[] buffer = new byte[5 + ranges.length * 5];
+        int length = writeVarint(buffer, 0, ranges.length / 2);
+
+        long previousEnd = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            int start = ranges[i];
+            int end = ranges[i + 1];
+            if (i == 0) {
+                // First start may be before 1970, zigzag encoded
+                length = writeVarint(buffer, length, (start << 1) ^ (start >> 31));
+            } else {
+                length = writeVarint(buffer, length, (int) (start - previousEnd - 1));
+            }
+            length = writeVarint(buffer, length, end - start);
+            previousEnd = end;
+        }
+        return new DateSetParcel(Arrays.copyOf(buffer, length));
+    }
+
+    private static int writeVarint(byte[] buffer, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[offset++] = (byte) value;
+        return offset;
+    }
+
+    /*
+     * The ranges as pairs of inclusive start and end, the format of
+     * DateRangeSet.toArray()
+     */
+    @NonNull
+    public int[] toRangeArray() {
+        int[] position = {0};
+        int rangeCount = readVarint(position);
+        int[] ranges = new int[rangeCount * 2];
+
+        long previousEnd = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            int value = readVarint(position);
+            int start = i == 0 ? (value >>> 1) ^ -(value & 1) : (int) (previousEnd + 1 + value);
+            int end = start + readVarint(position);
+            ranges[i] = start;
+            ranges[i + 1] = end;
+            previousEnd = end;
+        }
+        return ranges;
+    }
+
+    private int readVarint(int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (position[0] >= encoded.length || shift > 28) {
+                throw new IllegalStateException("Malformed date set");
+            }
+            b = encoded[position[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    public void addTo(@NonNull DateRangeSet dates) {
+        int[] ranges = toRangeArray();
+        for (int i = 0; i < ranges.length; i += 2) {
+            dates.addRange(ranges[i], ranges[i + 1]);
+        }
+    }
+
+    public void addTo(@NonNull DateBitSet dates) {
+        int[] ranges = toRangeArray();
+        for (int i = 0; i < ranges.length; i += 2) {
+            dates.addRange(ranges[i], ranges[i + 1]);
+        }
+    }
+
+    @NonNull
+    public ArrayList<DateTime> toDateTimeList() {
+        int[] ranges = toRangeArray();
+        ArrayList<DateTime> dateTimes = new ArrayList<>();
+        for (int i = 0; i < ranges.length; i += 2) {
+            for (int epochDay = ranges[i]; epochDay <= ranges[i + 1]; epochDay++) {
+                dateTimes.add(EpochDay.toDateTime(epochDay));
+            }
+        }
+        return dateTimes;
+    }
+
+    /*
+     * Date set stored in the bundle under key, null if there is none
+     */
+    @Nullable
+    @SuppressWarnings("deprecation")
+    public static DateSetParcel fromBundle(@NonNull Bundle bundle, @NonNull String key) {
+        // Restored bundles may not know the class loader of the library
+        bundle.setClassLoader(DateSetParcel.class.getClassLoader());
+        Parcelable parcelable = bundle.getParcelable(key);
+        return parcelable instanceof DateSetParcel ? (DateSetParcel) parcelable : null;
+    }
+
+    /*
+     * Size of the encoded dates in bytes
+     */
+    public int getEncodedSize() {
+        return encoded.length;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(@NonNull Parcel dest, int flags) {
+        dest.writeByteArray(encoded);
+    }
+
+    public static final Creator<DateSetParcel> CREATOR = new Creator<DateSetParcel>() {
+        @Override
+        public DateSetParcel createFromParcel(Parcel source) {
+            return new DateSetParcel(source.createByteArray());
+        }
+
+        @Override
+        public DateSetParcel[] newArray(int size) {
+            return new DateSetParcel[size];
+        }
+    };
+}
@@ -0,0 +1,81 @@
+package com.roomorama.caldroid;
+
+import java.util.ArrayList;
+
+import hirondelle.date4j.DateTime;
+
+/*
+ * List of dates which counts its changes. Type of the protected date lists
+ * kept by the fragments for subclasses written against the old API: the
+ * fragments merge these dates into their date sets, and the count tells them
+ * without comparing the dates whether the list was changed since.
+ */
+public final class DateTimeList extends ArrayList<DateTime> {
+    private static final long serialVersionUID = 1L;
+
+    /*
+     * Count of changes of the list, it changes whenever the list does
+     */
+    public int getModificationCount() {
+        return modCount;
+    }
+
+    /*
+     * Remove the dates from the epoch day fromEpochDay to toEpochDay, both
+     * inclusive
+     *
+     * @return true if some date was removed
+     */
+    public boolean removeEpochDays(int fromEpochDay, int toEpochDay) {
+        boolean removed = false;
+        for (int i = size() - 1; i >= 0; i--) {
+            DateTime dateTime = get(i);
+            if (dateTime == null) {
+                continue;
+            }
+            int epochDay = EpochDay.fromDateTime(dateTime);
+            if (epochDay >= fromEpochDay && epochDay <= toEpochDay) {
+                remove(i);
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    /*
+     * Remove the dates whose epoch day is in epochDays
+     *
+     * @return true if some date was removed
+     */
+    public boolean removeEpochDays(DateBitSet epochDays) {
+        boolean removed = false;
+        for (int i = size() - 1; i >= 0; i--) {
+            DateTime dateTime = get(i);
+            if (dateTime != null && epochDays.contains(EpochDay.fromDateTime(dateTime))) {
+                remove(i);
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    /*
+     * Epoch days of the dates of the list
+     */
+    public DateBitSet toDateBitSet() {
+        DateBitSet epochDays = new DateBitSet();
+        for (DateTime dateTime : this) {
+            if (dateTime != null) {
+                epochDays.add(EpochDay.fromDateTime(dateTime));
+            }
+        }
+        return epochDays;
+    }
+
+    @Override
+    public DateTime set(int index, DateTime element) {
+        // Not a structural change for ArrayList, but one for the merged sets
+        modCount++;
+        return super.set(index, element);
+    }
+}
@@ -0,0 +1,261 @@
+package com.roomorama.caldroid;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import androidx.annotation.ColorRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import hirondelle.date4j.DateTime;
+
+/*
+ * Small set of cell styles, a background and / or a text color, and the style
+ * of each decorated date. Colors are resolved once when a style is added, and
+ * each cell gets its own background drawable created from the ConstantState of
+ * the style, so all cells of a style share its bitmap and constant state.
+ * <p/>
+ * Dates are kept as a sorted array of epoch days with a parallel array of
+ * style indexes, a few bytes per date instead of a Drawable instance each.
+ * <p/>
+ * Every change increments the version, see DateCaldroidFragment.setDecorationPalette.
+ * This class is not thread safe.
+ */
+public class DecorationPalette {
+    public static final int NO_STYLE = -1;
+    public static final int MAX_STYLES = Byte.MAX_VALUE;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Resources resources;
+
+    // Styles
+    private Drawable[] backgrounds = new Drawable[4];
+    private Drawable.ConstantState[] backgroundStates = new Drawable.ConstantState[4];
+    private int[] textColors = new int[4];
+    private boolean[] hasTextColors = new boolean[4];
+    private int styleCount;
+
+    // Sorted epoch days and their style
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private byte[] dateStyles = new byte[INITIAL_CAPACITY];
+    private int dateCount;
+
+    private int version;
+
+    public DecorationPalette(@NonNull Context context) {
+        this.resources = context.getResources();
+    }
+
+    /*
+     * Add a style
+     *
+     * @param background background of the cells, null for the default one
+     * @param textColorRes text color resource, 0 for the default color
+     * @return index of the style
+     */
+    public int addStyle(@Nullable Drawable background, @ColorRes int textColorRes) {
+        if (styleCount == MAX_STYLES) {
+            throw new IllegalStateException("Too many styles, max is " + MAX_STYLES);
+        }
+        if (styleCount == backgrounds.length) {
+            int capacity = Math.min(styleCount * 2, MAX_STYLES);
+            backgrounds = Arrays.copyOf(backgrounds, capacity);
+            backgroundStates = Arrays.copyOf(backgroundStates, capacity);
+            textColors = Arrays.copyOf(textColors, capacity);
+            hasTextColors = Arrays.copyOf(hasTextColors, capacity);
+        }
+
+        backgrounds[styleCount] = background;
+        backgroundStates[styleCount] = background != null ? background.getConstantState() : null;
+        if (textColorRes != 0) {
+            textColors[styleCount] = resources.getColor(textColorRes, null);
+            hasTextColors[styleCount] = true;
+        }
+        version++;
+        return styleCount++;
+    }
+
+    public int getStyleCount() {
+        return styleCount;
+    }
+
+    /*
+     * New background drawable of the style, sharing the constant state of the
+     * registered one. Drawables without constant state are shared as is
+     *
+     * @return drawable, or null if the style has no background
+     */
+    @Nullable
+    public Drawable newBackground(int style) {
+        checkStyle(style);
+        Drawable.ConstantState state = backgroundStates[style];
+        return state != null ? state.newDrawable(resources) : backgrounds[style];
+    }
+
+    public boolean hasTextColor(int style) {
+        checkStyle(style);
+        return hasTextColors[style];
+    }
+
+    /*
+     * Resolved text color of the style, only valid if hasTextColor(style)
+     */
+    public int getTextColor(int style) {
+        checkStyle(style);
+        return textColors[style];
+    }
+
+    /*
+     * Style of the date, NO_STYLE if it has none
+     */
+    public int getDateStyle(int epochDay) {
+        int index = Arrays.binarySearch(epochDays, 0, dateCount, epochDay);
+        return index >= 0 ? dateStyles[index] : NO_STYLE;
+    }
+
+    public int getDateStyle(@NonNull DateTime dateTime) {
+        return getDateStyle(EpochDay.fromDateTime(dateTime));
+    }
+
+    public void setDateStyle(int epochDay, int style) {
+        checkStyle(style);
+        int index = Arrays.binarySearch(epochDays, 0, dateCount, epochDay);
+        if (index >= 0) {
+            if (dateStyles[index] != style) {
+                dateStyles[index] = (byte) style;
+                version++;
+            }
+            return;
+        }
+
+        index = -index - 1;
+        if (dateCount == epochDays.length) {
+            epochDays = Arrays.copyOf(epochDays, dateCount * 2);
+            dateStyles = Arrays.copyOf(dateStyles, dateCount * 2);
+        }
+        System.arraycopy(epochDays, index, epochDays, index + 1, dateCount - index);
+        System.arraycopy(dateStyles, index, dateStyles, index + 1, dateCount - index);
+        epochDays[index] = epochDay;
+        dateStyles[index] = (byte) style;
+        dateCount++;
+        version++;
+    }
+
+    public void setDateStyle(@NonNull Date date, int style) {
+        setDateStyle(EpochDay.fromDate(date), style);
+    }
+
+    public void setDateStyle(@NonNull DateTime dateTime, int style) {
+        setDateStyle(EpochDay.fromDateTime(dateTime), style);
+    }
+
+    /*
+     * Set the style of all dates between fromDateTime and toDateTime, both
+     * inclusive
+     */
+    public void setDateStyle(@NonNull DateTime fromDateTime, @NonNull DateTime toDateTime, int style) {
+        setDateStyle(EpochDay.fromDateTime(fromDateTime), EpochDay.fromDateTime(toDateTime), style);
+    }
+
+    /*
+     * Set the style of all dates from fromEpochDay to toEpochDay, both
+     * inclusive. The range replaces the dates it covers in a single pass, the
+     * dates after it are moved once
+     */
+    public void setDateStyle(int fromEpochDay, int toEpochDay, int style) {
+        checkStyle(style);
+        if (fromEpochDay > toEpochDay) {
+            return;
+        }
+
+        // Dates of the range already in the palette are at from..to - 1
+        int from = lowerBound(fromEpochDay);
+        int to = lowerBound(toEpochDay + 1);
+        int rangeCount = toEpochDay - fromEpochDay + 1;
+        if (to - from == rangeCount && allStyled(from, to, style)) {
+            return;
+        }
+
+        int newCount = dateCount - (to - from) + rangeCount;
+        if (newCount > epochDays.length) {
+            int capacity = Math.max(newCount, dateCount * 2);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            dateStyles = Arrays.copyOf(dateStyles, capacity);
+        }
+        System.arraycopy(epochDays, to, epochDays, from + rangeCount, dateCount - to);
+        System.arraycopy(dateStyles, to, dateStyles, from + rangeCount, dateCount - to);
+        for (int i = 0; i < rangeCount; i++) {
+            epochDays[from + i] = fromEpochDay + i;
+        }
+        Arrays.fill(dateStyles, from, from + rangeCount, (byte) style);
+        dateCount = newCount;
+        version++;
+    }
+
+    /*
+     * Index of the first date not before epochDay
+     */
+    private int lowerBound(int epochDay) {
+        int index = Arrays.binarySearch(epochDays, 0, dateCount, epochDay);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private boolean allStyled(int from, int to, int style) {
+        for (int i = from; i < to; i++) {
+            if (dateStyles[i] != style) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clearDateStyle(int epochDay) {
+        int index = Arrays.binarySearch(epochDays, 0, dateCount, epochDay);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(epochDays, index + 1, epochDays, index, dateCount - index - 1);
+        System.arraycopy(dateStyles, index + 1, dateStyles, index, dateCount - index - 1);
+        dateCount--;
+        version++;
+    }
+
+    public void clearDateStyle(@NonNull Date date) {
+        clearDateStyle(EpochDay.fromDate(date));
+    }
+
+    public void clearDateStyle(@NonNull DateTime dateTime) {
+        clearDateStyle(EpochDay.fromDateTime(dateTime));
+    }
+
+    public void clearDateStyles() {
+        if (dateCount != 0) {
+            dateCount = 0;
+            version++;
+        }
+    }
+
+    /*
+     * Number of dates with a style
+     */
+    public int getDateCount() {
+        return dateCount;
+    }
+
+    /*
+     * Incremented on every change of the styles or the dates
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    private void checkStyle(int style) {
+        if (style < 0 || style >= styleCount) {
+            throw new IndexOutOfBoundsException("Style " + style + ", count " + styleCount);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.roomorama.caldroid;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+import androidx.annotation.NonNull;
+import hirondelle.date4j.DateTime;
+
+/*
+ * Int based date core used on the rendering hot path. A date is represented by
+ * its "epoch day", the number of days since 1970-01-01 in the proleptic
+ * Gregorian calendar. Comparing, hashing and stepping dates are then plain int
+ * operations, and Date4J DateTime is only needed at the public API boundary.
+ * <p/>
+ * The static arithmetic works on raw int epoch days and never allocates. Instances
+ * are a small immutable wrapper for the places where an object is needed, for
+ * e.g as a map key.
+ * <p/>
+ * Weekdays follow the Date4J convention: 1 is Sunday, 7 is Saturday. Months
+ * are 1-based.
+ */
+public final class EpochDay implements Comparable<EpochDay> {
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private final int epochDay;
+
+    public EpochDay(int epochDay) {
+        this.epochDay = epochDay;
+    }
+
+    public static EpochDay valueOf(int year, int month, int day) {
+        return new EpochDay(of(year, month, day));
+    }
+
+    public int getEpochDay() {
+        return epochDay;
+    }
+
+    public int getYear() {
+        return yearOf(epochDay);
+    }
+
+    public int getMonth() {
+        return monthOf(epochDay);
+    }
+
+    public int getDay() {
+        return dayOf(epochDay);
+    }
+
+    public int getWeekDay() {
+        return weekDayOf(epochDay);
+    }
+
+    public EpochDay plusDays(int days) {
+        return new EpochDay(epochDay + days);
+    }
+
+    public DateTime toDateTime() {
+        return toDateTime(epochDay);
+    }
+
+    @Override
+    public int compareTo(EpochDay other) {
+        return Integer.compare(epochDay, other.epochDay);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EpochDay && ((EpochDay) o).epochDay == epochDay;
+    }
+
+    @Override
+    public int hashCode() {
+        return epochDay;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return toDateTime(epochDay).format("YYYY-MM-DD");
+    }
+
+    /*
+     * Epoch day of the given date. Month and day are not validated, overflowing
+     * days roll into the next month
+     *
+     * @param year
+     * @param month 1-12
+     * @param day
+     * @return
+     */
+    public static int of(int year, int month, int day) {
+        // Shift the year to start in March so that the leap day is the last
+        // day of the shifted year
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int shiftedMonth = month > 2 ? month - 3 : month + 9;
+        int dayOfYear = (153 * shiftedMonth + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    public static int yearOf(int epochDay) {
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int year = yearOfEra + era * 400;
+        return shiftedMonth >= 10 ? year + 1 : year;
+    }
+
+    public static int monthOf(int epochDay) {
+        int dayOfYear = shiftedDayOfYear(epochDay);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        return shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+    }
+
+    public static int dayOf(int epochDay) {
+        int dayOfYear = shiftedDayOfYear(epochDay);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        return dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+    }
+
+    /*
+     * Day of the year counted from March 1st, 0-based
+     */
+    private static int shiftedDayOfYear(int epochDay) {
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        return dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    }
+
+    /*
+     * Weekday of the epoch day, 1 (Sunday) to 7 (Saturday). 1970-01-01 was a
+     * Thursday
+     */
+    public static int weekDayOf(int epochDay) {
+        return Math.floorMod(epochDay + 4, 7) + 1;
+    }
+
+    public static boolean isLeapYear(int year) {
+        return (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    public static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /*
+     * Months counted as year * 12 + (month - 1), the same convention as the
+     * pager adapters use for their positions
+     */
+    public static int toEpochMonth(int year, int month) {
+        return year * 12 + (month - 1);
+    }
+
+    public static int epochMonthOf(int epochDay) {
+        return toEpochMonth(yearOf(epochDay), monthOf(epochDay));
+    }
+
+    public static int fromDateTime(DateTime dateTime) {
+        return of(dateTime.getYear(), dateTime.getMonth(), dateTime.getDay());
+    }
+
+    public static DateTime toDateTime(int epochDay) {
+        return new DateTime(yearOf(epochDay), monthOf(epochDay), dayOf(epochDay), 0, 0, 0, 0);
+    }
+
+    /*
+     * Epoch day of the Date in the default time zone, same as
+     * CalendarHelper.convertDateToDateTime but without the Calendar round trip
+     */
+    public static int fromDate(Date date) {
+        return fromMillis(date.getTime());
+    }
+
+    public static int fromMillis(long millis) {
+        long localMillis = millis + TimeZone.getDefault().getOffset(millis);
+        return (int) Math.floorDiv(localMillis, MILLIS_PER_DAY);
+    }
+
+    public static Date toDate(int epochDay) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(yearOf(epochDay), monthOf(epochDay) - 1, dayOf(epochDay));
+        return calendar.getTime();
+    }
+
+    public static int today() {
+        return fromMillis(System.currentTimeMillis());
+    }
+}
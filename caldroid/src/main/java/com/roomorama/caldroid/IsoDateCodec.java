@@ -0,0 +1,196 @@
+package com.roomorama.caldroid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import hirondelle.date4j.DateTime;
+
+/*
+ * Parser and formatter of yyyy-MM-dd dates, the format Caldroid uses in its
+ * arguments and saved states, working directly on epoch days. There is no
+ * SimpleDateFormat, Calendar or time zone involved, and no state, so it can be
+ * used from any thread.
+ * <p/>
+ * Parsing accepts a year of 1 to 4 digits, a month and a day of 1 or 2 digits,
+ * separated by '-'. Text after the day is ignored if it does not start with a
+ * digit, for e.g. a time. Like the lenient SimpleDateFormat it replaces,
+ * months and days out of range roll over: 2013-02-30 is March 2 2013,
+ * 2013-13-01 January 1 2014 and 2013-03-00 February 28 2013.
+ */
+public final class IsoDateCodec {
+    /*
+     * Returned by parse for invalid text
+     */
+    public static final int INVALID = Integer.MIN_VALUE;
+
+    private static final int FORMATTED_LENGTH = 10;
+
+    private IsoDateCodec() {
+    }
+
+    /*
+     * Epoch day of the date, or INVALID
+     */
+    public static int parse(@NonNull CharSequence text) {
+        int length = text.length();
+        int index = 0;
+
+        int year = 0;
+        int digits = 0;
+        while (index < length && digits < 4 && isDigit(text.charAt(index))) {
+            year = year * 10 + (text.charAt(index++) - '0');
+            digits++;
+        }
+        if (digits == 0 || index >= length || text.charAt(index++) != '-') {
+            return INVALID;
+        }
+
+        int month = 0;
+        digits = 0;
+        while (index < length && digits < 2 && isDigit(text.charAt(index))) {
+            month = month * 10 + (text.charAt(index++) - '0');
+            digits++;
+        }
+        if (digits == 0 || index >= length || text.charAt(index++) != '-') {
+            return INVALID;
+        }
+
+        int day = 0;
+        digits = 0;
+        while (index < length && digits < 2 && isDigit(text.charAt(index))) {
+            day = day * 10 + (text.charAt(index++) - '0');
+            digits++;
+        }
+        if (digits == 0 || (index < length && isDigit(text.charAt(index)))) {
+            return INVALID;
+        }
+
+        // Lenient, months roll into the years and days into the months
+        year += Math.floorDiv(month - 1, 12);
+        month = Math.floorMod(month - 1, 12) + 1;
+        return EpochDay.of(year, month, day);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /*
+     * The date as yyyy-MM-dd, same as DateTime.format("YYYY-MM-DD")
+     */
+    @NonNull
+    public static String format(int epochDay) {
+        char[] chars = new char[FORMATTED_LENGTH];
+        formatTo(epochDay, chars);
+        return new String(chars);
+    }
+
+    public static void formatTo(int epochDay, @NonNull StringBuilder builder) {
+        char[] chars = new char[FORMATTED_LENGTH];
+        formatTo(epochDay, chars);
+        builder.append(chars);
+    }
+
+    private static void formatTo(int epochDay, char[] chars) {
+        int year = EpochDay.yearOf(epochDay);
+        int month = EpochDay.monthOf(epochDay);
+        int day = EpochDay.dayOf(epochDay);
+
+        chars[0] = (char) ('0' + year / 1000 % 10);
+        chars[1] = (char) ('0' + year / 100 % 10);
+        chars[2] = (char) ('0' + year / 10 % 10);
+        chars[3] = (char) ('0' + year % 10);
+        chars[4] = '-';
+        chars[5] = (char) ('0' + month / 10);
+        chars[6] = (char) ('0' + month % 10);
+        chars[7] = '-';
+        chars[8] = (char) ('0' + day / 10);
+        chars[9] = (char) ('0' + day % 10);
+    }
+
+    /*
+     * Epoch days of the valid dates, in the order of the list. Invalid ones
+     * are skipped
+     */
+    @NonNull
+    public static int[] parseAll(@NonNull List<String> texts) {
+        int[] epochDays = new int[texts.size()];
+        int count = 0;
+        for (int i = 0; i < epochDays.length; i++) {
+            int epochDay = parse(texts.get(i));
+            if (epochDay != INVALID) {
+                epochDays[count++] = epochDay;
+            }
+        }
+        return count == epochDays.length ? epochDays : Arrays.copyOf(epochDays, count);
+    }
+
+    /*
+     * Add the valid dates to the set, invalid ones are skipped
+     *
+     * @return number of valid dates
+     */
+    public static int parseInto(@NonNull List<String> texts, @NonNull DateBitSet dates) {
+        int[] epochDays = parseAll(texts);
+        Arrays.sort(epochDays);
+        for (int epochDay : epochDays) {
+            dates.add(epochDay);
+        }
+        return epochDays.length;
+    }
+
+    /*
+     * Add the valid dates to the set, consecutive dates are added as a single
+     * range. Invalid ones are skipped
+     *
+     * @return number of valid dates
+     */
+    public static int parseInto(@NonNull List<String> texts, @NonNull DateRangeSet dates) {
+        int[] epochDays = parseAll(texts);
+        Arrays.sort(epochDays);
+        int index = 0;
+        while (index < epochDays.length) {
+            int start = epochDays[index];
+            int end = start;
+            while (++index < epochDays.length && epochDays[index] <= end + 1) {
+                end = epochDays[index];
+            }
+            dates.addRange(start, end);
+        }
+        return epochDays.length;
+    }
+
+    /*
+     * DateTimes of the valid dates, in the order of the list. Invalid ones are
+     * skipped
+     */
+    @NonNull
+    public static ArrayList<DateTime> parseDateTimes(@NonNull List<String> texts) {
+        int[] epochDays = parseAll(texts);
+        ArrayList<DateTime> dateTimes = new ArrayList<>(epochDays.length);
+        for (int epochDay : epochDays) {
+            dateTimes.add(EpochDay.toDateTime(epochDay));
+        }
+        return dateTimes;
+    }
+
+    @NonNull
+    public static ArrayList<String> formatAll(@NonNull int[] epochDays) {
+        ArrayList<String> texts = new ArrayList<>(epochDays.length);
+        for (int epochDay : epochDays) {
+            texts.add(format(epochDay));
+        }
+        return texts;
+    }
+
+    @NonNull
+    public static ArrayList<String> formatAll(@NonNull List<DateTime> dateTimes) {
+        ArrayList<String> texts = new ArrayList<>(dateTimes.size());
+        for (DateTime dateTime : dateTimes) {
+            texts.add(format(EpochDay.fromDateTime(dateTime)));
+        }
+        return texts;
+    }
+}
@@ -35,10 +35,14 @@ import androidx.viewpager2.widget.ViewPager2;
 import hirondelle.date4j.DateTime;
 
 public class MonthCaldroidFragment extends DialogFragment {
-    private final YearViewPagerHelper viewPagerHelper = new YearViewPagerHelper();
+    // Sizes infinitePager to the 3 rows of months of the current page
+    private PagerResizeScheduler resizeScheduler;
 
     private static final String STATE_BUNDLE_KEY = "CALDROID_MONTH_SAVED_STATE";
 
+    // 12 months in rows of 4
+    private static final int MONTH_ROWS = 12 / 4;
+
     /*
      * Caldroid view components
      */
@@ -58,6 +62,9 @@ public class MonthCaldroidFragment extends DialogFragment {
             SHOW_NAVIGATION_ARROWS = "showNavigationArrows",
             DISABLE_DATES = "disableDates",
             SELECTED_DATES = "selectedDates",
+            SELECTED_DATE_BITS = "selectedDateBits",
+            DISABLE_DATES_PARCEL = "disableDatesParcel",
+            SELECTED_DATES_PARCEL = "selectedDatesParcel",
             MIN_DATE = "minDate",
             MAX_DATE = "maxDate",
             ENABLE_SWIPE = "enableSwipe",
@@ -74,7 +81,8 @@ public class MonthCaldroidFragment extends DialogFragment {
             MAX_DATE_TIME = "_maxDateTime",
             CELL_TEXTS = "celltexts",
             BACKGROUND_FOR_DATETIME_MAP = "_backgroundForDateTimeMap",
-            TEXT_COLOR_FOR_DATETIME_MAP = "_textColorForDateTimeMap";
+            TEXT_COLOR_FOR_DATETIME_MAP = "_textColorForDateTimeMap",
+            METRICS = "_metrics";
 
     /*
      * Initial data
@@ -82,7 +90,16 @@ public class MonthCaldroidFragment extends DialogFragment {
     protected String dialogTitle;
     protected int year = -1;
     protected final ArrayList<DateTime> disableDates = new ArrayList<>();
-    protected final ArrayList<DateTime> selectedDates = new ArrayList<>();
+    protected final DateBitSet selectedDateSet = new DateBitSet();
+
+    /*
+     * Selected dates of the old API, still honoured: they are selected in
+     * addition to selectedDateSet, and clearing a selection clears them too.
+     * Use selectedDateSet instead
+     */
+    @Deprecated
+    protected final DateTimeList selectedDates = new DateTimeList();
+    private final DateListMerger selectedDatesMerger = new DateListMerger();
     protected DateTime minDateTime;
     protected DateTime maxDateTime;
 
@@ -113,6 +130,7 @@ public class MonthCaldroidFragment extends DialogFragment {
      * however in many cases with compact screen, it can be collapsed to save space
      */
     protected boolean squareTextViewCell;
+    protected CaldroidMetrics metrics;
 
     /*
      * dateItemClickListener is fired when user click on the date cell
@@ -210,7 +228,7 @@ public class MonthCaldroidFragment extends DialogFragment {
         Map<String, Object> caldroidData = new HashMap<>();
 
         caldroidData.put(DISABLE_DATES, disableDates);
-        caldroidData.put(SELECTED_DATES, selectedDates);
+        caldroidData.put(SELECTED_DATE_BITS, getEffectiveSelectedDates());
         caldroidData.put(MIN_DATE_TIME, minDateTime);
         caldroidData.put(MAX_DATE_TIME, maxDateTime);
         caldroidData.put(SQUARE_TEXT_VIEW_CELL, squareTextViewCell);
@@ -221,6 +239,7 @@ public class MonthCaldroidFragment extends DialogFragment {
         caldroidData
                 .put(BACKGROUND_FOR_DATETIME_MAP, backgroundForDateTimeMap);
         caldroidData.put(TEXT_COLOR_FOR_DATETIME_MAP, textColorForDateTimeMap);
+        caldroidData.put(METRICS, metrics);
 
         return caldroidData;
     }
@@ -362,14 +381,13 @@ public class MonthCaldroidFragment extends DialogFragment {
             bundle.putString(DIALOG_TITLE, dialogTitle);
         }
 
-        if (!selectedDates.isEmpty()) {
-            bundle.putStringArrayList(SELECTED_DATES,
-                    CalendarHelper.convertToStringList(selectedDates));
+        DateBitSet effectiveSelectedDates = getEffectiveSelectedDates();
+        if (!effectiveSelectedDates.isEmpty()) {
+            bundle.putParcelable(SELECTED_DATES_PARCEL, DateSetParcel.of(effectiveSelectedDates));
         }
 
         if (!disableDates.isEmpty()) {
-            bundle.putStringArrayList(DISABLE_DATES,
-                    CalendarHelper.convertToStringList(disableDates));
+            bundle.putParcelable(DISABLE_DATES_PARCEL, DateSetParcel.ofDateTimes(disableDates));
         }
 
         if (minDateTime != null) {
@@ -597,9 +615,19 @@ public class MonthCaldroidFragment extends DialogFragment {
      * explicitly call refreshView()
      */
     public void clearSelectedDates() {
+        selectedDateSet.clear();
         selectedDates.clear();
     }
 
+    /*
+     * selectedDateSet with the dates of the deprecated selectedDates list,
+     * merged again only when either of them has changed
+     */
+    @NonNull
+    protected DateBitSet getEffectiveSelectedDates() {
+        return selectedDatesMerger.merge(selectedDateSet, selectedDates);
+    }
+
     /*
      * Select the dates from fromDate to toDate. By default the background color
      * is holo_blue_light, and the text color is black. You can customize the
@@ -616,17 +644,8 @@ public class MonthCaldroidFragment extends DialogFragment {
             return;
         }
 
-        selectedDates.clear();
-
-        DateTime fromDateTime = CalendarHelper.convertDateToDateTime(fromDate);
-        DateTime toDateTime = CalendarHelper.convertDateToDateTime(toDate);
-
-        DateTime dateTime = fromDateTime;
-        while (dateTime.lt(toDateTime)) {
-            selectedDates.add(dateTime);
-            dateTime = dateTime.plusDays(1);
-        }
-        selectedDates.add(toDateTime);
+        clearSelectedDates();
+        selectedDateSet.addRange(EpochDay.fromDate(fromDate), EpochDay.fromDate(toDate));
     }
 
     /*
@@ -655,8 +674,7 @@ public class MonthCaldroidFragment extends DialogFragment {
         if (date == null) {
             return;
         }
-        DateTime dateTime = CalendarHelper.convertDateToDateTime(date);
-        selectedDates.add(dateTime);
+        selectedDateSet.add(EpochDay.fromDate(date));
     }
 
     /*
@@ -667,8 +685,37 @@ public class MonthCaldroidFragment extends DialogFragment {
         if (date == null) {
             return;
         }
-        DateTime dateTime = CalendarHelper.convertDateToDateTime(date);
-        selectedDates.remove(dateTime);
+        int epochDay = EpochDay.fromDate(date);
+        selectedDateSet.remove(epochDay);
+        selectedDates.removeEpochDays(epochDay, epochDay);
+    }
+
+    /*
+     * Select the date if it is not selected, clear its selection otherwise.
+     * This method does not refresh view, need to call refreshView()
+     *
+     * @param date
+     * @return true if the date is selected after the toggle
+     */
+    public boolean toggleSelectedDate(Date date) {
+        if (date == null) {
+            return false;
+        }
+        if (isSelectedDate(date)) {
+            clearSelectedDate(date);
+            return false;
+        }
+        setSelectedDate(date);
+        return true;
+    }
+
+    /*
+     * Copy of the selected dates
+     *
+     * @return
+     */
+    public DateBitSet getSelectedDateSet() {
+        return new DateBitSet(getEffectiveSelectedDates());
     }
 
     /*
@@ -679,8 +726,7 @@ public class MonthCaldroidFragment extends DialogFragment {
         if (date == null) {
             return false;
         }
-        DateTime dateTime = CalendarHelper.convertDateToDateTime(date);
-        return selectedDates.contains(dateTime);
+        return getEffectiveSelectedDates().contains(EpochDay.fromDate(date));
     }
 
     /*
@@ -799,6 +845,18 @@ public class MonthCaldroidFragment extends DialogFragment {
         this.monthCaldroidListener = monthCaldroidListener;
     }
 
+    public CaldroidMetrics getMetrics() {
+        return metrics;
+    }
+
+    /*
+     * Set metrics of the hot paths, null for none. Must be set before the view
+     * is created to cover the first pages
+     */
+    public void setMetrics(CaldroidMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /*
      * Callback to listener when date is valid (not disable, not outside of
      * min/max date)
@@ -896,7 +954,10 @@ public class MonthCaldroidFragment extends DialogFragment {
             return;
         }
 
-        refreshTitleTextView();
+        try (CaldroidMetrics.Section section = CaldroidMetrics.Section.begin(
+                "Caldroid:refreshView", metrics, CaldroidMetrics.Section.REFRESH_VIEW)) {
+            refreshTitleTextView();
+        }
     }
 
     /*
@@ -945,28 +1006,33 @@ public class MonthCaldroidFragment extends DialogFragment {
             enableClickOnDisabledDates = args.getBoolean(
                     ENABLE_CLICK_ON_DISABLED_DATES, false);
 
-            // Get disable dates
+            // Get disable dates, as saved state or as list of date strings
+            DateSetParcel disableDatesParcel = DateSetParcel.fromBundle(args, DISABLE_DATES_PARCEL);
             ArrayList<String> disableDateStrings = args
                     .getStringArrayList(DISABLE_DATES);
-            if (disableDateStrings != null && !disableDateStrings.isEmpty()) {
+            if (disableDatesParcel != null) {
                 disableDates.clear();
-                for (String dateString : disableDateStrings) {
-                    DateTime dt = CalendarHelper.getDateTimeFromString(
-                            dateString, null);
-                    disableDates.add(dt);
-                }
+                disableDates.addAll(disableDatesParcel.toDateTimeList());
+            } else if (disableDateStrings != null && !disableDateStrings.isEmpty()) {
+                disableDates.clear();
+                disableDates.addAll(IsoDateCodec.parseDateTimes(disableDateStrings));
             }
 
-            // Get selected dates
+            // Get selected dates, as saved state, as month bits or as list of
+            // date strings
+            DateSetParcel selectedDatesParcel = DateSetParcel.fromBundle(args, SELECTED_DATES_PARCEL);
+            int[] selectedDateBits = args.getIntArray(SELECTED_DATE_BITS);
             ArrayList<String> selectedDateStrings = args
                     .getStringArrayList(SELECTED_DATES);
-            if (selectedDateStrings != null && !selectedDateStrings.isEmpty()) {
-                selectedDates.clear();
-                for (String dateString : selectedDateStrings) {
-                    DateTime dt = CalendarHelper.getDateTimeFromString(
-                            dateString, null);
-                    selectedDates.add(dt);
-                }
+            if (selectedDatesParcel != null) {
+                clearSelectedDates();
+                selectedDatesParcel.addTo(selectedDateSet);
+            } else if (selectedDateBits != null && selectedDateBits.length > 0) {
+                clearSelectedDates();
+                selectedDateSet.addAll(DateBitSet.fromArray(selectedDateBits));
+            } else if (selectedDateStrings != null && !selectedDateStrings.isEmpty()) {
+                clearSelectedDates();
+                IsoDateCodec.parseInto(selectedDateStrings, selectedDateSet);
             }
 
             // Get min date and max date
@@ -1068,6 +1134,35 @@ public class MonthCaldroidFragment extends DialogFragment {
         requireActivity().setTheme(themeResource);
 
         binding = MonthCalendarViewBinding.inflate(localInflater, container, false);
+        resizeScheduler = new PagerResizeScheduler(binding.infinitePager,
+                new PagerResizeScheduler.Source() {
+                    @Override
+                    public View getResizeChild() {
+                        Fragment child = getChildFragmentManager().findFragmentByTag(
+                                getViewPager2FragmentTag(getCurrentPagerPoistion()));
+                        return child != null ? child.getView() : null;
+                    }
+
+                    @Override
+                    public int getResizeRows() {
+                        return MONTH_ROWS;
+                    }
+
+                    @Override
+                    public int getThemeResource() {
+                        return themeResource;
+                    }
+
+                    @Override
+                    public boolean isSquareTextViewCell() {
+                        return squareTextViewCell;
+                    }
+
+                    @Override
+                    public CaldroidMetrics getMetrics() {
+                        return metrics;
+                    }
+                });
 
         // For the monthTitleTextView
         titleButton = binding.calendarMonthtitleButton;
@@ -1130,7 +1225,17 @@ public class MonthCaldroidFragment extends DialogFragment {
 
 
     public void resizeViewPager(@NonNull View _childView) {
-        viewPagerHelper.resizeCalendarViewPager(binding.infinitePager, _childView);
+        resizeScheduler.resize(_childView, MONTH_ROWS);
+    }
+
+    /*
+     * Resize the pager to the current page on the next frame. Requests until
+     * then are merged into one
+     */
+    void requestPagerResize() {
+        if (resizeScheduler != null) {
+            resizeScheduler.requestResize();
+        }
     }
 
     /*
@@ -1169,14 +1274,7 @@ public class MonthCaldroidFragment extends DialogFragment {
         binding.infinitePager.registerOnPageChangeCallback(new ViewPager2.OnPageChangeCallback() {
             @Override
             public void onPageSelected(int position) {
-                String childTag = getViewPager2FragmentTag(position);
-                Fragment child = getChildFragmentManager().findFragmentByTag(childTag);
-                if (child != null) {
-                    View childView = child.getView();
-                    if (childView != null) {
-                        resizeViewPager(childView);
-                    }
-                }
+                requestPagerResize();
             }
         });
 
@@ -1190,18 +1288,26 @@ public class MonthCaldroidFragment extends DialogFragment {
 
     @NonNull
     public MonthGridFragment createMonthGridFragment(int _position) {
-        MonthGridFragment monthGridFragment = new MonthGridFragment();
-
         DateTime fragmentDateTime = mYearPagerAdapter.positionToDateTime(_position);
-        MonthGridAdapter adapter = getNewMonthsGridAdapter(fragmentDateTime.getYear());
-
-        monthGridFragment.setGridViewRes(getGridViewRes());
-        monthGridFragment.setGridAdapter(adapter);
-        monthGridFragment.setOnItemClickListener(getMonthItemClickListener());
-        monthGridFragment
-                .setOnItemLongClickListener(getMonthItemLongClickListener());
+        int pageYear = fragmentDateTime.getYear();
+        try (CaldroidMetrics.Section section = CaldroidMetrics.Section.begin("Caldroid:createPage",
+                metrics, CaldroidMetrics.Section.PAGE_CREATED, 0, pageYear)) {
+            MonthGridFragment monthGridFragment = new MonthGridFragment();
+
+            MonthGridAdapter adapter;
+            try (CaldroidMetrics.Section adapterSection = CaldroidMetrics.Section.begin(
+                    "Caldroid:newAdapter", metrics, CaldroidMetrics.Section.ADAPTER_CREATED,
+                    0, pageYear)) {
+                adapter = getNewMonthsGridAdapter(pageYear);
+            }
 
-        return monthGridFragment;
+            monthGridFragment.setGridViewRes(getGridViewRes());
+            monthGridFragment.setGridAdapter(adapter);
+            monthGridFragment.setOnItemClickListener(getMonthItemClickListener());
+            monthGridFragment
+                    .setOnItemLongClickListener(getMonthItemLongClickListener());
+            return monthGridFragment;
+        }
     }
 
     public static String getViewPager2FragmentTag(int _position) {
@@ -3,10 +3,7 @@ package com.roomorama.caldroid;
 import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.Resources;
-import android.content.res.TypedArray;
 import android.graphics.drawable.Drawable;
-import android.util.TypedValue;
-import android.view.ContextThemeWrapper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -16,7 +13,6 @@ import android.widget.TextView;
 import com.caldroid.R;
 
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -33,12 +29,17 @@ public class MonthGridAdapter extends BaseAdapter {
     protected DateTime minDateTime;
     protected DateTime maxDateTime;
     protected DateTime today;
+    // Months counted as year * 12 + (month - 1), see EpochDay.toEpochMonth
+    protected int minEpochMonth = Integer.MIN_VALUE;
+    protected int maxEpochMonth = Integer.MAX_VALUE;
+    protected int todayEpochMonth = EpochDay.epochMonthOf(EpochDay.today());
     protected boolean squareTextViewCell;
     protected int themeResource;
     protected final Resources resources;
+    // Filled only when fillsProtectedLists() is true, see there
     protected ArrayList<DateTime> selectedDates;
-
     protected final Map<DateTime, Integer> selectedDatesMap = new HashMap<>();
+    protected DateBitSet selectedDateSet = new DateBitSet();
 
     protected int defaultCellBackgroundRes = -1;
     protected ColorStateList defaultTextColorRes;
@@ -54,6 +55,11 @@ public class MonthGridAdapter extends BaseAdapter {
 
     protected final LayoutInflater localInflater;
 
+    /*
+     * Metrics of the fragment, may be null
+     */
+    protected CaldroidMetrics metrics;
+
     public void setAdapterDateTime(DateTime dateTime) {
         this.year = dateTime.getYear();
     }
@@ -65,6 +71,8 @@ public class MonthGridAdapter extends BaseAdapter {
 
     public void setMinDateTime(DateTime minDateTime) {
         this.minDateTime = minDateTime;
+        this.minEpochMonth = minDateTime == null ? Integer.MIN_VALUE
+                : EpochDay.toEpochMonth(minDateTime.getYear(), minDateTime.getMonth());
     }
 
     public DateTime getMaxDateTime() {
@@ -73,6 +81,51 @@ public class MonthGridAdapter extends BaseAdapter {
 
     public void setMaxDateTime(DateTime maxDateTime) {
         this.maxDateTime = maxDateTime;
+        this.maxEpochMonth = maxDateTime == null ? Integer.MAX_VALUE
+                : EpochDay.toEpochMonth(maxDateTime.getYear(), maxDateTime.getMonth());
+    }
+
+    public ArrayList<DateTime> getSelectedDates() {
+        if (selectedDates == null) {
+            selectedDates = selectedDateSet.toDateTimeList();
+        }
+        return selectedDates;
+    }
+
+    public void setSelectedDates(ArrayList<DateTime> selectedDates) {
+        this.selectedDates = selectedDates;
+        this.selectedDateSet = DateBitSet.fromDateTimes(selectedDates);
+        fillSelectedDatesMap();
+    }
+
+    public DateBitSet getSelectedDateSet() {
+        return selectedDateSet;
+    }
+
+    public void setSelectedDateSet(DateBitSet selectedDateSet) {
+        this.selectedDates = null;
+        this.selectedDateSet = selectedDateSet != null ? selectedDateSet
+                : new DateBitSet();
+        fillSelectedDatesMap();
+    }
+
+    private void fillSelectedDatesMap() {
+        selectedDatesMap.clear();
+        if (!fillsProtectedLists()) {
+            return;
+        }
+        for (DateTime dateTime : getSelectedDates()) {
+            selectedDatesMap.put(dateTime.getStartOfMonth(), 1);
+        }
+    }
+
+    /*
+     * Whether selectedDates and selectedDatesMap are filled whenever the
+     * selection is set. getSelectedDates() builds the list on demand
+     * otherwise. Subclasses reading these fields directly return true
+     */
+    protected boolean fillsProtectedLists() {
+        return false;
     }
 
     public int getThemeResource() {
@@ -128,67 +181,72 @@ public class MonthGridAdapter extends BaseAdapter {
     /*
      * Retrieve internal parameters from caldroid data
      */
+    @SuppressWarnings("unchecked")
     private void populateFromCaldroidData() {
-        selectedDates = (ArrayList<DateTime>) caldroidData
-                .get(DateCaldroidFragment.SELECTED_DATES);
-        if (selectedDates != null) {
-            selectedDatesMap.clear();
-            for (DateTime dateTime : selectedDates) {
-                selectedDatesMap.put(dateTime.getStartOfMonth(), 1);
-            }
+        DateBitSet selectedDateSet = (DateBitSet) caldroidData
+                .get(MonthCaldroidFragment.SELECTED_DATE_BITS);
+        if (selectedDateSet != null) {
+            setSelectedDateSet(selectedDateSet);
+        } else {
+            setSelectedDates((ArrayList<DateTime>) caldroidData
+                    .get(MonthCaldroidFragment.SELECTED_DATES));
         }
 
-        minDateTime = (DateTime) caldroidData
-                .get(MonthCaldroidFragment.MIN_DATE_TIME);
-        maxDateTime = (DateTime) caldroidData
-                .get(MonthCaldroidFragment.MAX_DATE_TIME);
+        setMinDateTime((DateTime) caldroidData
+                .get(MonthCaldroidFragment.MIN_DATE_TIME));
+        setMaxDateTime((DateTime) caldroidData
+                .get(MonthCaldroidFragment.MAX_DATE_TIME));
         squareTextViewCell = Optional.ofNullable ((Boolean) caldroidData
                 .get(MonthCaldroidFragment.SQUARE_TEXT_VIEW_CELL)).orElse(false);
 
         // Get theme
         themeResource = Optional.ofNullable((Integer) caldroidData
                 .get(MonthCaldroidFragment.THEME_RESOURCE)).orElse(0);
+        metrics = (CaldroidMetrics) caldroidData.get(MonthCaldroidFragment.METRICS);
 
         getDefaultResources();
     }
 
     // This method retrieve default resources for background and text color,
-    // based on the Caldroid theme
+    // based on the Caldroid theme. They are resolved once per theme and cell
+    // type, see CaldroidThemeCache
     private void getDefaultResources() {
-        Context wrapped = new ContextThemeWrapper(context, themeResource);
-
-        // Get style of normal cell or square cell in the theme
-        Resources.Theme theme = wrapped.getTheme();
-        TypedValue styleCellVal = new TypedValue();
-        if (squareTextViewCell) {
-            theme.resolveAttribute(R.attr.styleCaldroidSquareCell, styleCellVal, true);
-        } else {
-            theme.resolveAttribute(R.attr.styleCaldroidNormalCell, styleCellVal, true);
-        }
-
-        // Get default background of cell
-        TypedArray typedArray = wrapped.obtainStyledAttributes(styleCellVal.data, R.styleable.Cell);
-        try {
-            defaultCellBackgroundRes = typedArray.getResourceId(R.styleable.Cell_android_background, -1);
-            defaultTextColorRes = typedArray.getColorStateList(R.styleable.Cell_android_textColor);
-        }
-        finally {
-            typedArray.recycle();
-        }
+        CaldroidThemeCache.CellStyle cellStyle = CaldroidThemeCache.getCellStyle(context,
+                themeResource, squareTextViewCell);
+        defaultCellBackgroundRes = cellStyle.getBackgroundRes();
+        defaultTextColorRes = cellStyle.getTextColor();
     }
 
     public void updateToday() {
-        today = CalendarHelper.convertDateToDateTime(new Date());
+        todayEpochMonth = EpochDay.epochMonthOf(EpochDay.today());
+        today = null;
     }
 
     protected DateTime getToday() {
         if (today == null) {
-            today = CalendarHelper.convertDateToDateTime(new Date());
-            today = new DateTime(today.getYear(), today.getMonth(), 1, 0, 0, 0, 0);
+            today = new DateTime(todayEpochMonth / 12, todayEpochMonth % 12 + 1, 1, 0, 0, 0, 0);
         }
         return today;
     }
 
+    /*
+     * Apply custom background and text color of the month of the cell at
+     * position. DateTime keys are only created when the client actually
+     * customizes some months
+     */
+    @SuppressWarnings("unchecked")
+    protected void setCustomResources(int position, View backgroundView,
+                                      TextView textView) {
+        Map<DateTime, Drawable> backgroundForDateTimeMap = (Map<DateTime, Drawable>) caldroidData
+                .get(MonthCaldroidFragment.BACKGROUND_FOR_DATETIME_MAP);
+        Map<DateTime, Integer> textColorForDateTimeMap = (Map<DateTime, Integer>) caldroidData
+                .get(MonthCaldroidFragment.TEXT_COLOR_FOR_DATETIME_MAP);
+        if ((backgroundForDateTimeMap != null && !backgroundForDateTimeMap.isEmpty())
+                || (textColorForDateTimeMap != null && !textColorForDateTimeMap.isEmpty())) {
+            setCustomResources(getCellDateTime(position), backgroundView, textView);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     protected void setCustomResources(DateTime dateTime, View backgroundView,
                                       TextView textView) {
@@ -240,40 +298,37 @@ public class MonthGridAdapter extends BaseAdapter {
         int bottomPadding = cellView.getPaddingBottom();
         int rightPadding = cellView.getPaddingRight();
 
-        // Get dateTime of this cell
-        DateTime dateTime = getCellDateTime(position);
+        // Get epoch month of this cell
+        int epochMonth = getCellEpochMonth(position);
 
-        cellView.resetCustomStates();
         resetCustomResources(cellView);
 
-        if (dateTime.equals(getToday())) {
-            cellView.addCustomState(CellView.STATE_TODAY);
+        int states = 0;
+        if (epochMonth == todayEpochMonth) {
+            states |= CellView.STATE_FLAG_TODAY;
         }
 
         // Customize for disabled dates and date outside min/max dates
-        if ((minDateTime != null && ((dateTime.getYear() < minDateTime.getYear())
-                    || ((dateTime.getYear().equals(minDateTime.getYear())) && (dateTime.getMonth() < minDateTime.getMonth()))))
-                || (maxDateTime != null && ((dateTime.getYear() > maxDateTime.getYear())
-                    || ((dateTime.getYear().equals(maxDateTime.getYear())) && (dateTime.getMonth() > maxDateTime.getMonth()))))) {
-
-            cellView.addCustomState(CellView.STATE_DISABLED);
+        if (epochMonth < minEpochMonth || epochMonth > maxEpochMonth) {
+            states |= CellView.STATE_FLAG_DISABLED;
         }
 
         // Customize for selected dates
-        if (selectedDates != null && selectedDatesMap.containsKey(dateTime)) {
-            cellView.addCustomState(CellView.STATE_SELECTED);
+        if (selectedDateSet.anyInMonth(epochMonth)) {
+            states |= CellView.STATE_FLAG_SELECTED;
         }
 
-        cellView.refreshDrawableState();
+        cellView.setCustomStates(states);
 
+        @SuppressWarnings("unchecked")
         Map<Integer, String> texts = (Map<Integer, String>) caldroidData.get(MonthCaldroidFragment.CELL_TEXTS);
         if (texts != null) {
-            String text = texts.get(dateTime.getMonth());
+            String text = texts.get(position + 1);
             cellView.setText(text);
         }
 
         // Set custom color if required
-        setCustomResources(dateTime, cellView, cellView);
+        setCustomResources(position, cellView, cellView);
 
         // Somehow after setBackgroundResource, the padding collapse.
         // This is to recover the padding
@@ -285,6 +340,10 @@ public class MonthGridAdapter extends BaseAdapter {
         return new DateTime(year, _position + 1, 1, 0, 0, 0, 0);
     }
 
+    public int getCellEpochMonth(int _position) {
+        return EpochDay.toEpochMonth(year, _position + 1);
+    }
+
     @Override
     public int getCount() {
         return 12;
@@ -313,7 +372,10 @@ public class MonthGridAdapter extends BaseAdapter {
             cellView = (CellView) convertView;
         }
 
-        customizeTextView(position, cellView);
+        try (CaldroidMetrics.Section section = CaldroidMetrics.Section.begin(null, metrics,
+                    CaldroidMetrics.Section.CELL_BOUND)) {
+            customizeTextView(position, cellView);
+        }
 
         return cellView;
     }
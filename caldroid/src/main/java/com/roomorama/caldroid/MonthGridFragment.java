@@ -5,7 +5,6 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.view.ViewTreeObserver;
 import android.widget.AdapterView;
 import android.widget.GridView;
 
@@ -103,14 +102,11 @@ public class MonthGridFragment extends Fragment {
 
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
-        ViewTreeObserver vto = view.getViewTreeObserver();
-        vto.addOnGlobalLayoutListener(() -> {
-            Fragment parentFragment = getParentFragment();
-            if (parentFragment instanceof MonthCaldroidFragment) {
-                MonthCaldroidFragment monthCaldroidFragment = (MonthCaldroidFragment)parentFragment;
-                monthCaldroidFragment.resizeViewPager(view);
-            }
-        });
+        // The pager is resized once to the current page, which may be this one
+        Fragment parentFragment = getParentFragment();
+        if (parentFragment instanceof MonthCaldroidFragment) {
+            ((MonthCaldroidFragment) parentFragment).requestPagerResize();
+        }
 
         super.onViewCreated(view, savedInstanceState);
     }
@@ -0,0 +1,127 @@
+package com.roomorama.caldroid;
+
+import java.util.ArrayList;
+
+import androidx.annotation.NonNull;
+import hirondelle.date4j.DateTime;
+
+/*
+ * Immutable layout of the dates grid of a calendar month. The grid always holds
+ * consecutive dates, so it is fully described by the epoch day of its first
+ * cell and the number of cells.
+ * <p/>
+ * Instances are shared through the cache of CalendarHelper.getMonthLayout, do
+ * not subclass or mutate them.
+ */
+public final class MonthLayout {
+    private final int month;
+    private final int year;
+    private final int startDayOfWeek;
+    private final boolean sixWeeksInCalendar;
+    private final int firstEpochDay;
+    private final int leadingDays;
+    private final int numDays;
+
+    MonthLayout(int month, int year, int startDayOfWeek, boolean sixWeeksInCalendar) {
+        this.month = month;
+        this.year = year;
+        this.startDayOfWeek = startDayOfWeek;
+        this.sixWeeksInCalendar = sixWeeksInCalendar;
+        this.leadingDays = CalendarHelper.getLeadingDays(month, year, startDayOfWeek);
+        this.numDays = CalendarHelper.getNumDaysInFullWeeks(month, year, startDayOfWeek,
+                sixWeeksInCalendar);
+        this.firstEpochDay = EpochDay.of(year, month, 1) - leadingDays;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getStartDayOfWeek() {
+        return startDayOfWeek;
+    }
+
+    public boolean isSixWeeksInCalendar() {
+        return sixWeeksInCalendar;
+    }
+
+    /*
+     * Number of dates in the grid, a multiple of 7
+     */
+    public int getNumDays() {
+        return numDays;
+    }
+
+    public int getRowCount() {
+        return numDays / 7;
+    }
+
+    /*
+     * Number of dates of previous month shown in the first week
+     */
+    public int getLeadingDays() {
+        return leadingDays;
+    }
+
+    /*
+     * Number of dates of next month shown after the last date of the month
+     */
+    public int getTrailingDays() {
+        return numDays - leadingDays - EpochDay.daysInMonth(year, month);
+    }
+
+    public int getFirstEpochDay() {
+        return firstEpochDay;
+    }
+
+    public int getLastEpochDay() {
+        return firstEpochDay + numDays - 1;
+    }
+
+    public int getEpochDay(int position) {
+        return firstEpochDay + position;
+    }
+
+    /*
+     * Position of the epoch day in the grid, -1 if it is not shown
+     */
+    public int getPosition(int epochDay) {
+        int position = epochDay - firstEpochDay;
+        return position >= 0 && position < numDays ? position : -1;
+    }
+
+    /*
+     * Copy epoch days of all the dates into the buffer
+     *
+     * @param outEpochDays : buffer with room for getNumDays() dates
+     * @return number of dates written
+     */
+    public int copyEpochDays(int[] outEpochDays) {
+        for (int i = 0; i < numDays; i++) {
+            outEpochDays[i] = firstEpochDay + i;
+        }
+        return numDays;
+    }
+
+    public ArrayList<DateTime> toDateTimeList() {
+        ArrayList<DateTime> datetimeList = new ArrayList<>(numDays);
+        for (int i = 0; i < numDays; i++) {
+            datetimeList.add(EpochDay.toDateTime(firstEpochDay + i));
+        }
+        return datetimeList;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "MonthLayout{" + year + "-" + month
+                + ", startDayOfWeek=" + startDayOfWeek
+                + ", sixWeeks=" + sixWeeksInCalendar
+                + ", firstEpochDay=" + firstEpochDay
+                + ", numDays=" + numDays + "}";
+    }
+}
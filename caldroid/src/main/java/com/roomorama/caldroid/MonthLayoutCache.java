@@ -0,0 +1,107 @@
+package com.roomorama.caldroid;
+
+/*
+ * Bounded least recently used cache of month layouts. Entries are kept in plain
+ * arrays and found by a linear scan of packed long keys, which for the few
+ * dozens of months a calendar shows is cheaper than a map and does not box or
+ * allocate on a hit.
+ * <p/>
+ * All methods are synchronized, the cache can be used from any thread.
+ */
+final class MonthLayoutCache {
+    public static final int DEFAULT_MAX_SIZE = 24;
+
+    private long[] keys;
+    private MonthLayout[] layouts;
+    // Access stamps used to find the least recently used entry
+    private long[] lastAccess;
+    private int size;
+    private long accessCounter;
+
+    private long hitCount;
+    private long missCount;
+
+    MonthLayoutCache(int maxSize) {
+        allocate(maxSize);
+    }
+
+    private void allocate(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive, was " + maxSize);
+        }
+        keys = new long[maxSize];
+        layouts = new MonthLayout[maxSize];
+        lastAccess = new long[maxSize];
+        size = 0;
+    }
+
+    private static long keyOf(int month, int year, int startDayOfWeek, boolean sixWeeksInCalendar) {
+        return ((long) EpochDay.toEpochMonth(year, month) << 8)
+                | ((startDayOfWeek & 0x7F) << 1)
+                | (sixWeeksInCalendar ? 1 : 0);
+    }
+
+    synchronized MonthLayout get(int month, int year, int startDayOfWeek,
+                                 boolean sixWeeksInCalendar) {
+        long key = keyOf(month, year, startDayOfWeek, sixWeeksInCalendar);
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                hitCount++;
+                lastAccess[i] = ++accessCounter;
+                return layouts[i];
+            }
+        }
+
+        missCount++;
+        MonthLayout layout = new MonthLayout(month, year, startDayOfWeek, sixWeeksInCalendar);
+
+        int slot;
+        if (size < keys.length) {
+            slot = size++;
+        } else {
+            // Evict the least recently used entry
+            slot = 0;
+            for (int i = 1; i < size; i++) {
+                if (lastAccess[i] < lastAccess[slot]) {
+                    slot = i;
+                }
+            }
+        }
+        keys[slot] = key;
+        layouts[slot] = layout;
+        lastAccess[slot] = ++accessCounter;
+        return layout;
+    }
+
+    synchronized int getMaxSize() {
+        return keys.length;
+    }
+
+    /*
+     * Change the maximum number of cached layouts. Cached layouts are dropped
+     */
+    synchronized void setMaxSize(int maxSize) {
+        allocate(maxSize);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    synchronized long getMissCount() {
+        return missCount;
+    }
+
+    synchronized void clear() {
+        for (int i = 0; i < size; i++) {
+            layouts[i] = null;
+        }
+        size = 0;
+        hitCount = 0;
+        missCount = 0;
+    }
+}
@@ -0,0 +1,156 @@
+package com.roomorama.caldroid;
+
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+import androidx.recyclerview.widget.RecyclerView;
+
+/*
+ * Rows of the vertical month list of DateCaldroidFragment, one month each.
+ * Like MonthPageViewAdapter a row is a plain MonthView recycled through the
+ * RecycledViewPool of the list, rebinding a row only moves its DateGridAdapter
+ * to another month. The title of a row is drawn above it by
+ * MonthListHeaderDecoration.
+ * <p/>
+ * Rows are always MonthViews, a gridview inside a scrolling list is measured
+ * one row high.
+ */
+public class MonthListAdapter extends RecyclerView.Adapter<MonthListAdapter.MonthRowHolder> {
+    // Not the types of the pager adapters, the pool of pages may be shared
+    public static final int VIEW_TYPE_MONTH_VIEW = 5;
+
+    // boundId of a holder bound to no item, not an epoch month or day
+    private static final int UNBOUND = Integer.MIN_VALUE;
+
+    public static class MonthRowHolder extends RecyclerView.ViewHolder {
+        private DateGridAdapter gridAdapter;
+        // Item id of the bound row, positions move with the page range
+        private int boundId = UNBOUND;
+        private String title;
+
+        MonthRowHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+
+        public DateGridAdapter getGridAdapter() {
+            return gridAdapter;
+        }
+
+        /*
+         * Title of the bound month
+         */
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    public MonthListAdapter(@NonNull DateCaldroidFragment _parent) {
+        parent = _parent;
+        mPageRange = new MonthPageRange(parent.getMinDateTime(), parent.getMaxDateTime());
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return mPageRange.positionToEpochMonth(position);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return VIEW_TYPE_MONTH_VIEW;
+    }
+
+    @NonNull
+    @Override
+    public MonthRowHolder onCreateViewHolder(@NonNull ViewGroup viewGroup, int viewType) {
+        View row = parent.createDatePageView(viewGroup, true);
+
+        // As high as the rows of the month
+        row.setLayoutParams(new RecyclerView.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        return new MonthRowHolder(row);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull MonthRowHolder holder, int position) {
+        int month = mPageRange.positionToMonth(position);
+        int year = mPageRange.positionToYear(position);
+        try (CaldroidMetrics.Section section = CaldroidMetrics.Section.begin("Caldroid:bindPage",
+                parent.getMetrics(), CaldroidMetrics.Section.PAGE_CREATED, month, year)) {
+            if (holder.gridAdapter == null) {
+                holder.gridAdapter = parent.newPageAdapter(month, year);
+                parent.setDatePageAdapter(holder.itemView, holder.gridAdapter);
+            } else {
+                parent.updateDatesGridAdapter(holder.gridAdapter, month, year);
+            }
+            parent.requestDecorations(holder.gridAdapter, month, year);
+            holder.title = parent.getMonthTitle(month, year);
+            // The title is drawn by the decoration, not by a view
+            ViewCompat.setAccessibilityPaneTitle(holder.itemView, holder.title);
+        }
+
+        unregisterBoundRow(holder);
+        holder.boundId = (int) getItemId(position);
+        mBoundRows.put(holder.boundId, holder);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull MonthRowHolder holder) {
+        unregisterBoundRow(holder);
+    }
+
+    private void unregisterBoundRow(@NonNull MonthRowHolder holder) {
+        if (holder.boundId != UNBOUND && mBoundRows.get(holder.boundId) == holder) {
+            mBoundRows.remove(holder.boundId);
+        }
+        holder.boundId = UNBOUND;
+    }
+
+    @Override
+    public int getItemCount() {
+        return mPageRange.getItemCount();
+    }
+
+    public MonthPageRange getPageRange() {
+        return mPageRange;
+    }
+
+    /*
+     * Adapter of the row bound at position, null if the row is not bound
+     */
+    @Nullable
+    public DateGridAdapter getBoundRowAdapter(int _position) {
+        MonthRowHolder holder = mBoundRows.get((int) getItemId(_position));
+        return holder != null ? holder.gridAdapter : null;
+    }
+
+    /*
+     * Adapters of all the bound rows, including the ones prefetched while
+     * scrolling
+     */
+    @NonNull
+    public List<DateGridAdapter> getBoundRowAdapters() {
+        List<DateGridAdapter> adapters = new ArrayList<>(mBoundRows.size());
+        for (int i = 0; i < mBoundRows.size(); i++) {
+            adapters.add(mBoundRows.valueAt(i).gridAdapter);
+        }
+        return adapters;
+    }
+
+    @Nullable
+    public View getBoundRowView(int _position) {
+        MonthRowHolder holder = mBoundRows.get((int) getItemId(_position));
+        return holder != null ? holder.itemView : null;
+    }
+
+    private final DateCaldroidFragment parent;
+    private final MonthPageRange mPageRange;
+    private final SparseArray<MonthRowHolder> mBoundRows = new SparseArray<>();
+}
@@ -0,0 +1,129 @@
+package com.roomorama.caldroid;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.util.TypedValue;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import com.caldroid.R;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/*
+ * Draws the month titles of the vertical month list. Each row gets the space
+ * of a title above it, and the title of the month at the top stays pinned to
+ * the top of the list until the title of the next month pushes it out.
+ * <p/>
+ * The titles are drawn on the canvas of the list, no view per title, so the
+ * rows stay plain MonthViews. The text follows the month name style of the
+ * theme and the background the view layout style.
+ */
+final class MonthListHeaderDecoration extends RecyclerView.ItemDecoration {
+    private final int headerHeight;
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Drawable background;
+
+    MonthListHeaderDecoration(@NonNull Context context, int themeResource) {
+        Context wrapped = new ContextThemeWrapper(context, themeResource);
+        headerHeight = context.getResources()
+                .getDimensionPixelSize(R.dimen.caldroid_month_list_header_height);
+
+        TypedValue styleNameVal = new TypedValue();
+        wrapped.getTheme().resolveAttribute(R.attr.styleCaldroidMonthName, styleNameVal, true);
+        TypedArray nameArray = wrapped.obtainStyledAttributes(styleNameVal.data, R.styleable.MonthListHeader);
+        try {
+            textPaint.setColor(nameArray.getColor(R.styleable.MonthListHeader_android_textColor, 0xFF000000));
+            textPaint.setTextSize(nameArray.getDimension(R.styleable.MonthListHeader_android_textSize,
+                    TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 21,
+                            context.getResources().getDisplayMetrics())));
+        }
+        finally {
+            nameArray.recycle();
+        }
+        textPaint.setTextAlign(Paint.Align.CENTER);
+
+        // The pinned title hides the row scrolled below it
+        TypedValue styleLayoutVal = new TypedValue();
+        wrapped.getTheme().resolveAttribute(R.attr.styleCaldroidViewLayout, styleLayoutVal, true);
+        TypedArray layoutArray = wrapped.obtainStyledAttributes(styleLayoutVal.data, R.styleable.MonthListHeader);
+        try {
+            background = layoutArray.getDrawable(R.styleable.MonthListHeader_android_background);
+        }
+        finally {
+            layoutArray.recycle();
+        }
+    }
+
+    @Override
+    public void getItemOffsets(@NonNull Rect outRect, @NonNull View view,
+                               @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        outRect.set(0, headerHeight, 0, 0);
+    }
+
+    @Override
+    public void onDraw(@NonNull Canvas canvas, @NonNull RecyclerView parent,
+                       @NonNull RecyclerView.State state) {
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            View child = parent.getChildAt(i);
+            drawHeader(canvas, parent, getTitle(parent, child), child.getTop() - headerHeight);
+        }
+    }
+
+    @Override
+    public void onDrawOver(@NonNull Canvas canvas, @NonNull RecyclerView parent,
+                           @NonNull RecyclerView.State state) {
+        int top = parent.getPaddingTop();
+        View first = null;
+        View next = null;
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            View child = parent.getChildAt(i);
+            if (child.getBottom() <= top) {
+                continue;
+            }
+            if (first == null || child.getTop() < first.getTop()) {
+                next = first;
+                first = child;
+            } else if (next == null || child.getTop() < next.getTop()) {
+                next = child;
+            }
+        }
+        if (first == null) {
+            return;
+        }
+
+        // Pushed up by the title of the next month
+        int headerTop = top;
+        if (next != null) {
+            headerTop = Math.min(top, next.getTop() - 2 * headerHeight);
+        }
+        drawHeader(canvas, parent, getTitle(parent, first), headerTop);
+    }
+
+    private void drawHeader(@NonNull Canvas canvas, @NonNull RecyclerView parent,
+                            String title, int top) {
+        if (title == null) {
+            return;
+        }
+        int left = parent.getPaddingLeft();
+        int right = parent.getWidth() - parent.getPaddingRight();
+        if (background != null) {
+            background.setBounds(left, top, right, top + headerHeight);
+            background.draw(canvas);
+        }
+
+        float baseline = top + (headerHeight - textPaint.ascent() - textPaint.descent()) / 2f;
+        canvas.drawText(title, (left + right) / 2f, baseline, textPaint);
+    }
+
+    private static String getTitle(@NonNull RecyclerView parent, @NonNull View child) {
+        RecyclerView.ViewHolder holder = parent.getChildViewHolder(child);
+        return holder instanceof MonthListAdapter.MonthRowHolder
+                ? ((MonthListAdapter.MonthRowHolder) holder).getTitle() : null;
+    }
+}
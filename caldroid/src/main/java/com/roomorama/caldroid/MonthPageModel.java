@@ -0,0 +1,189 @@
+package com.roomorama.caldroid;
+
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/*
+ * Immutable model of the cells of one month page, kept as parallel primitive
+ * arrays indexed by cell position. DateGridAdapter builds it once when the page
+ * is bound or its data changes, so that getView and MonthView.onDraw only copy
+ * precomputed values instead of evaluating dates, sets and maps for every cell
+ * on every layout pass.
+ */
+public final class MonthPageModel {
+    private static final byte NO_BACKGROUND = -1;
+
+    private final int month;
+    private final int year;
+    private final int cellCount;
+    private final byte[] days;
+    private final int[] states;
+    private final int[] textColors;
+    // Cells with a custom text color in textColors, one bit per position
+    private final long customTextColorBits;
+    // Index into backgrounds, NO_BACKGROUND for the default cell background
+    private final byte[] backgroundIndexes;
+    private final Drawable[] backgrounds;
+
+    // Versions of the live sets the states were computed from
+    private final int selectedVersion;
+    private final int disabledVersion;
+    private final int ruleVersion;
+    private final int todayEpochDay;
+    private final DecorationPalette palette;
+    private final int paletteVersion;
+
+    private MonthPageModel(int month, int year, int cellCount, byte[] days, int[] states,
+                           int[] textColors, long customTextColorBits,
+                           byte[] backgroundIndexes, Drawable[] backgrounds,
+                           int selectedVersion, int disabledVersion, int ruleVersion,
+                           int todayEpochDay, DecorationPalette palette) {
+        this.month = month;
+        this.year = year;
+        this.cellCount = cellCount;
+        this.days = days;
+        this.states = states;
+        this.textColors = textColors;
+        this.customTextColorBits = customTextColorBits;
+        this.backgroundIndexes = backgroundIndexes;
+        this.backgrounds = backgrounds;
+        this.selectedVersion = selectedVersion;
+        this.disabledVersion = disabledVersion;
+        this.ruleVersion = ruleVersion;
+        this.todayEpochDay = todayEpochDay;
+        this.palette = palette;
+        this.paletteVersion = palette != null ? palette.getVersion() : 0;
+    }
+
+    /*
+     * Build the model of the current page of the adapter. States, backgrounds
+     * and text colors come from getCellStates, getCustomBackground and
+     * getCustomTextColorRes, so overrides of these apply. The style of the
+     * DecorationPalette fills in what they leave to the default
+     */
+    @NonNull
+    public static MonthPageModel build(@NonNull DateGridAdapter adapter) {
+        Resources resources = adapter.context.getResources();
+        DecorationPalette palette = adapter.getDecorationPalette();
+        int cellCount = adapter.getCount();
+        byte[] days = new byte[cellCount];
+        int[] states = new int[cellCount];
+        int[] textColors = new int[cellCount];
+        long customTextColorBits = 0;
+        byte[] backgroundIndexes = new byte[cellCount];
+        Drawable[] backgrounds = new Drawable[cellCount];
+        int backgroundCount = 0;
+
+        for (int position = 0; position < cellCount; position++) {
+            days[position] = (byte) EpochDay.dayOf(adapter.getCellEpochDay(position));
+            states[position] = adapter.getCellStates(position);
+
+            int style = adapter.getCellStyle(position);
+
+            Integer textColorRes = adapter.getCustomTextColorRes(position);
+            if (textColorRes != null) {
+                textColors[position] = resources.getColor(textColorRes, null);
+                customTextColorBits |= 1L << position;
+            } else if (style != DecorationPalette.NO_STYLE && palette.hasTextColor(style)) {
+                textColors[position] = palette.getTextColor(style);
+                customTextColorBits |= 1L << position;
+            }
+
+            // Cells usually share a few drawables, store each one once. A
+            // palette style gives each cell its own drawable sharing the
+            // constant state of the style
+            Drawable background = adapter.getCustomBackground(position);
+            if (background == null && style != DecorationPalette.NO_STYLE) {
+                background = palette.newBackground(style);
+            }
+            byte index = NO_BACKGROUND;
+            if (background != null) {
+                for (int i = 0; i < backgroundCount; i++) {
+                    if (backgrounds[i] == background) {
+                        index = (byte) i;
+                        break;
+                    }
+                }
+                if (index == NO_BACKGROUND) {
+                    backgrounds[backgroundCount] = background;
+                    index = (byte) backgroundCount++;
+                }
+            }
+            backgroundIndexes[position] = index;
+        }
+
+        return new MonthPageModel(adapter.getMonth(), adapter.getYear(), cellCount,
+                days, states, textColors, customTextColorBits, backgroundIndexes,
+                backgroundCount == cellCount ? backgrounds
+                        : Arrays.copyOf(backgrounds, backgroundCount),
+                adapter.getSelectedDateSet().getVersion(),
+                adapter.getDisableDateRanges().getVersion(),
+                adapter.getDisableDateRules().getVersion(),
+                adapter.todayEpochDay, palette);
+    }
+
+    /*
+     * Whether the live sets of the adapter are unchanged since the model was
+     * built. Other inputs invalidate the model through the adapter setters and
+     * notifyDataSetChanged()
+     */
+    boolean isCurrent(@NonNull DateGridAdapter adapter) {
+        return selectedVersion == adapter.getSelectedDateSet().getVersion()
+                && disabledVersion == adapter.getDisableDateRanges().getVersion()
+                && ruleVersion == adapter.getDisableDateRules().getVersion()
+                && todayEpochDay == adapter.todayEpochDay
+                && palette == adapter.getDecorationPalette()
+                && (palette == null || paletteVersion == palette.getVersion());
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /*
+     * Day of month of the cell
+     */
+    public int getDay(int position) {
+        return days[position];
+    }
+
+    /*
+     * States of the cell as CellView.STATE_FLAG_* bits
+     */
+    public int getStates(int position) {
+        return states[position];
+    }
+
+    public boolean hasCustomTextColor(int position) {
+        return (customTextColorBits & (1L << position)) != 0;
+    }
+
+    /*
+     * Resolved custom text color, only valid if hasCustomTextColor(position)
+     */
+    public int getTextColor(int position) {
+        return textColors[position];
+    }
+
+    /*
+     * Custom background of the cell, null for the default one
+     */
+    @Nullable
+    public Drawable getBackground(int position) {
+        byte index = backgroundIndexes[position];
+        return index == NO_BACKGROUND ? null : backgrounds[index];
+    }
+}
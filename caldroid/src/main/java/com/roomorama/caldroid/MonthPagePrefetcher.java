@@ -0,0 +1,290 @@
+package com.roomorama.caldroid;
+
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import hirondelle.date4j.DateTime;
+
+/*
+ * Prepares the months next to the page shown by DateCaldroidFragment, before
+ * the pager asks for them. On the decoration executor it calls the
+ * DateDecorationProvider, so a page swiped into view is bound with its
+ * decorations at once instead of rendering twice.
+ * <p/>
+ * The months ahead in the swipe direction are prepared first, then the ones
+ * behind. Months still queued are dropped when the swipe direction changes,
+ * and when a shown page has to load its decorations itself, so that it does
+ * not wait behind them on the executor. Months already being loaded are kept,
+ * and not queued again. Results are kept in a small least recently used cache,
+ * and dropped when the provider changes or the decorations are invalidated.
+ * Results loaded before that are not cached.
+ * <p/>
+ * All methods must be called on the main thread.
+ */
+final class MonthPagePrefetcher {
+    public static final int DEFAULT_DISTANCE = 2;
+
+    // Cached result of a provider which has no decorations for the month
+    private static final Map<DateTime, Drawable> NO_DECORATIONS = Collections.emptyMap();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final DateCaldroidFragment parent;
+    private int distance = DEFAULT_DISTANCE;
+
+    // Prepared month of the cache
+    private static final class Entry {
+        int epochMonth;
+        Map<DateTime, Drawable> decorations;
+        long lastAccess;
+    }
+
+    // Month sent to the executor. The state tells whether it is still queued,
+    // so that it can be dropped, or already being loaded
+    private static final class Request {
+        static final int QUEUED = 0;
+        static final int LOADING = 1;
+        static final int CANCELLED = 2;
+
+        final int epochMonth;
+        final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        Request(int epochMonth) {
+            this.epochMonth = epochMonth;
+        }
+    }
+
+    private Entry[] entries;
+    private int size;
+    private long accessCounter;
+
+    // Months queued or being loaded whose result is cached
+    private Request[] requests;
+    private int requestCount;
+
+    // Incremented to drop the prepared months and the ones being loaded
+    private int cacheGeneration;
+    private int lastEpochMonth = Integer.MIN_VALUE;
+    private int direction = 1;
+
+    MonthPagePrefetcher(@NonNull DateCaldroidFragment parent) {
+        this.parent = parent;
+        allocate();
+    }
+
+    private void allocate() {
+        // The months on both sides, plus the shown one and one more behind
+        int maxSize = 2 * distance + 2;
+        entries = new Entry[maxSize];
+        for (int i = 0; i < maxSize; i++) {
+            entries[i] = new Entry();
+        }
+        size = 0;
+        cancelRequests(true);
+        requests = new Request[2 * distance];
+    }
+
+    int getDistance() {
+        return distance;
+    }
+
+    /*
+     * Number of months prepared on each side of the shown page, 0 to disable.
+     * Prepared months are dropped
+     */
+    @MainThread
+    void setDistance(int distance) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("Prefetch distance must not be negative, was " + distance);
+        }
+        this.distance = distance;
+        cacheGeneration++;
+        allocate();
+    }
+
+    /*
+     * Drop the prepared months and the queued ones, for e.g. when the
+     * provider changed
+     */
+    @MainThread
+    void clear() {
+        cacheGeneration++;
+        for (int i = 0; i < size; i++) {
+            entries[i].decorations = null;
+        }
+        size = 0;
+        cancelRequests(true);
+    }
+
+    /*
+     * Prepare the neighbours of the shown page again, after clear() when the
+     * data of the provider has changed
+     */
+    @MainThread
+    void prefetchAgain(@NonNull MonthPageRange pageRange) {
+        if (lastEpochMonth != Integer.MIN_VALUE) {
+            onPageSelected(lastEpochMonth, pageRange);
+        }
+    }
+
+    /*
+     * Drop the queued months, a shown page is loading its decorations. Months
+     * already being loaded are still cached
+     */
+    @MainThread
+    void cancelPending() {
+        cancelRequests(false);
+    }
+
+    /*
+     * Drop the queued months. The months being loaded are kept unless all is
+     * true, when their results are not cached anyway
+     */
+    private void cancelRequests(boolean all) {
+        int kept = 0;
+        for (int i = 0; i < requestCount; i++) {
+            Request request = requests[i];
+            if (!request.state.compareAndSet(Request.QUEUED, Request.CANCELLED) && !all) {
+                requests[kept++] = request;
+            }
+        }
+        for (int i = kept; i < requestCount; i++) {
+            requests[i] = null;
+        }
+        requestCount = kept;
+    }
+
+    /*
+     * The page of epochMonth is shown, prepare its neighbours
+     */
+    @MainThread
+    void onPageSelected(int epochMonth, @NonNull MonthPageRange pageRange) {
+        if (epochMonth != lastEpochMonth && lastEpochMonth != Integer.MIN_VALUE) {
+            int newDirection = epochMonth > lastEpochMonth ? 1 : -1;
+            if (newDirection != direction) {
+                // The months queued ahead are now behind
+                direction = newDirection;
+                cancelRequests(false);
+            }
+        }
+        lastEpochMonth = epochMonth;
+
+        if (distance == 0) {
+            return;
+        }
+        for (int i = 1; i <= distance; i++) {
+            prefetch(epochMonth + direction * i, pageRange);
+        }
+        for (int i = 1; i <= distance; i++) {
+            prefetch(epochMonth - direction * i, pageRange);
+        }
+    }
+
+    private void prefetch(int epochMonth, @NonNull MonthPageRange pageRange) {
+        if (!pageRange.containsEpochMonth(epochMonth)
+                || indexOf(epochMonth) >= 0 || isRequested(epochMonth)) {
+            return;
+        }
+
+        final DateDecorationProvider provider = parent.getDecorationProvider();
+        if (provider == null) {
+            // Nothing to prepare
+            return;
+        }
+        final int month = epochMonth % 12 + 1;
+        final int year = epochMonth / 12;
+        final int requestCacheGeneration = cacheGeneration;
+        if (requestCount == requests.length) {
+            // The provider is behind, do not queue more
+            return;
+        }
+        final Request request = new Request(epochMonth);
+        requests[requestCount++] = request;
+
+        parent.getDecorationExecutor().execute(() -> {
+            if (!request.state.compareAndSet(Request.QUEUED, Request.LOADING)) {
+                return;
+            }
+            Map<DateTime, Drawable> backgrounds = provider.getBackgroundDateTimeMap(month, year);
+            mainHandler.post(() -> {
+                removeRequest(request);
+                // Still valid after a change of direction
+                if (requestCacheGeneration == cacheGeneration) {
+                    put(epochMonth, backgrounds != null ? backgrounds : NO_DECORATIONS);
+                }
+            });
+        });
+    }
+
+    /*
+     * Prepared decorations of the month, empty if the provider had none, null
+     * if the month is not prepared
+     */
+    @MainThread
+    @Nullable
+    Map<DateTime, Drawable> getDecorations(int epochMonth) {
+        int index = indexOf(epochMonth);
+        if (index < 0) {
+            return null;
+        }
+        Entry entry = entries[index];
+        entry.lastAccess = ++accessCounter;
+        return entry.decorations;
+    }
+
+    private int indexOf(int epochMonth) {
+        for (int i = 0; i < size; i++) {
+            if (entries[i].epochMonth == epochMonth) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void put(int epochMonth, @NonNull Map<DateTime, Drawable> backgrounds) {
+        int slot = indexOf(epochMonth);
+        if (slot < 0) {
+            if (size < entries.length) {
+                slot = size++;
+            } else {
+                // Evict the least recently used month
+                slot = 0;
+                for (int i = 1; i < size; i++) {
+                    if (entries[i].lastAccess < entries[slot].lastAccess) {
+                        slot = i;
+                    }
+                }
+            }
+        }
+        Entry entry = entries[slot];
+        entry.epochMonth = epochMonth;
+        entry.decorations = backgrounds;
+        entry.lastAccess = ++accessCounter;
+    }
+
+    private boolean isRequested(int epochMonth) {
+        for (int i = 0; i < requestCount; i++) {
+            if (requests[i].epochMonth == epochMonth) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removeRequest(@NonNull Request request) {
+        for (int i = 0; i < requestCount; i++) {
+            if (requests[i] == request) {
+                requests[i] = requests[--requestCount];
+                requests[requestCount] = null;
+                return;
+            }
+        }
+    }
+}
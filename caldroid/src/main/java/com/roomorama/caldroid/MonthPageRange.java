@@ -0,0 +1,103 @@
+package com.roomorama.caldroid;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import hirondelle.date4j.DateTime;
+
+/*
+ * Maps pager positions to months and back, shared by the fragment and the view
+ * based month pagers. Position 0 is the first month, months are counted as
+ * epoch months (see EpochDay.toEpochMonth), so every lookup is plain integer
+ * arithmetic.
+ * <p/>
+ * With both min and max date the pager covers exactly the months between them.
+ * A missing min date extends the pager back to January of year 1, a missing
+ * max date forward to December of year 9999, the whole range of DateTime. That
+ * is at most about 120000 pages, which the pagers handle as they only create
+ * the visible ones, so there is no end to reach and nothing to recentre.
+ * <p/>
+ * The months of a page do not depend on the bounds, setBounds moves the
+ * positions instead, and the pagers use the epoch month as stable item id.
+ */
+public final class MonthPageRange {
+    public static final int MIN_EPOCH_MONTH = EpochDay.toEpochMonth(1, 1);
+    public static final int MAX_EPOCH_MONTH = EpochDay.toEpochMonth(9999, 12);
+
+    private int firstEpochMonth;
+    private int itemCount;
+
+    public MonthPageRange(@Nullable DateTime minDateTime, @Nullable DateTime maxDateTime) {
+        setBounds(minDateTime, maxDateTime);
+    }
+
+    /*
+     * Set the months covered by the pager
+     *
+     * @return true if the positions changed
+     */
+    public boolean setBounds(@Nullable DateTime minDateTime, @Nullable DateTime maxDateTime) {
+        int first = minDateTime != null ? clamp(toEpochMonth(minDateTime)) : MIN_EPOCH_MONTH;
+        int last = maxDateTime != null ? clamp(toEpochMonth(maxDateTime)) : MAX_EPOCH_MONTH;
+        if (last < first) {
+            last = first;
+        }
+
+        int count = last - first + 1;
+        if (first == firstEpochMonth && count == itemCount) {
+            return false;
+        }
+        firstEpochMonth = first;
+        itemCount = count;
+        return true;
+    }
+
+    private static int clamp(int epochMonth) {
+        return Math.max(MIN_EPOCH_MONTH, Math.min(MAX_EPOCH_MONTH, epochMonth));
+    }
+
+    private static int toEpochMonth(@NonNull DateTime dateTime) {
+        return EpochDay.toEpochMonth(dateTime.getYear(), dateTime.getMonth());
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public int positionToEpochMonth(int _position) {
+        return firstEpochMonth + _position;
+    }
+
+    public int positionToYear(int _position) {
+        return positionToEpochMonth(_position) / 12;
+    }
+
+    /*
+     * Month of the page at position, from 1 to 12
+     */
+    public int positionToMonth(int _position) {
+        return positionToEpochMonth(_position) % 12 + 1;
+    }
+
+    /*
+     * First day of the month shown at position
+     */
+    public DateTime positionToDateTime(int _position) {
+        return new DateTime(positionToYear(_position), positionToMonth(_position), 1, 0, 0, 0, 0);
+    }
+
+    public int epochMonthToPosition(int _epochMonth) {
+        return _epochMonth - firstEpochMonth;
+    }
+
+    /*
+     * Position of the month of dateTime, clamped to the pager
+     */
+    public int dateTimeToPosition(@NonNull DateTime _dateTime) {
+        int position = epochMonthToPosition(toEpochMonth(_dateTime));
+        return Math.max(0, Math.min(itemCount - 1, position));
+    }
+
+    public boolean containsEpochMonth(int _epochMonth) {
+        return _epochMonth >= firstEpochMonth && _epochMonth < firstEpochMonth + itemCount;
+    }
+}
@@ -0,0 +1,147 @@
+package com.roomorama.caldroid;
+
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+/*
+ * Fragment free alternative to MonthPagerAdapter. Each page is a plain view,
+ * a MonthView or a gridview, created by DateCaldroidFragment.createDatePageView
+ * and recycled through the RecycledViewPool of the pager. Rebinding a page only
+ * moves its DateGridAdapter to another month.
+ * <p/>
+ * Bound pages are indexed by position, so the adapter of a visible page is
+ * found without any fragment lookup.
+ */
+public class MonthPageViewAdapter extends RecyclerView.Adapter<MonthPageViewAdapter.MonthPageHolder> {
+    public static final int VIEW_TYPE_MONTH_VIEW = 1;
+    public static final int VIEW_TYPE_GRID_VIEW = 2;
+
+    // boundId of a holder bound to no item, not an epoch month or day
+    private static final int UNBOUND = Integer.MIN_VALUE;
+
+    public static class MonthPageHolder extends RecyclerView.ViewHolder {
+        private DateGridAdapter gridAdapter;
+        // Item id of the bound page, positions move with the page range
+        private int boundId = UNBOUND;
+
+        MonthPageHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+
+        public DateGridAdapter getGridAdapter() {
+            return gridAdapter;
+        }
+    }
+
+    public MonthPageViewAdapter(@NonNull DateCaldroidFragment _parent) {
+        parent = _parent;
+        mPageRange = new MonthPageRange(parent.getMinDateTime(), parent.getMaxDateTime());
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return mPageRange.positionToEpochMonth(position);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return parent.isUseMonthView() ? VIEW_TYPE_MONTH_VIEW : VIEW_TYPE_GRID_VIEW;
+    }
+
+    @NonNull
+    @Override
+    public MonthPageHolder onCreateViewHolder(@NonNull ViewGroup viewGroup, int viewType) {
+        View page = parent.createDatePageView(viewGroup, viewType == VIEW_TYPE_MONTH_VIEW);
+
+        // ViewPager2 requires pages to fill the pager
+        page.setLayoutParams(new RecyclerView.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        return new MonthPageHolder(page);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull MonthPageHolder holder, int position) {
+        int month = mPageRange.positionToMonth(position);
+        int year = mPageRange.positionToYear(position);
+        try (CaldroidMetrics.Section section = CaldroidMetrics.Section.begin("Caldroid:bindPage",
+                parent.getMetrics(), CaldroidMetrics.Section.PAGE_CREATED, month, year)) {
+            if (holder.gridAdapter == null) {
+                holder.gridAdapter = parent.newPageAdapter(month, year);
+                parent.setDatePageAdapter(holder.itemView, holder.gridAdapter);
+            } else {
+                parent.updateDatesGridAdapter(holder.gridAdapter, month, year);
+            }
+            parent.requestDecorations(holder.gridAdapter, month, year);
+        }
+
+        unregisterBoundPage(holder);
+        holder.boundId = (int) getItemId(position);
+        mBoundPages.put(holder.boundId, holder);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull MonthPageHolder holder) {
+        unregisterBoundPage(holder);
+    }
+
+    @Override
+    public void onViewAttachedToWindow(@NonNull MonthPageHolder holder) {
+        parent.onDatePageAttached(holder.getBindingAdapterPosition(), holder.itemView, holder.gridAdapter);
+    }
+
+    private void unregisterBoundPage(@NonNull MonthPageHolder holder) {
+        if (holder.boundId != UNBOUND && mBoundPages.get(holder.boundId) == holder) {
+            mBoundPages.remove(holder.boundId);
+        }
+        holder.boundId = UNBOUND;
+    }
+
+    @Override
+    public int getItemCount() {
+        return mPageRange.getItemCount();
+    }
+
+    public MonthPageRange getPageRange() {
+        return mPageRange;
+    }
+
+    /*
+     * Adapter of the page bound at position, null if the page is not bound
+     */
+    @Nullable
+    public DateGridAdapter getBoundPageAdapter(int _position) {
+        MonthPageHolder holder = mBoundPages.get((int) getItemId(_position));
+        return holder != null ? holder.gridAdapter : null;
+    }
+
+    /*
+     * Adapters of all the bound pages
+     */
+    @NonNull
+    public List<DateGridAdapter> getBoundPageAdapters() {
+        List<DateGridAdapter> adapters = new ArrayList<>(mBoundPages.size());
+        for (int i = 0; i < mBoundPages.size(); i++) {
+            adapters.add(mBoundPages.valueAt(i).gridAdapter);
+        }
+        return adapters;
+    }
+
+    @Nullable
+    public View getBoundPageView(int _position) {
+        MonthPageHolder holder = mBoundPages.get((int) getItemId(_position));
+        return holder != null ? holder.itemView : null;
+    }
+
+    private final DateCaldroidFragment parent;
+    private final MonthPageRange mPageRange;
+    private final SparseArray<MonthPageHolder> mBoundPages = new SparseArray<>();
+}
@@ -11,16 +11,7 @@ public class MonthPagerAdapter extends FragmentStateAdapter {
     public MonthPagerAdapter(@NonNull FragmentManager fragmentManager, @NonNull Lifecycle lifecycle, @NonNull DateCaldroidFragment _parent) {
         super(fragmentManager, lifecycle);
         parent = _parent;
-
-        DateTime minDateTime = parent.getMinDateTime();
-        mMaxDateTime = parent.getMaxDateTime();
-        if ((minDateTime != null) && (mMaxDateTime != null)) {
-            int minEpochMonth = (minDateTime.getYear() * 12) + (minDateTime.getMonth() - 1);
-            int maxEpochMonth = (mMaxDateTime.getYear() * 12 ) + (mMaxDateTime.getMonth() - 1);
-            mItemCount = maxEpochMonth - minEpochMonth + 1;
-        } else {
-            mItemCount = MonthViewPagerHelper.OFFSET + 1;
-        }
+        mPageRange = new MonthPageRange(parent.getMinDateTime(), parent.getMaxDateTime());
     }
 
     @NonNull
@@ -31,22 +22,35 @@ public class MonthPagerAdapter extends FragmentStateAdapter {
 
     @Override
     public int getItemCount() {
-        return mItemCount;
+        return mPageRange.getItemCount();
+    }
+
+    /*
+     * Pages are identified by their month, so they survive a change of the
+     * bounds which moves their position
+     */
+    @Override
+    public long getItemId(int position) {
+        return mPageRange.positionToEpochMonth(position);
+    }
+
+    @Override
+    public boolean containsItem(long itemId) {
+        return mPageRange.containsEpochMonth((int) itemId);
+    }
+
+    public MonthPageRange getPageRange() {
+        return mPageRange;
     }
 
     public DateTime positionToDateTime(int _position) {
-        int monthShift = mItemCount - 1 - _position;
-        return mMaxDateTime.minus(0, monthShift, 0, 0, 0, 0, 0, DateTime.DayOverflow.LastDay);
+        return mPageRange.positionToDateTime(_position);
     }
 
     public int dateTimeToPosition(@NonNull DateTime _dateTime) {
-        int todayMonthEpoch = mMaxDateTime.getYear() * 12 + (mMaxDateTime.getMonth() - 1);
-        int askedMonthEpoch = _dateTime.getYear() * 12 + (_dateTime.getMonth() - 1);
-
-        return mItemCount - (todayMonthEpoch - askedMonthEpoch) - 1;
+        return mPageRange.dateTimeToPosition(_dateTime);
     }
 
     private final DateCaldroidFragment parent;
-    private final int mItemCount;
-    private final DateTime mMaxDateTime;
+    private final MonthPageRange mPageRange;
 }
@@ -0,0 +1,534 @@
+package com.roomorama.caldroid;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.database.DataSetObserver;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.os.Bundle;
+import android.text.format.DateUtils;
+import android.util.Log;
+import android.util.TypedValue;
+import android.view.ContextThemeWrapper;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.view.accessibility.AccessibilityEvent;
+
+import com.caldroid.R;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+import androidx.customview.widget.ExploreByTouchHelper;
+
+/*
+ * MonthView draws all the date cells of a month itself, instead of a GridView
+ * with a CellView child per date. Cells are laid out arithmetically and drawn
+ * with the drawable and text colors of the cell style of the theme
+ * (styleCaldroidNormalCell or styleCaldroidSquareCell), using the same
+ * state_date_* states as CellView. Clicks are hit tested arithmetically too.
+ * <p/>
+ * Data comes from a DateGridAdapter, MonthView redraws when the adapter
+ * notifies a change. Views returned by DateGridAdapter.getView are not used,
+ * so customizations done by overriding getView do not apply in this mode. A
+ * warning is logged once per adapter class which overrides it.
+ * <p/>
+ * Each cell is a virtual view for accessibility services, with the full date
+ * as description and the click and long click actions of a date.
+ */
+public class MonthView extends View {
+    public interface OnDateClickListener {
+        void onDateClick(@NonNull MonthView monthView, int position);
+
+        boolean onDateLongClick(@NonNull MonthView monthView, int position);
+    }
+
+    private static final String TAG = "Caldroid";
+
+    private static final int STATE_FLAG_PRESSED = 1 << 4;
+
+    // Adapter classes already warned about, see warnIfGetViewOverridden
+    private static final Set<Class<?>> warnedAdapterClasses =
+            Collections.newSetFromMap(new WeakHashMap<>());
+
+    // Shared CellView state sets, followed by the same sets with state_pressed
+    private static final int[][] STATE_SETS = new int[STATE_FLAG_PRESSED << 1][];
+
+    static {
+        for (int flags = 0; flags < STATE_FLAG_PRESSED; flags++) {
+            int[] states = CellView.getStateSet(flags);
+            STATE_SETS[flags] = states;
+
+            int[] pressedStates = Arrays.copyOf(states, states.length + 1);
+            pressedStates[states.length] = android.R.attr.state_pressed;
+            STATE_SETS[flags | STATE_FLAG_PRESSED] = pressedStates;
+        }
+    }
+
+    private final boolean squareCells;
+    private final Drawable cellBackground;
+    private final ColorStateList cellTextColor;
+    private final int cellPadding;
+    private final int gridPadding;
+    private final int horizontalSpacing;
+    private final int verticalSpacing;
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint.FontMetrics fontMetrics = new Paint.FontMetrics();
+    private final Rect cellBounds = new Rect();
+    private final CellTouchHelper touchHelper;
+
+    private DateGridAdapter adapter;
+    private OnDateClickListener onDateClickListener;
+    private boolean observerRegistered;
+
+    // Computed in onMeasure
+    private float cellWidth;
+    private int cellHeight;
+
+    private int pressedPosition = -1;
+    // Cell released by the touch, clicked by performClick
+    private int clickedPosition = -1;
+    private boolean longClickPerformed;
+    private final Runnable longPressRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (pressedPosition >= 0) {
+                longClickPerformed = performDateLongClick(pressedPosition);
+                if (longClickPerformed) {
+                    setPressedPosition(-1);
+                }
+            }
+        }
+    };
+
+    private final DataSetObserver dataSetObserver = new DataSetObserver() {
+        @Override
+        public void onChanged() {
+            requestLayout();
+            invalidate();
+            touchHelper.invalidateRoot();
+        }
+
+        @Override
+        public void onInvalidated() {
+            onChanged();
+        }
+    };
+
+    public MonthView(Context context, int themeResource, boolean squareCells) {
+        super(context);
+        this.squareCells = squareCells;
+
+        Context wrapped = new ContextThemeWrapper(context, themeResource);
+        Resources.Theme theme = wrapped.getTheme();
+        Resources resources = context.getResources();
+
+        // Cell style
+        TypedValue styleCellVal = new TypedValue();
+        theme.resolveAttribute(squareCells ? R.attr.styleCaldroidSquareCell
+                : R.attr.styleCaldroidNormalCell, styleCellVal, true);
+        TypedArray cellArray = wrapped.obtainStyledAttributes(styleCellVal.data, R.styleable.MonthViewCell);
+        try {
+            cellBackground = cellArray.getDrawable(R.styleable.MonthViewCell_android_background);
+            ColorStateList textColor = cellArray.getColorStateList(R.styleable.MonthViewCell_android_textColor);
+            cellTextColor = textColor != null ? textColor : ColorStateList.valueOf(0xFF000000);
+            cellPadding = cellArray.getDimensionPixelSize(R.styleable.MonthViewCell_android_padding, 0);
+            textPaint.setTextSize(cellArray.getDimension(R.styleable.MonthViewCell_android_textSize,
+                    TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 14, resources.getDisplayMetrics())));
+            int textStyle = cellArray.getInt(R.styleable.MonthViewCell_android_textStyle, Typeface.NORMAL);
+            textPaint.setTypeface(Typeface.create(Typeface.DEFAULT, textStyle));
+        }
+        finally {
+            cellArray.recycle();
+        }
+        textPaint.setTextAlign(Paint.Align.CENTER);
+
+        // Grid style, the background shows through the spacing as grid lines
+        TypedValue styleGridVal = new TypedValue();
+        theme.resolveAttribute(R.attr.styleCaldroidGridView, styleGridVal, true);
+        TypedArray gridArray = wrapped.obtainStyledAttributes(styleGridVal.data, R.styleable.MonthViewGrid);
+        try {
+            setBackground(gridArray.getDrawable(R.styleable.MonthViewGrid_android_background));
+            gridPadding = gridArray.getDimensionPixelSize(R.styleable.MonthViewGrid_android_padding, 0);
+            horizontalSpacing = gridArray.getDimensionPixelSize(R.styleable.MonthViewGrid_android_horizontalSpacing, 0);
+            verticalSpacing = gridArray.getDimensionPixelSize(R.styleable.MonthViewGrid_android_verticalSpacing, 0);
+        }
+        finally {
+            gridArray.recycle();
+        }
+
+        touchHelper = new CellTouchHelper();
+        ViewCompat.setAccessibilityDelegate(this, touchHelper);
+    }
+
+    public DateGridAdapter getAdapter() {
+        return adapter;
+    }
+
+    public void setAdapter(DateGridAdapter adapter) {
+        if (observerRegistered) {
+            this.adapter.unregisterDataSetObserver(dataSetObserver);
+            observerRegistered = false;
+        }
+        this.adapter = adapter;
+        if (adapter != null) {
+            warnIfGetViewOverridden(adapter.getClass());
+        }
+        if (adapter != null && isAttachedToWindow()) {
+            adapter.registerDataSetObserver(dataSetObserver);
+            observerRegistered = true;
+        }
+        requestLayout();
+        invalidate();
+        touchHelper.invalidateRoot();
+    }
+
+    private static void warnIfGetViewOverridden(@NonNull Class<?> adapterClass) {
+        if (adapterClass == DateGridAdapter.class || !warnedAdapterClasses.add(adapterClass)) {
+            return;
+        }
+        try {
+            if (adapterClass.getMethod("getView", int.class, View.class, ViewGroup.class)
+                    .getDeclaringClass() != DateGridAdapter.class) {
+                Log.w(TAG, adapterClass.getName() + " overrides getView, which MonthView does"
+                        + " not use. Turn off useMonthView and verticalMonthList to keep the custom cells");
+            }
+        } catch (NoSuchMethodException e) {
+            // getView is public in DateGridAdapter, not reached
+        }
+    }
+
+    public void setOnDateClickListener(@Nullable OnDateClickListener onDateClickListener) {
+        this.onDateClickListener = onDateClickListener;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (adapter != null && !observerRegistered) {
+            adapter.registerDataSetObserver(dataSetObserver);
+            observerRegistered = true;
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (observerRegistered) {
+            adapter.unregisterDataSetObserver(dataSetObserver);
+            observerRegistered = false;
+        }
+        removeCallbacks(longPressRunnable);
+        pressedPosition = -1;
+        super.onDetachedFromWindow();
+    }
+
+    private int getRowCount() {
+        return adapter != null ? adapter.getRowCount() : 0;
+    }
+
+    /*
+     * Height onMeasure gives the view for rows rows at the given width,
+     * without a measure pass. Used to size the view pager
+     */
+    public int getMeasuredHeightForRows(int width, int rows) {
+        return computeHeight(computeCellHeight(computeCellWidth(width)), rows);
+    }
+
+    private int computeHeight(int cellHeight, int rows) {
+        return 2 * gridPadding + rows * cellHeight + Math.max(0, rows - 1) * verticalSpacing;
+    }
+
+    private float computeCellWidth(int width) {
+        return Math.max(0, (width - 2 * gridPadding - 6 * horizontalSpacing) / 7f);
+    }
+
+    private int computeCellHeight(float cellWidth) {
+        if (squareCells) {
+            return (int) cellWidth;
+        }
+        textPaint.getFontMetrics(fontMetrics);
+        return (int) Math.ceil(fontMetrics.descent - fontMetrics.ascent) + 2 * cellPadding;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        cellWidth = computeCellWidth(width);
+        cellHeight = computeCellHeight(cellWidth);
+
+        int height = computeHeight(cellHeight, getRowCount());
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        if (adapter == null) {
+            return;
+        }
+
+        textPaint.getFontMetrics(fontMetrics);
+        float textOffset = -(fontMetrics.ascent + fontMetrics.descent) / 2f;
+
+        MonthPageModel model = adapter.getPageModel();
+        int count = model.getCellCount();
+        for (int position = 0; position < count; position++) {
+            getCellBounds(position, cellBounds);
+            int left = cellBounds.left;
+            int right = cellBounds.right;
+            int top = cellBounds.top;
+            int bottom = cellBounds.bottom;
+
+            int states = model.getStates(position);
+            if (position == pressedPosition) {
+                states |= STATE_FLAG_PRESSED;
+            }
+            int[] stateSet = STATE_SETS[states];
+
+            // Background, custom one from the client if any
+            Drawable background = model.getBackground(position);
+            if (background == null) {
+                background = cellBackground;
+            }
+            if (background != null) {
+                background.setState(stateSet);
+                background.setBounds(left, top, right, bottom);
+                background.draw(canvas);
+            }
+
+            // Text
+            if (model.hasCustomTextColor(position)) {
+                textPaint.setColor(model.getTextColor(position));
+            } else {
+                textPaint.setColor(cellTextColor.getColorForState(stateSet,
+                        cellTextColor.getDefaultColor()));
+            }
+            canvas.drawText(DateGridAdapter.getDayText(model.getDay(position)), (left + right) / 2f,
+                    (top + bottom) / 2f + textOffset, textPaint);
+        }
+    }
+
+    private int getCellLeft(int column) {
+        return gridPadding + Math.round(column * (cellWidth + horizontalSpacing));
+    }
+
+    private void getCellBounds(int position, @NonNull Rect outBounds) {
+        int top = gridPadding + (position / 7) * (cellHeight + verticalSpacing);
+        outBounds.set(getCellLeft(position % 7), top,
+                getCellLeft(position % 7 + 1) - horizontalSpacing, top + cellHeight);
+    }
+
+    /*
+     * Position of the cell at the coordinates, -1 if there is none
+     */
+    public int getPositionAt(float x, float y) {
+        if (adapter == null || cellWidth <= 0 || cellHeight <= 0) {
+            return -1;
+        }
+        float gridX = x - gridPadding;
+        float gridY = y - gridPadding;
+        if (gridX < 0 || gridY < 0) {
+            return -1;
+        }
+        int column = (int) (gridX / (cellWidth + horizontalSpacing));
+        int row = (int) (gridY / (cellHeight + verticalSpacing));
+        if (column > 6 || row >= getRowCount()) {
+            return -1;
+        }
+        return row * 7 + column;
+    }
+
+    private void setPressedPosition(int position) {
+        if (pressedPosition != position) {
+            pressedPosition = position;
+            invalidate();
+        }
+    }
+
+    /*
+     * Click on the date cell at position, as a tap on it would do
+     */
+    public boolean performDateClick(int position) {
+        playSoundEffect(SoundEffectConstants.CLICK);
+        if (onDateClickListener != null) {
+            onDateClickListener.onDateClick(this, position);
+        }
+        touchHelper.sendEventForVirtualView(position, AccessibilityEvent.TYPE_VIEW_CLICKED);
+        return true;
+    }
+
+    /*
+     * Long click on the date cell at position
+     *
+     * @return true if the listener consumed the long click
+     */
+    public boolean performDateLongClick(int position) {
+        if (onDateClickListener == null
+                || !onDateClickListener.onDateLongClick(this, position)) {
+            return false;
+        }
+        touchHelper.sendEventForVirtualView(position, AccessibilityEvent.TYPE_VIEW_LONG_CLICKED);
+        return true;
+    }
+
+    @Override
+    public boolean performClick() {
+        boolean handled = super.performClick();
+        int position = clickedPosition;
+        clickedPosition = -1;
+        if (position >= 0) {
+            handled |= performDateClick(position);
+        }
+        return handled;
+    }
+
+    @Override
+    protected boolean dispatchHoverEvent(MotionEvent event) {
+        return touchHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return touchHelper.dispatchKeyEvent(event) || super.dispatchKeyEvent(event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction,
+                                  @Nullable Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        touchHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN: {
+                int position = getPositionAt(event.getX(), event.getY());
+                if (position < 0) {
+                    return false;
+                }
+                longClickPerformed = false;
+                setPressedPosition(position);
+                postDelayed(longPressRunnable, ViewConfiguration.getLongPressTimeout());
+                return true;
+            }
+            case MotionEvent.ACTION_MOVE: {
+                if (pressedPosition >= 0
+                        && getPositionAt(event.getX(), event.getY()) != pressedPosition) {
+                    removeCallbacks(longPressRunnable);
+                    setPressedPosition(-1);
+                }
+                return true;
+            }
+            case MotionEvent.ACTION_UP: {
+                removeCallbacks(longPressRunnable);
+                int position = pressedPosition;
+                setPressedPosition(-1);
+                if (position >= 0 && !longClickPerformed) {
+                    clickedPosition = position;
+                    performClick();
+                }
+                return true;
+            }
+            case MotionEvent.ACTION_CANCEL: {
+                removeCallbacks(longPressRunnable);
+                setPressedPosition(-1);
+                return true;
+            }
+            default:
+                return super.onTouchEvent(event);
+        }
+    }
+
+    /*
+     * Virtual views of the cells, ids are the cell positions
+     */
+    private final class CellTouchHelper extends ExploreByTouchHelper {
+        CellTouchHelper() {
+            super(MonthView.this);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            int position = getPositionAt(x, y);
+            return position >= 0 ? position : INVALID_ID;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            if (adapter == null) {
+                return;
+            }
+            int count = adapter.getPageModel().getCellCount();
+            for (int position = 0; position < count; position++) {
+                virtualViewIds.add(position);
+            }
+        }
+
+        @Override
+        protected void onPopulateEventForVirtualView(int virtualViewId,
+                                                     @NonNull AccessibilityEvent event) {
+            event.setContentDescription(getCellDescription(virtualViewId));
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId,
+                                                    @NonNull AccessibilityNodeInfoCompat node) {
+            getCellBounds(virtualViewId, cellBounds);
+            node.setBoundsInParent(cellBounds);
+            node.setContentDescription(getCellDescription(virtualViewId));
+            if (adapter == null
+                    || virtualViewId >= adapter.getPageModel().getCellCount()) {
+                return;
+            }
+
+            int states = adapter.getPageModel().getStates(virtualViewId);
+            node.setSelected((states & CellView.STATE_FLAG_SELECTED) != 0);
+            node.setEnabled((states & CellView.STATE_FLAG_DISABLED) == 0);
+            node.setClickable(true);
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+            if (onDateClickListener != null) {
+                node.setLongClickable(true);
+                node.addAction(AccessibilityNodeInfoCompat.ACTION_LONG_CLICK);
+            }
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action,
+                                                        @Nullable Bundle arguments) {
+            switch (action) {
+                case AccessibilityNodeInfoCompat.ACTION_CLICK:
+                    return performDateClick(virtualViewId);
+                case AccessibilityNodeInfoCompat.ACTION_LONG_CLICK:
+                    return performDateLongClick(virtualViewId);
+                default:
+                    return false;
+            }
+        }
+
+        private String getCellDescription(int position) {
+            if (adapter == null || position >= adapter.getPageModel().getCellCount()) {
+                return "";
+            }
+            long millis = EpochDay.toDate(adapter.getCellEpochDay(position)).getTime();
+            return DateUtils.formatDateTime(getContext(), millis, DateUtils.FORMAT_SHOW_DATE
+                    | DateUtils.FORMAT_SHOW_YEAR | DateUtils.FORMAT_SHOW_WEEKDAY);
+        }
+    }
+}
@@ -1,66 +1,84 @@
 package com.roomorama.caldroid;
 
 import android.view.View;
-import android.view.ViewGroup;
 
 import java.util.ArrayList;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.viewpager2.widget.ViewPager2;
 import hirondelle.date4j.DateTime;
 
+/*
+ * Sizes a view pager to the rows of a month page. The fragments resize their
+ * pager with PagerResizeScheduler, which this class delegates to, so that the
+ * row height is measured once per width and the height is set without the
+ * exact measure spec flag.
+ *
+ * @deprecated kept for code calling it directly, the fragments do not use it
+ */
+@Deprecated
 public class MonthViewPagerHelper {
-    public static final int OFFSET = 1000;
+    public static final int OFFSET = YearPagerAdapter.OFFSET;
+
+    private boolean sixWeeksInCalendar = false;
+    private final PagerResizeHelper resizeHelper = new PagerResizeHelper();
 
     public MonthViewPagerHelper() {}
 
     public void setSixWeeksInCalendar(boolean sixWeeksInCalendar) {
         this.sixWeeksInCalendar = sixWeeksInCalendar;
-        rowHeight = 0;
     }
 
     public void resizeCalendarViewPager(@NonNull ViewPager2 _pager, @NonNull View _childView, @NonNull ArrayList<DateTime> _datesInMonth) {
-        // Calculate row height
-        int rows = _datesInMonth.size() / 7;
-
-        if (rowHeight == 0) {
-            int width = _pager.getMeasuredWidth();
-
-            // Use the previously measured width but simplify the calculations
-            int widthMeasureSpec = View.MeasureSpec.makeMeasureSpec(width,
-                    View.MeasureSpec.EXACTLY);
+        resizeCalendarViewPager(_pager, _childView, _datesInMonth.size() / 7);
+    }
 
+    public void resizeCalendarViewPager(@NonNull ViewPager2 _pager, @NonNull View _childView, int rows) {
+        resizeHelper.resize(_pager, _childView, sixWeeksInCalendar ? 6 : rows);
+    }
 
-            _childView.measure(widthMeasureSpec, View.MeasureSpec
-                    .makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+    /*
+     * PagerResizeScheduler of the last view resized, without a current page
+     * of its own: it is only told which page to resize to
+     */
+    static final class PagerResizeHelper implements PagerResizeScheduler.Source {
+        private View target;
+        private PagerResizeScheduler scheduler;
+
+        void resize(@NonNull View _target, @NonNull View _childView, int _rows) {
+            if (target != _target) {
+                target = _target;
+                scheduler = new PagerResizeScheduler(_target, this);
+            }
+            scheduler.resize(_childView, _rows);
+        }
 
-            rowHeight = _childView.getMeasuredHeight();
+        @Nullable
+        @Override
+        public View getResizeChild() {
+            return null;
         }
 
-        // Calculate height of the calendar
-        int calHeight;
+        @Override
+        public int getResizeRows() {
+            return 0;
+        }
 
-        // If fit 6 weeks, we need 6 rows
-        if (sixWeeksInCalendar) {
-            calHeight = rowHeight * 6;
-        } else { // Otherwise we return correct number of rows
-            calHeight = rowHeight * rows;
+        @Override
+        public int getThemeResource() {
+            return 0;
         }
 
-        // Prevent small vertical scroll
-        calHeight -= 12;
-        int heightMeasureSpec = View.MeasureSpec.makeMeasureSpec(calHeight,
-                View.MeasureSpec.EXACTLY);
+        @Override
+        public boolean isSquareTextViewCell() {
+            return false;
+        }
 
-        ViewGroup.LayoutParams layoutParams = _pager.getLayoutParams();
-        layoutParams.height = heightMeasureSpec;
-        _pager.setLayoutParams(layoutParams);
+        @Nullable
+        @Override
+        public CaldroidMetrics getMetrics() {
+            return null;
+        }
     }
-
-    private boolean sixWeeksInCalendar = false;
-
-    /**
-     * Use internally to decide height of the calendar
-     */
-    private int rowHeight = 0;
 }
@@ -0,0 +1,146 @@
+package com.roomorama.caldroid;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/*
+ * Sizes the view pager, or the grid of years, of one calendar to the rows of
+ * its current page. Replaces the global layout listeners every page used to
+ * add, which resized on each layout pass of each live page.
+ * <p/>
+ * Requests are coalesced and applied once on the next animation frame. A
+ * MonthView page gives its height for the rows itself, the height of a row of
+ * a grid page is measured once per width and cell style. The layout params
+ * are only set when the height actually changes, so a swipe costs at most one
+ * extra layout. The pager is resized again by itself when its width changes,
+ * for e.g. on rotation.
+ * <p/>
+ * All methods must be called on the main thread.
+ */
+final class PagerResizeScheduler implements Runnable {
+    interface Source {
+        /*
+         * View of the current page, null if it is not created yet
+         */
+        @Nullable
+        View getResizeChild();
+
+        /*
+         * Number of rows the current page needs
+         */
+        int getResizeRows();
+
+        /*
+         * Theme and cell shape of the pages, the row height depends on them
+         */
+        int getThemeResource();
+
+        boolean isSquareTextViewCell();
+
+        @Nullable
+        CaldroidMetrics getMetrics();
+    }
+
+    // Prevent small vertical scroll
+    private static final int HEIGHT_ADJUSTMENT = 12;
+    private static final int CACHE_SIZE = 4;
+
+    private final View target;
+    private final Source source;
+    private boolean scheduled;
+
+    // Row heights of grid pages by width and cell style, replaced round robin
+    private final long[] keys = new long[CACHE_SIZE];
+    private final int[] rowHeights = new int[CACHE_SIZE];
+    private int size;
+    private int nextSlot;
+
+    PagerResizeScheduler(@NonNull View target, @NonNull Source source) {
+        this.target = target;
+        this.source = source;
+        target.addOnLayoutChangeListener((view, left, top, right, bottom,
+                                          oldLeft, oldTop, oldRight, oldBottom) -> {
+            if (right - left != oldRight - oldLeft) {
+                requestResize();
+            }
+        });
+    }
+
+    /*
+     * Resize on the next frame, requests until then are merged
+     */
+    void requestResize() {
+        if (!scheduled) {
+            scheduled = true;
+            target.postOnAnimation(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        scheduled = false;
+        View child = source.getResizeChild();
+        if (child != null) {
+            resize(child, source.getResizeRows());
+        }
+    }
+
+    /*
+     * Resize now to rows rows of the page childView
+     */
+    void resize(@NonNull View childView, int rows) {
+        int width = target.getMeasuredWidth();
+        if (width == 0) {
+            // Not measured yet, the layout change listener comes back
+            return;
+        }
+
+        try (CaldroidMetrics.Section section = CaldroidMetrics.Section.begin(
+                "Caldroid:resizeViewPager", source.getMetrics(),
+                CaldroidMetrics.Section.VIEW_PAGER_RESIZED)) {
+            int height;
+            if (childView instanceof MonthView) {
+                // Same height as MonthView.onMeasure, grid padding and spacing
+                // included, without a measure pass
+                height = ((MonthView) childView).getMeasuredHeightForRows(width, rows);
+            } else {
+                int rowHeight = getRowHeight(childView, width);
+                height = rowHeight > 0 ? rowHeight * rows - HEIGHT_ADJUSTMENT : 0;
+            }
+            ViewGroup.LayoutParams layoutParams = target.getLayoutParams();
+            if (height > 0 && layoutParams != null && layoutParams.height != height) {
+                layoutParams.height = height;
+                target.setLayoutParams(layoutParams);
+            }
+        }
+    }
+
+    private int getRowHeight(@NonNull View childView, int width) {
+        long key = (long) source.getThemeResource() << 32 | (long) width << 1
+                | (source.isSquareTextViewCell() ? 1 : 0);
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                return rowHeights[i];
+            }
+        }
+
+        // A grid measured without height limit is one row high
+        childView.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        int rowHeight = childView.getMeasuredHeight();
+        if (rowHeight == 0) {
+            return 0;
+        }
+
+        keys[nextSlot] = key;
+        rowHeights[nextSlot] = rowHeight;
+        nextSlot = (nextSlot + 1) % CACHE_SIZE;
+        if (size < CACHE_SIZE) {
+            size++;
+        }
+        return rowHeight;
+    }
+}
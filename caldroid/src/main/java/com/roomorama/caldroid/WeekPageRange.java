@@ -0,0 +1,106 @@
+package com.roomorama.caldroid;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import hirondelle.date4j.DateTime;
+
+/*
+ * Maps pager positions of the week strip to weeks and back. Position 0 is the
+ * first week, a week is identified by the epoch day of its first date, which
+ * follows the start day of week like the rows of CalendarHelper.getFullWeeks.
+ * <p/>
+ * With min and max date the pager covers the weeks holding them, otherwise it
+ * reaches the first and last full weeks of the range of DateTime, years 1 to
+ * 9999. That is about 520000 pages, only the visible ones are created.
+ */
+public final class WeekPageRange {
+    private static final int MIN_EPOCH_DAY = EpochDay.of(1, 1, 1);
+    private static final int MAX_EPOCH_DAY = EpochDay.of(9999, 12, 31);
+
+    private final int startDayOfWeek;
+    private final int minWeekStart;
+    private final int maxWeekStart;
+
+    private int firstWeekStart;
+    private int itemCount;
+
+    public WeekPageRange(int startDayOfWeek, @Nullable DateTime minDateTime,
+                         @Nullable DateTime maxDateTime) {
+        this.startDayOfWeek = startDayOfWeek;
+
+        // Every date of a week must be a valid DateTime
+        int minWeekStart = CalendarHelper.getWeekStart(MIN_EPOCH_DAY, startDayOfWeek);
+        this.minWeekStart = minWeekStart < MIN_EPOCH_DAY ? minWeekStart + 7 : minWeekStart;
+        int maxWeekStart = CalendarHelper.getWeekStart(MAX_EPOCH_DAY, startDayOfWeek);
+        this.maxWeekStart = maxWeekStart + 6 > MAX_EPOCH_DAY ? maxWeekStart - 7 : maxWeekStart;
+
+        setBounds(minDateTime, maxDateTime);
+    }
+
+    /*
+     * Set the weeks covered by the pager
+     *
+     * @return true if the positions changed
+     */
+    public boolean setBounds(@Nullable DateTime minDateTime, @Nullable DateTime maxDateTime) {
+        int first = minDateTime != null ? toWeekStart(EpochDay.fromDateTime(minDateTime))
+                : minWeekStart;
+        int last = maxDateTime != null ? toWeekStart(EpochDay.fromDateTime(maxDateTime))
+                : maxWeekStart;
+        if (last < first) {
+            last = first;
+        }
+
+        int count = (last - first) / 7 + 1;
+        if (first == firstWeekStart && count == itemCount) {
+            return false;
+        }
+        firstWeekStart = first;
+        itemCount = count;
+        return true;
+    }
+
+    private int toWeekStart(int epochDay) {
+        int weekStart = CalendarHelper.getWeekStart(epochDay, startDayOfWeek);
+        return Math.max(minWeekStart, Math.min(maxWeekStart, weekStart));
+    }
+
+    public int getStartDayOfWeek() {
+        return startDayOfWeek;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /*
+     * Epoch day of the first date of the week shown at position
+     */
+    public int positionToEpochDay(int _position) {
+        return firstWeekStart + _position * 7;
+    }
+
+    /*
+     * Position of the week holding the epoch day, clamped to the pager
+     */
+    public int epochDayToPosition(int _epochDay) {
+        int position = Math.floorDiv(_epochDay - firstWeekStart, 7);
+        return Math.max(0, Math.min(itemCount - 1, position));
+    }
+
+    public int dateTimeToPosition(@NonNull DateTime _dateTime) {
+        return epochDayToPosition(EpochDay.fromDateTime(_dateTime));
+    }
+
+    /*
+     * Epoch day whose month is the month of the week starting at the epoch day,
+     * the middle date, so that it is the month holding most dates of the week
+     */
+    public static int monthEpochDay(int _weekStart) {
+        return _weekStart + 3;
+    }
+
+    public boolean containsEpochDay(int _epochDay) {
+        return _epochDay >= firstWeekStart && _epochDay < firstWeekStart + itemCount * 7;
+    }
+}
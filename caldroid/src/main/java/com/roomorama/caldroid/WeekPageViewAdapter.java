@@ -0,0 +1,147 @@
+package com.roomorama.caldroid;
+
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+/*
+ * Pages of the week strip of DateCaldroidFragment, one row of 7 dates each.
+ * Like MonthPageViewAdapter each page is a plain view, a MonthView or a
+ * gridview, recycled through the RecycledViewPool of the pager. Rebinding a page
+ * only moves its DateGridAdapter to another week, so flinging across years of
+ * weeks does not inflate anything.
+ */
+public class WeekPageViewAdapter extends RecyclerView.Adapter<WeekPageViewAdapter.WeekPageHolder> {
+    // Not the types of MonthPageViewAdapter, the pool of pages may be shared
+    public static final int VIEW_TYPE_MONTH_VIEW = 3;
+    public static final int VIEW_TYPE_GRID_VIEW = 4;
+
+    // boundId of a holder bound to no item, not an epoch month or day
+    private static final int UNBOUND = Integer.MIN_VALUE;
+
+    public static class WeekPageHolder extends RecyclerView.ViewHolder {
+        private DateGridAdapter gridAdapter;
+        // Item id of the bound page, positions move with the page range
+        private int boundId = UNBOUND;
+
+        WeekPageHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+
+        public DateGridAdapter getGridAdapter() {
+            return gridAdapter;
+        }
+    }
+
+    public WeekPageViewAdapter(@NonNull DateCaldroidFragment _parent) {
+        parent = _parent;
+        mPageRange = new WeekPageRange(parent.startDayOfWeek,
+                parent.getMinDateTime(), parent.getMaxDateTime());
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return mPageRange.positionToEpochDay(position);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return parent.isUseMonthView() ? VIEW_TYPE_MONTH_VIEW : VIEW_TYPE_GRID_VIEW;
+    }
+
+    @NonNull
+    @Override
+    public WeekPageHolder onCreateViewHolder(@NonNull ViewGroup viewGroup, int viewType) {
+        View page = parent.createDatePageView(viewGroup, viewType == VIEW_TYPE_MONTH_VIEW);
+
+        // ViewPager2 requires pages to fill the pager
+        page.setLayoutParams(new RecyclerView.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        return new WeekPageHolder(page);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull WeekPageHolder holder, int position) {
+        int weekStart = mPageRange.positionToEpochDay(position);
+        try (CaldroidMetrics.Section section = CaldroidMetrics.Section.begin("Caldroid:bindPage",
+                parent.getMetrics(), CaldroidMetrics.Section.PAGE_CREATED)) {
+            if (holder.gridAdapter == null) {
+                holder.gridAdapter = parent.newWeekPageAdapter(weekStart);
+                parent.setDatePageAdapter(holder.itemView, holder.gridAdapter);
+            } else {
+                parent.updateWeekGridAdapter(holder.gridAdapter, weekStart);
+            }
+            parent.requestWeekDecorations(holder.gridAdapter, weekStart);
+            section.setPage(holder.gridAdapter.getMonth(), holder.gridAdapter.getYear());
+        }
+
+        unregisterBoundPage(holder);
+        holder.boundId = (int) getItemId(position);
+        mBoundPages.put(holder.boundId, holder);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull WeekPageHolder holder) {
+        unregisterBoundPage(holder);
+    }
+
+    @Override
+    public void onViewAttachedToWindow(@NonNull WeekPageHolder holder) {
+        parent.onDatePageAttached(holder.getBindingAdapterPosition(), holder.itemView, holder.gridAdapter);
+    }
+
+    private void unregisterBoundPage(@NonNull WeekPageHolder holder) {
+        if (holder.boundId != UNBOUND && mBoundPages.get(holder.boundId) == holder) {
+            mBoundPages.remove(holder.boundId);
+        }
+        holder.boundId = UNBOUND;
+    }
+
+    @Override
+    public int getItemCount() {
+        return mPageRange.getItemCount();
+    }
+
+    public WeekPageRange getPageRange() {
+        return mPageRange;
+    }
+
+    /*
+     * Adapter of the page bound at position, null if the page is not bound
+     */
+    @Nullable
+    public DateGridAdapter getBoundPageAdapter(int _position) {
+        WeekPageHolder holder = mBoundPages.get((int) getItemId(_position));
+        return holder != null ? holder.gridAdapter : null;
+    }
+
+    /*
+     * Adapters of all the bound pages
+     */
+    @NonNull
+    public List<DateGridAdapter> getBoundPageAdapters() {
+        List<DateGridAdapter> adapters = new ArrayList<>(mBoundPages.size());
+        for (int i = 0; i < mBoundPages.size(); i++) {
+            adapters.add(mBoundPages.valueAt(i).gridAdapter);
+        }
+        return adapters;
+    }
+
+    @Nullable
+    public View getBoundPageView(int _position) {
+        WeekPageHolder holder = mBoundPages.get((int) getItemId(_position));
+        return holder != null ? holder.itemView : null;
+    }
+
+    private final DateCaldroidFragment parent;
+    private final WeekPageRange mPageRange;
+    private final SparseArray<WeekPageHolder> mBoundPages = new SparseArray<>();
+}
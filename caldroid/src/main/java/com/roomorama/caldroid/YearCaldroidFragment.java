@@ -9,7 +9,6 @@ import android.view.ContextThemeWrapper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.view.ViewTreeObserver;
 import android.view.Window;
 import android.widget.AdapterView;
 import android.widget.TextView;
@@ -39,7 +38,8 @@ public class YearCaldroidFragment extends DialogFragment {
     private TextView titleTextView;
     private YearGridAdapter yearGridAdapter;
 
-    private final YearViewPagerHelper viewPagerHelper = new YearViewPagerHelper();
+    // Sizes the grid container to the rows of years
+    private PagerResizeScheduler resizeScheduler;
 
     private int themeResource = R.style.CaldroidDefault;
     private String titleString;
@@ -53,6 +53,9 @@ public class YearCaldroidFragment extends DialogFragment {
             DIALOG_TITLE = "dialogTitle",
             DISABLE_DATES = "disableDates",
             SELECTED_DATES = "selectedDates",
+            SELECTED_DATE_BITS = "selectedDateBits",
+            DISABLE_DATES_PARCEL = "disableDatesParcel",
+            SELECTED_DATES_PARCEL = "selectedDatesParcel",
             MIN_DATE = "minDate",
             MAX_DATE = "maxDate",
             ENABLE_CLICK_ON_DISABLED_DATES = "enableClickOnDisabledDates",
@@ -68,14 +71,24 @@ public class YearCaldroidFragment extends DialogFragment {
             MAX_DATE_TIME = "_maxDateTime",
             CELL_TEXTS = "celltexts",
             BACKGROUND_FOR_DATETIME_MAP = "_backgroundForDateTimeMap",
-            TEXT_COLOR_FOR_DATETIME_MAP = "_textColorForDateTimeMap";
+            TEXT_COLOR_FOR_DATETIME_MAP = "_textColorForDateTimeMap",
+            METRICS = "_metrics";
 
     /*
      * Initial data
      */
     protected String dialogTitle;
     protected final ArrayList<DateTime> disableDates = new ArrayList<>();
-    protected final ArrayList<DateTime> selectedDates = new ArrayList<>();
+    protected final DateBitSet selectedDateSet = new DateBitSet();
+
+    /*
+     * Selected dates of the old API, still honoured: they are selected in
+     * addition to selectedDateSet, and clearing a selection clears them too.
+     * Use selectedDateSet instead
+     */
+    @Deprecated
+    protected final DateTimeList selectedDates = new DateTimeList();
+    private final DateListMerger selectedDatesMerger = new DateListMerger();
     protected DateTime minDateTime;
     protected DateTime maxDateTime;
 
@@ -106,6 +119,7 @@ public class YearCaldroidFragment extends DialogFragment {
      * however in many cases with compact screen, it can be collapsed to save space
      */
     protected boolean squareTextViewCell;
+    protected CaldroidMetrics metrics;
 
     /*
      * dateItemClickListener is fired when user click on the date cell
@@ -162,7 +176,7 @@ public class YearCaldroidFragment extends DialogFragment {
         Map<String, Object> caldroidData = new HashMap<>();
 
         caldroidData.put(DISABLE_DATES, disableDates);
-        caldroidData.put(SELECTED_DATES, selectedDates);
+        caldroidData.put(SELECTED_DATE_BITS, getEffectiveSelectedDates());
         caldroidData.put(MIN_DATE_TIME, minDateTime);
         caldroidData.put(MAX_DATE_TIME, maxDateTime);
         caldroidData.put(SQUARE_TEXT_VIEW_CELL, squareTextViewCell);
@@ -173,6 +187,7 @@ public class YearCaldroidFragment extends DialogFragment {
         caldroidData
                 .put(BACKGROUND_FOR_DATETIME_MAP, backgroundForDateTimeMap);
         caldroidData.put(TEXT_COLOR_FOR_DATETIME_MAP, textColorForDateTimeMap);
+        caldroidData.put(METRICS, metrics);
         caldroidData.put(CELL_TEXTS, cellTexts);
 
         return caldroidData;
@@ -314,14 +329,13 @@ public class YearCaldroidFragment extends DialogFragment {
             bundle.putString(DIALOG_TITLE, dialogTitle);
         }
 
-        if (!selectedDates.isEmpty()) {
-            bundle.putStringArrayList(SELECTED_DATES,
-                    CalendarHelper.convertToStringList(selectedDates));
+        DateBitSet effectiveSelectedDates = getEffectiveSelectedDates();
+        if (!effectiveSelectedDates.isEmpty()) {
+            bundle.putParcelable(SELECTED_DATES_PARCEL, DateSetParcel.of(effectiveSelectedDates));
         }
 
         if (!disableDates.isEmpty()) {
-            bundle.putStringArrayList(DISABLE_DATES,
-                    CalendarHelper.convertToStringList(disableDates));
+            bundle.putParcelable(DISABLE_DATES_PARCEL, DateSetParcel.ofDateTimes(disableDates));
         }
 
         if (minDateTime != null) {
@@ -451,9 +465,19 @@ public class YearCaldroidFragment extends DialogFragment {
      * explicitly call refreshView()
      */
     public void clearSelectedDates() {
+        selectedDateSet.clear();
         selectedDates.clear();
     }
 
+    /*
+     * selectedDateSet with the dates of the deprecated selectedDates list,
+     * merged again only when either of them has changed
+     */
+    @NonNull
+    protected DateBitSet getEffectiveSelectedDates() {
+        return selectedDatesMerger.merge(selectedDateSet, selectedDates);
+    }
+
     /*
      * Select the dates from fromDate to toDate. By default the background color
      * is holo_blue_light, and the text color is black. You can customize the
@@ -470,17 +494,8 @@ public class YearCaldroidFragment extends DialogFragment {
             return;
         }
 
-        selectedDates.clear();
-
-        DateTime fromDateTime = CalendarHelper.convertDateToDateTime(fromDate);
-        DateTime toDateTime = CalendarHelper.convertDateToDateTime(toDate);
-
-        DateTime dateTime = fromDateTime;
-        while (dateTime.lt(toDateTime)) {
-            selectedDates.add(dateTime);
-            dateTime = dateTime.plusDays(1);
-        }
-        selectedDates.add(toDateTime);
+        clearSelectedDates();
+        selectedDateSet.addRange(EpochDay.fromDate(fromDate), EpochDay.fromDate(toDate));
     }
 
     /*
@@ -509,8 +524,7 @@ public class YearCaldroidFragment extends DialogFragment {
         if (date == null) {
             return;
         }
-        DateTime dateTime = CalendarHelper.convertDateToDateTime(date);
-        selectedDates.add(dateTime);
+        selectedDateSet.add(EpochDay.fromDate(date));
     }
 
     /*
@@ -521,8 +535,37 @@ public class YearCaldroidFragment extends DialogFragment {
         if (date == null) {
             return;
         }
-        DateTime dateTime = CalendarHelper.convertDateToDateTime(date);
-        selectedDates.remove(dateTime);
+        int epochDay = EpochDay.fromDate(date);
+        selectedDateSet.remove(epochDay);
+        selectedDates.removeEpochDays(epochDay, epochDay);
+    }
+
+    /*
+     * Select the date if it is not selected, clear its selection otherwise.
+     * This method does not refresh view, need to call refreshView()
+     *
+     * @param date
+     * @return true if the date is selected after the toggle
+     */
+    public boolean toggleSelectedDate(Date date) {
+        if (date == null) {
+            return false;
+        }
+        if (isSelectedDate(date)) {
+            clearSelectedDate(date);
+            return false;
+        }
+        setSelectedDate(date);
+        return true;
+    }
+
+    /*
+     * Copy of the selected dates
+     *
+     * @return
+     */
+    public DateBitSet getSelectedDateSet() {
+        return new DateBitSet(getEffectiveSelectedDates());
     }
 
     /*
@@ -533,8 +576,7 @@ public class YearCaldroidFragment extends DialogFragment {
         if (date == null) {
             return false;
         }
-        DateTime dateTime = CalendarHelper.convertDateToDateTime(date);
-        return selectedDates.contains(dateTime);
+        return getEffectiveSelectedDates().contains(EpochDay.fromDate(date));
     }
 
     /*
@@ -614,6 +656,18 @@ public class YearCaldroidFragment extends DialogFragment {
         this.yearCaldroidListener = yearCaldroidListener;
     }
 
+    public CaldroidMetrics getMetrics() {
+        return metrics;
+    }
+
+    /*
+     * Set metrics of the hot paths, null for none. Must be set before the view
+     * is created to cover the first pages
+     */
+    public void setMetrics(CaldroidMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /*
      * Callback to listener when date is valid (not disable, not outside of
      * min/max date)
@@ -720,28 +774,33 @@ public class YearCaldroidFragment extends DialogFragment {
             enableClickOnDisabledDates = args.getBoolean(
                     ENABLE_CLICK_ON_DISABLED_DATES, false);
 
-            // Get disable dates
+            // Get disable dates, as saved state or as list of date strings
+            DateSetParcel disableDatesParcel = DateSetParcel.fromBundle(args, DISABLE_DATES_PARCEL);
             ArrayList<String> disableDateStrings = args
                     .getStringArrayList(DISABLE_DATES);
-            if (disableDateStrings != null && !disableDateStrings.isEmpty()) {
+            if (disableDatesParcel != null) {
                 disableDates.clear();
-                for (String dateString : disableDateStrings) {
-                    DateTime dt = CalendarHelper.getDateTimeFromString(
-                            dateString, null);
-                    disableDates.add(dt);
-                }
+                disableDates.addAll(disableDatesParcel.toDateTimeList());
+            } else if (disableDateStrings != null && !disableDateStrings.isEmpty()) {
+                disableDates.clear();
+                disableDates.addAll(IsoDateCodec.parseDateTimes(disableDateStrings));
             }
 
-            // Get selected dates
+            // Get selected dates, as saved state, as month bits or as list of
+            // date strings
+            DateSetParcel selectedDatesParcel = DateSetParcel.fromBundle(args, SELECTED_DATES_PARCEL);
+            int[] selectedDateBits = args.getIntArray(SELECTED_DATE_BITS);
             ArrayList<String> selectedDateStrings = args
                     .getStringArrayList(SELECTED_DATES);
-            if (selectedDateStrings != null && !selectedDateStrings.isEmpty()) {
-                selectedDates.clear();
-                for (String dateString : selectedDateStrings) {
-                    DateTime dt = CalendarHelper.getDateTimeFromString(
-                            dateString, null);
-                    selectedDates.add(dt);
-                }
+            if (selectedDatesParcel != null) {
+                clearSelectedDates();
+                selectedDatesParcel.addTo(selectedDateSet);
+            } else if (selectedDateBits != null && selectedDateBits.length > 0) {
+                clearSelectedDates();
+                selectedDateSet.addAll(DateBitSet.fromArray(selectedDateBits));
+            } else if (selectedDateStrings != null && !selectedDateStrings.isEmpty()) {
+                clearSelectedDates();
+                IsoDateCodec.parseInto(selectedDateStrings, selectedDateSet);
             }
 
             // Get min date and max date
@@ -818,58 +877,93 @@ public class YearCaldroidFragment extends DialogFragment {
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
-        retrieveInitialArgs();
-
-        // To support keeping instance for dialog
-        if (getDialog() != null) {
-            try {
-                setRetainInstance(true);
-            } catch (IllegalStateException e) {
-                e.printStackTrace();
+        try (CaldroidMetrics.Section section = CaldroidMetrics.Section.begin("Caldroid:createPage",
+                metrics, CaldroidMetrics.Section.PAGE_CREATED)) {
+            retrieveInitialArgs();
+
+            // To support keeping instance for dialog
+            if (getDialog() != null) {
+                try {
+                    setRetainInstance(true);
+                } catch (IllegalStateException e) {
+                    e.printStackTrace();
+                }
             }
-        }
 
-        LayoutInflater localInflater = getThemeInflater(getActivity(), inflater, themeResource);
+            LayoutInflater localInflater = getThemeInflater(getActivity(), inflater, themeResource);
 
-        // This is a hack to fix issue localInflater doesn't use the themeResource, make Android
-        // complain about layout_width and layout_height missing. I'm unsure about its impact
-        // for app that wants to change theme dynamically.
-        requireActivity().setTheme(themeResource);
+            // This is a hack to fix issue localInflater doesn't use the themeResource, make Android
+            // complain about layout_width and layout_height missing. I'm unsure about its impact
+            // for app that wants to change theme dynamically.
+            requireActivity().setTheme(themeResource);
 
-        binding = YearCalendarViewBinding.inflate(localInflater, container, false);
+            binding = YearCalendarViewBinding.inflate(localInflater, container, false);
 
-        // For the monthTitleTextView
-        titleTextView = binding.calendarTitleTextview;
-        titleTextView.setText(titleString);
+            // For the monthTitleTextView
+            titleTextView = binding.calendarTitleTextview;
+            titleTextView.setText(titleString);
 
-        if (yearCaldroidListener != null) {
-            Map<DateTime, Drawable> bckMap = yearCaldroidListener.getBackgroundYearMap(maxDateTime.getYear());
-            if (bckMap != null) {
-                yearCount = bckMap.size();
-                if (yearCaldroidListener != null) {
-                    backgroundForDateTimeMap = bckMap;
-
-                    Map<Integer, String> ct = yearCaldroidListener.getCellTexts(maxDateTime.getYear());
-                    if (ct != null) {
-                        cellTexts = ct;
+            if (yearCaldroidListener != null) {
+                Map<DateTime, Drawable> bckMap = yearCaldroidListener.getBackgroundYearMap(maxDateTime.getYear());
+                if (bckMap != null) {
+                    yearCount = bckMap.size();
+                    if (yearCaldroidListener != null) {
+                        backgroundForDateTimeMap = bckMap;
+
+                        Map<Integer, String> ct = yearCaldroidListener.getCellTexts(maxDateTime.getYear());
+                        if (ct != null) {
+                            cellTexts = ct;
+                        }
                     }
                 }
             }
-        }
 
-        yearGridAdapter = new YearGridAdapter(requireContext(), getCaldroidData(), getExtraData());
-        binding.calendarYearGridview.setAdapter(yearGridAdapter);
-        binding.calendarYearGridview.setOnItemClickListener(getYearItemClickListener());
-        binding.calendarYearGridview.setOnItemLongClickListener(getYearItemLongClickListener());
+            int lastYear = maxDateTime != null ? maxDateTime.getYear() : 0;
+            section.setPage(0, lastYear);
+            try (CaldroidMetrics.Section adapterSection = CaldroidMetrics.Section.begin(
+                    "Caldroid:newAdapter", metrics, CaldroidMetrics.Section.ADAPTER_CREATED,
+                    0, lastYear)) {
+                yearGridAdapter = new YearGridAdapter(requireContext(), getCaldroidData(), getExtraData());
+            }
 
-        return binding.getRoot();
+            binding.calendarYearGridview.setAdapter(yearGridAdapter);
+            binding.calendarYearGridview.setOnItemClickListener(getYearItemClickListener());
+            binding.calendarYearGridview.setOnItemLongClickListener(getYearItemLongClickListener());
+            return binding.getRoot();
+        }
     }
 
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
-        ViewTreeObserver vto = view.getViewTreeObserver();
-        vto.addOnGlobalLayoutListener(() ->
-                viewPagerHelper.resizeCalendarViewPager(binding.calendarYearGridContainer, binding.calendarYearGridview, ((yearCount - 1) / 4) + 1));
+        resizeScheduler = new PagerResizeScheduler(binding.calendarYearGridContainer,
+                new PagerResizeScheduler.Source() {
+                    @Override
+                    public View getResizeChild() {
+                        return binding.calendarYearGridview;
+                    }
+
+                    @Override
+                    public int getResizeRows() {
+                        // Years in rows of 4
+                        return ((yearCount - 1) / 4) + 1;
+                    }
+
+                    @Override
+                    public int getThemeResource() {
+                        return themeResource;
+                    }
+
+                    @Override
+                    public boolean isSquareTextViewCell() {
+                        return squareTextViewCell;
+                    }
+
+                    @Override
+                    public CaldroidMetrics getMetrics() {
+                        return metrics;
+                    }
+                });
+        resizeScheduler.requestResize();
 
         super.onViewCreated(view, savedInstanceState);
 
@@ -3,10 +3,7 @@ package com.roomorama.caldroid;
 import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.Resources;
-import android.content.res.TypedArray;
 import android.graphics.drawable.Drawable;
-import android.util.TypedValue;
-import android.view.ContextThemeWrapper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -16,7 +13,6 @@ import android.widget.TextView;
 import com.caldroid.R;
 
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -32,12 +28,14 @@ public class YearGridAdapter extends BaseAdapter {
     protected DateTime minDateTime;
     protected DateTime maxDateTime;
     protected DateTime today;
+    protected int todayYear = EpochDay.yearOf(EpochDay.today());
     protected boolean squareTextViewCell;
     protected int themeResource;
     protected final Resources resources;
+    // Filled only when fillsProtectedLists() is true, see there
     protected ArrayList<DateTime> selectedDates;
-
     protected final Map<DateTime, Integer> selectedDatesMap = new HashMap<>();
+    protected DateBitSet selectedDateSet = new DateBitSet();
 
     protected int defaultCellBackgroundRes = -1;
     protected ColorStateList defaultTextColorRes;
@@ -53,6 +51,11 @@ public class YearGridAdapter extends BaseAdapter {
 
     protected final LayoutInflater localInflater;
 
+    /*
+     * Metrics of the fragment, may be null
+     */
+    protected CaldroidMetrics metrics;
+
     // GETTERS AND SETTERS
     public DateTime getMinDateTime() {
         return minDateTime;
@@ -70,6 +73,49 @@ public class YearGridAdapter extends BaseAdapter {
         this.maxDateTime = maxDateTime;
     }
 
+    public ArrayList<DateTime> getSelectedDates() {
+        if (selectedDates == null) {
+            selectedDates = selectedDateSet.toDateTimeList();
+        }
+        return selectedDates;
+    }
+
+    public void setSelectedDates(ArrayList<DateTime> selectedDates) {
+        this.selectedDates = selectedDates;
+        this.selectedDateSet = DateBitSet.fromDateTimes(selectedDates);
+        fillSelectedDatesMap();
+    }
+
+    public DateBitSet getSelectedDateSet() {
+        return selectedDateSet;
+    }
+
+    public void setSelectedDateSet(DateBitSet selectedDateSet) {
+        this.selectedDates = null;
+        this.selectedDateSet = selectedDateSet != null ? selectedDateSet
+                : new DateBitSet();
+        fillSelectedDatesMap();
+    }
+
+    private void fillSelectedDatesMap() {
+        selectedDatesMap.clear();
+        if (!fillsProtectedLists()) {
+            return;
+        }
+        for (DateTime dateTime : getSelectedDates()) {
+            selectedDatesMap.put(new DateTime(dateTime.getYear(), 1, 1, 0, 0, 0, 0), 1);
+        }
+    }
+
+    /*
+     * Whether selectedDates and selectedDatesMap are filled whenever the
+     * selection is set. getSelectedDates() builds the list on demand
+     * otherwise. Subclasses reading these fields directly return true
+     */
+    protected boolean fillsProtectedLists() {
+        return false;
+    }
+
     public int getThemeResource() {
         return themeResource;
     }
@@ -122,14 +168,15 @@ public class YearGridAdapter extends BaseAdapter {
     /*
      * Retrieve internal parameters from caldroid data
      */
+    @SuppressWarnings("unchecked")
     private void populateFromCaldroidData() {
-        selectedDates = (ArrayList<DateTime>) caldroidData
-                .get(DateCaldroidFragment.SELECTED_DATES);
-        if (selectedDates != null) {
-            selectedDatesMap.clear();
-            for (DateTime dateTime : selectedDates) {
-                selectedDatesMap.put(new DateTime(dateTime.getYear(), 1, 1, 0, 0, 0, 0), 1);
-            }
+        DateBitSet selectedDateSet = (DateBitSet) caldroidData
+                .get(YearCaldroidFragment.SELECTED_DATE_BITS);
+        if (selectedDateSet != null) {
+            setSelectedDateSet(selectedDateSet);
+        } else {
+            setSelectedDates((ArrayList<DateTime>) caldroidData
+                    .get(YearCaldroidFragment.SELECTED_DATES));
         }
 
         minDateTime = (DateTime) caldroidData
@@ -142,47 +189,51 @@ public class YearGridAdapter extends BaseAdapter {
         // Get theme
         themeResource = Optional.ofNullable((Integer) caldroidData
                 .get(YearCaldroidFragment.THEME_RESOURCE)).orElse(0);
+        metrics = (CaldroidMetrics) caldroidData.get(YearCaldroidFragment.METRICS);
 
         getDefaultResources();
     }
 
     // This method retrieve default resources for background and text color,
-    // based on the Caldroid theme
+    // based on the Caldroid theme. They are resolved once per theme and cell
+    // type, see CaldroidThemeCache
     private void getDefaultResources() {
-        Context wrapped = new ContextThemeWrapper(context, themeResource);
-
-        // Get style of normal cell or square cell in the theme
-        Resources.Theme theme = wrapped.getTheme();
-        TypedValue styleCellVal = new TypedValue();
-        if (squareTextViewCell) {
-            theme.resolveAttribute(R.attr.styleCaldroidSquareCell, styleCellVal, true);
-        } else {
-            theme.resolveAttribute(R.attr.styleCaldroidNormalCell, styleCellVal, true);
-        }
-
-        // Get default background of cell
-        TypedArray typedArray = wrapped.obtainStyledAttributes(styleCellVal.data, R.styleable.Cell);
-        try {
-            defaultCellBackgroundRes = typedArray.getResourceId(R.styleable.Cell_android_background, -1);
-            defaultTextColorRes = typedArray.getColorStateList(R.styleable.Cell_android_textColor);
-        }
-        finally {
-            typedArray.recycle();
-        }
+        CaldroidThemeCache.CellStyle cellStyle = CaldroidThemeCache.getCellStyle(context,
+                themeResource, squareTextViewCell);
+        defaultCellBackgroundRes = cellStyle.getBackgroundRes();
+        defaultTextColorRes = cellStyle.getTextColor();
     }
 
     public void updateToday() {
-        today = CalendarHelper.convertDateToDateTime(new Date());
+        todayYear = EpochDay.yearOf(EpochDay.today());
+        today = null;
     }
 
     protected DateTime getToday() {
         if (today == null) {
-            today = CalendarHelper.convertDateToDateTime(new Date());
-            today = new DateTime(today.getYear(), 1, 1, 0, 0, 0, 0);
+            today = new DateTime(todayYear, 1, 1, 0, 0, 0, 0);
         }
         return today;
     }
 
+    /*
+     * Apply custom background and text color of the year of the cell at
+     * position. DateTime keys are only created when the client actually
+     * customizes some years
+     */
+    @SuppressWarnings("unchecked")
+    protected void setCustomResources(int position, View backgroundView,
+                                      TextView textView) {
+        Map<DateTime, Drawable> backgroundForDateTimeMap = (Map<DateTime, Drawable>) caldroidData
+                .get(YearCaldroidFragment.BACKGROUND_FOR_DATETIME_MAP);
+        Map<DateTime, Integer> textColorForDateTimeMap = (Map<DateTime, Integer>) caldroidData
+                .get(YearCaldroidFragment.TEXT_COLOR_FOR_DATETIME_MAP);
+        if ((backgroundForDateTimeMap != null && !backgroundForDateTimeMap.isEmpty())
+                || (textColorForDateTimeMap != null && !textColorForDateTimeMap.isEmpty())) {
+            setCustomResources(getCellDateTime(position), backgroundView, textView);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     protected void setCustomResources(DateTime dateTime, View backgroundView,
                                       TextView textView) {
@@ -235,37 +286,38 @@ public class YearGridAdapter extends BaseAdapter {
         int bottomPadding = cellView.getPaddingBottom();
         int rightPadding = cellView.getPaddingRight();
 
-        // Get dateTime of this cell
-        DateTime dateTime = getCellDateTime(position);
+        // Get year of this cell
+        int year = getCellYear(position);
 
-        cellView.resetCustomStates();
         resetCustomResources(cellView);
 
-        if (dateTime.equals(getToday())) {
-            cellView.addCustomState(CellView.STATE_TODAY);
+        int states = 0;
+        if (year == todayYear) {
+            states |= CellView.STATE_FLAG_TODAY;
         }
 
         // Customize for disabled dates and date outside min/max dates
-        if ((minDateTime != null && (dateTime.getYear() < minDateTime.getYear()))
-                || (maxDateTime != null && (dateTime.getYear() > maxDateTime.getYear()))) {
-            cellView.addCustomState(CellView.STATE_DISABLED);
+        if ((minDateTime != null && (year < minDateTime.getYear()))
+                || (maxDateTime != null && (year > maxDateTime.getYear()))) {
+            states |= CellView.STATE_FLAG_DISABLED;
         }
 
         // Customize for selected dates
-        if (selectedDates != null && selectedDatesMap.containsKey(dateTime)) {
-            cellView.addCustomState(CellView.STATE_SELECTED);
+        if (selectedDateSet.anyInYear(year)) {
+            states |= CellView.STATE_FLAG_SELECTED;
         }
 
-        cellView.refreshDrawableState();
+        cellView.setCustomStates(states);
 
+        @SuppressWarnings("unchecked")
         Map<Integer, String> texts = (Map<Integer, String>) caldroidData.get(YearCaldroidFragment.CELL_TEXTS);
         if (texts != null) {
-            String text = texts.get(dateTime.getYear());
+            String text = texts.get(year);
             cellView.setText(text);
         }
 
         // Set custom color if required
-        setCustomResources(dateTime, cellView, cellView);
+        setCustomResources(position, cellView, cellView);
 
         // Somehow after setBackgroundResource, the padding collapse.
         // This is to recover the padding
@@ -274,7 +326,11 @@ public class YearGridAdapter extends BaseAdapter {
     }
 
     public DateTime getCellDateTime(int _position) {
-        return new DateTime(minDateTime.getYear() + _position, 1, 1, 0, 0, 0, 0);
+        return new DateTime(getCellYear(_position), 1, 1, 0, 0, 0, 0);
+    }
+
+    public int getCellYear(int _position) {
+        return minDateTime.getYear() + _position;
     }
 
     @Override
@@ -305,7 +361,10 @@ public class YearGridAdapter extends BaseAdapter {
             cellView = (CellView) convertView;
         }
 
-        customizeTextView(position, cellView);
+        try (CaldroidMetrics.Section section = CaldroidMetrics.Section.begin(null, metrics,
+                    CaldroidMetrics.Section.CELL_BOUND)) {
+            customizeTextView(position, cellView);
+        }
 
         return cellView;
     }
@@ -8,6 +8,9 @@ import androidx.viewpager2.adapter.FragmentStateAdapter;
 import hirondelle.date4j.DateTime;
 
 public class YearPagerAdapter extends FragmentStateAdapter {
+    // Years paged without min and max date
+    public static final int OFFSET = 1000;
+
     public YearPagerAdapter(@NonNull FragmentManager fragmentManager, @NonNull Lifecycle lifecycle, @NonNull MonthCaldroidFragment _parent) {
         super(fragmentManager, lifecycle);
         parent = _parent;
@@ -17,7 +20,7 @@ public class YearPagerAdapter extends FragmentStateAdapter {
         if ((minDateTime != null) && (mMaxDateTime != null)) {
             mItemCount = mMaxDateTime.getYear() - minDateTime.getYear() + 1;
         } else {
-            mItemCount = MonthViewPagerHelper.OFFSET + 1;
+            mItemCount = OFFSET + 1;
         }
     }
 
@@ -1,50 +1,28 @@
 package com.roomorama.caldroid;
 
 import android.view.View;
-import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 
+/*
+ * Sizes the grid of years to its rows, delegating to PagerResizeScheduler
+ * like MonthViewPagerHelper.
+ *
+ * @deprecated kept for code calling it directly, the fragments do not use it
+ */
+@Deprecated
 public class YearViewPagerHelper {
+    private final MonthViewPagerHelper.PagerResizeHelper resizeHelper =
+            new MonthViewPagerHelper.PagerResizeHelper();
 
     public YearViewPagerHelper() {}
 
     public void resizeCalendarViewPager(@NonNull View _parent, @NonNull View _childView) {
-        // Calculate row height
         int rows = 12 / 4;
         resizeCalendarViewPager(_parent, _childView, rows);
     }
 
     public void resizeCalendarViewPager(@NonNull View _parent, @NonNull View _childView, int _rows) {
-        if (rowHeight == 0) {
-            int width = _parent.getMeasuredWidth();
-
-            // Use the previously measured width but simplify the calculations
-            int widthMeasureSpec = View.MeasureSpec.makeMeasureSpec(width,
-                    View.MeasureSpec.EXACTLY);
-
-
-            _childView.measure(widthMeasureSpec, View.MeasureSpec
-                    .makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
-
-            rowHeight = _childView.getMeasuredHeight();
-        }
-
-        // Calculate height of the calendar
-        int calHeight = rowHeight * _rows;
-
-        // Prevent small vertical scroll
-        calHeight -= 12;
-        int heightMeasureSpec = View.MeasureSpec.makeMeasureSpec(calHeight,
-                View.MeasureSpec.EXACTLY);
-
-        ViewGroup.LayoutParams layoutParams = _parent.getLayoutParams();
-        layoutParams.height = heightMeasureSpec;
-        _parent.setLayoutParams(layoutParams);
+        resizeHelper.resize(_parent, _childView, _rows);
     }
-
-    /**
-     * Use internally to decide height of the calendar
-     */
-    private int rowHeight = 0;
 }
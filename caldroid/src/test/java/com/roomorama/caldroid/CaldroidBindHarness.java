@@ -0,0 +1,472 @@
+package com.roomorama.caldroid;
+
+import android.graphics.Canvas;
+import android.graphics.Picture;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Adapter;
+import android.widget.GridView;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentActivity;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.viewpager2.widget.ViewPager2;
+
+/*
+ * Binding harness of the calendar fragments for the Robolectric tests, see
+ * CaldroidBindHarnessTest. It adds a fragment to an activity, lays it out at a
+ * fixed size, moves through pageCount pages and then binds every cell of each
+ * page again.
+ * <p/>
+ * For each page it reports:
+ * - the time to create and lay out the page,
+ * - the number of views inflated or constructed for it, views recycled from
+ * another page are not counted,
+ * - the cells bound while creating it, counted with a CaldroidMetrics set on
+ * the fragment, -1 if the fragment already has metrics of its own,
+ * - the number of cells, the cells bound by the bind pass, counted the same
+ * way, and the time of the bind pass,
+ * - the bytes allocated per cell bind. Allocations are only measured on a JVM
+ * exposing com.sun.management.ThreadMXBean, -1 elsewhere.
+ * <p/>
+ * The metrics of the fragment are restored after a run. All methods must be
+ * called on the main thread.
+ */
+final class CaldroidBindHarness {
+    public static final int DEFAULT_WIDTH = 1080;
+    public static final int DEFAULT_HEIGHT = 1920;
+
+    /*
+     * Measurements of a single page
+     */
+    public static final class PageStats {
+        private final int position;
+        private final long createNanos;
+        private final int inflatedViews;
+        private final int createBinds;
+        private final int cellCount;
+        private final int rebinds;
+        private final long bindNanos;
+        private final long allocatedBytesPerBind;
+
+        PageStats(int position, long createNanos, int inflatedViews, int createBinds,
+                  int cellCount, int rebinds, long bindNanos, long allocatedBytesPerBind) {
+            this.position = position;
+            this.createNanos = createNanos;
+            this.inflatedViews = inflatedViews;
+            this.createBinds = createBinds;
+            this.cellCount = cellCount;
+            this.rebinds = rebinds;
+            this.bindNanos = bindNanos;
+            this.allocatedBytesPerBind = allocatedBytesPerBind;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        public long getCreateNanos() {
+            return createNanos;
+        }
+
+        public int getInflatedViews() {
+            return inflatedViews;
+        }
+
+        /*
+         * Cells bound while creating the page, -1 if not counted
+         */
+        public int getCreateBinds() {
+            return createBinds;
+        }
+
+        public int getCellCount() {
+            return cellCount;
+        }
+
+        /*
+         * Cells bound by the bind pass, -1 if not counted. 0 for MonthView
+         * pages which draw their cells without binding them
+         */
+        public int getRebinds() {
+            return rebinds;
+        }
+
+        public long getBindNanos() {
+            return bindNanos;
+        }
+
+        /*
+         * Bytes allocated per cell bind, -1 if allocations can not be measured
+         */
+        public long getAllocatedBytesPerBind() {
+            return allocatedBytesPerBind;
+        }
+    }
+
+    /*
+     * Measurements of a run
+     */
+    public static final class Report {
+        private final String name;
+        private final long setupNanos;
+        private final List<PageStats> pages;
+
+        Report(String name, long setupNanos, List<PageStats> pages) {
+            this.name = name;
+            this.setupNanos = setupNanos;
+            this.pages = Collections.unmodifiableList(pages);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /*
+         * Time to add the fragment and lay out its first page
+         */
+        public long getSetupNanos() {
+            return setupNanos;
+        }
+
+        @NonNull
+        public List<PageStats> getPages() {
+            return pages;
+        }
+
+        public long getMeanCreateNanos() {
+            if (pages.isEmpty()) {
+                return 0;
+            }
+            long total = 0;
+            for (PageStats page : pages) {
+                total += page.createNanos;
+            }
+            return total / pages.size();
+        }
+
+        public int getTotalInflatedViews() {
+            int total = 0;
+            for (PageStats page : pages) {
+                total += page.inflatedViews;
+            }
+            return total;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(String.format(Locale.US, "%s: setup %.3f ms, %d pages, mean create %.3f ms, %d views inflated%n",
+                    name, setupNanos / 1e6, pages.size(), getMeanCreateNanos() / 1e6,
+                    getTotalInflatedViews()));
+            builder.append("position  create ms  inflated  binds  cells  rebinds  bind ms  bytes/bind\n");
+            for (PageStats page : pages) {
+                builder.append(String.format(Locale.US, "%8d  %9.3f  %8d  %5d  %5d  %7d  %7.3f  %10d%n",
+                        page.position, page.createNanos / 1e6, page.inflatedViews,
+                        page.createBinds, page.cellCount, page.rebinds, page.bindNanos / 1e6,
+                        page.allocatedBytesPerBind));
+            }
+            return builder.toString();
+        }
+    }
+
+    /*
+     * Counts the cells bound by the adapters of the fragment
+     */
+    static final class BindCounter implements CaldroidMetrics {
+        int cellBinds;
+
+        @Override
+        public void onCellBound(long nanos) {
+            cellBinds++;
+        }
+    }
+
+    private final FragmentActivity activity;
+    private final int width;
+    private final int height;
+
+    // Every view seen so far, to tell inflated views from recycled ones
+    private final Set<View> seenViews = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private static Object threadMXBean;
+    private static Method allocatedBytesMethod;
+    private static boolean allocationsChecked;
+
+    CaldroidBindHarness(@NonNull FragmentActivity activity) {
+        this(activity, DEFAULT_WIDTH, DEFAULT_HEIGHT);
+    }
+
+    /*
+     * @param width  : width in pixels the fragments are laid out at
+     * @param height : height in pixels the fragments are laid out at
+     */
+    CaldroidBindHarness(@NonNull FragmentActivity activity, int width, int height) {
+        this.activity = activity;
+        this.width = width;
+        this.height = height;
+    }
+
+    /*
+     * Show the fragment and move forward through pageCount pages, from the
+     * month of its arguments
+     */
+    @MainThread
+    @NonNull
+    public Report run(@NonNull DateCaldroidFragment fragment, int pageCount) {
+        CaldroidMetrics previous = fragment.getMetrics();
+        BindCounter counter = null;
+        if (previous == null) {
+            counter = new BindCounter();
+            fragment.setMetrics(counter);
+        }
+        try {
+            long setupNanos = show(fragment);
+            List<PageStats> pages = runPages(fragment, fragment.getDateViewPager(), pageCount, counter);
+            return new Report("DateCaldroidFragment", setupNanos, pages);
+        } finally {
+            remove(fragment);
+            fragment.setMetrics(previous);
+        }
+    }
+
+    /*
+     * Show the fragment and move forward through pageCount years
+     */
+    @MainThread
+    @NonNull
+    public Report run(@NonNull MonthCaldroidFragment fragment, int pageCount) {
+        CaldroidMetrics previous = fragment.getMetrics();
+        BindCounter counter = null;
+        if (previous == null) {
+            counter = new BindCounter();
+            fragment.setMetrics(counter);
+        }
+        try {
+            long setupNanos = show(fragment);
+            List<PageStats> pages = runPages(fragment, fragment.getMonthViewPager(), pageCount, counter);
+            return new Report("MonthCaldroidFragment", setupNanos, pages);
+        } finally {
+            remove(fragment);
+            fragment.setMetrics(previous);
+        }
+    }
+
+    /*
+     * Show the fragment, it has a single page, the grid of years
+     */
+    @MainThread
+    @NonNull
+    public Report run(@NonNull YearCaldroidFragment fragment) {
+        CaldroidMetrics previous = fragment.getMetrics();
+        BindCounter counter = null;
+        if (previous == null) {
+            counter = new BindCounter();
+            fragment.setMetrics(counter);
+        }
+        try {
+            seenViews.clear();
+            long setupNanos = show(fragment);
+            View root = fragment.requireView();
+
+            List<PageStats> pages = new ArrayList<>();
+            pages.add(bindPage(0, setupNanos, counter != null ? counter.cellBinds : -1,
+                    root, counter));
+            return new Report("YearCaldroidFragment", setupNanos, pages);
+        } finally {
+            remove(fragment);
+            fragment.setMetrics(previous);
+        }
+    }
+
+    /*
+     * Add the fragment to the activity and lay it out
+     *
+     * @return time it took
+     */
+    long show(@NonNull Fragment fragment) {
+        long start = SystemClock.elapsedRealtimeNanos();
+        activity.getSupportFragmentManager().beginTransaction()
+                .add(android.R.id.content, fragment)
+                .commitNow();
+        layout(fragment.requireView());
+        return SystemClock.elapsedRealtimeNanos() - start;
+    }
+
+    void remove(@NonNull Fragment fragment) {
+        if (fragment.isAdded()) {
+            activity.getSupportFragmentManager().beginTransaction()
+                    .remove(fragment)
+                    .commitNow();
+        }
+    }
+
+    void layout(@NonNull View root) {
+        root.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        root.layout(0, 0, width, height);
+    }
+
+    private List<PageStats> runPages(Fragment fragment, ViewPager2 pager, int pageCount,
+                                     @Nullable BindCounter counter) {
+        View root = fragment.requireView();
+        RecyclerView recyclerView = (RecyclerView) pager.getChildAt(0);
+
+        // Views of the first page and of the offscreen ones are not inflated
+        // by a page change
+        seenViews.clear();
+        collectViews(root);
+
+        List<PageStats> pages = new ArrayList<>(pageCount);
+        int firstPosition = pager.getCurrentItem();
+        int itemCount = pager.getAdapter() != null ? pager.getAdapter().getItemCount() : 0;
+        for (int i = 1; i <= pageCount && firstPosition + i < itemCount; i++) {
+            int position = firstPosition + i;
+
+            int bindsBefore = counter != null ? counter.cellBinds : 0;
+            long start = SystemClock.elapsedRealtimeNanos();
+            pager.setCurrentItem(position, false);
+            activity.getSupportFragmentManager().executePendingTransactions();
+            layout(root);
+            long createNanos = SystemClock.elapsedRealtimeNanos() - start;
+            int createBinds = counter != null ? counter.cellBinds - bindsBefore : -1;
+
+            RecyclerView.ViewHolder holder = recyclerView.findViewHolderForAdapterPosition(position);
+            if (holder != null) {
+                pages.add(bindPage(position, createNanos, createBinds, holder.itemView, counter));
+            }
+        }
+        return pages;
+    }
+
+    private PageStats bindPage(int position, long createNanos, int createBinds, View page,
+                               @Nullable BindCounter counter) {
+        int inflatedViews = collectViews(page);
+
+        View cells = findCells(page);
+        int cellCount = 0;
+        int rebinds = 0;
+        long bindNanos = 0;
+        long allocatedBytesPerBind = -1;
+
+        if (cells instanceof GridView) {
+            GridView gridView = (GridView) cells;
+            Adapter adapter = gridView.getAdapter();
+            int firstPosition = gridView.getFirstVisiblePosition();
+            cellCount = gridView.getChildCount();
+
+            int bindsBefore = counter != null ? counter.cellBinds : 0;
+            long allocatedBefore = getAllocatedBytes();
+            long start = SystemClock.elapsedRealtimeNanos();
+            for (int i = 0; i < cellCount; i++) {
+                adapter.getView(firstPosition + i, gridView.getChildAt(i), gridView);
+            }
+            bindNanos = SystemClock.elapsedRealtimeNanos() - start;
+            long allocatedAfter = getAllocatedBytes();
+
+            rebinds = counter != null ? counter.cellBinds - bindsBefore : -1;
+            if (allocatedBefore >= 0 && cellCount > 0) {
+                allocatedBytesPerBind = (allocatedAfter - allocatedBefore) / cellCount;
+            }
+        } else if (cells instanceof MonthView) {
+            MonthView monthView = (MonthView) cells;
+            DateGridAdapter adapter = monthView.getAdapter();
+            cellCount = adapter != null ? adapter.getCount() : 0;
+
+            // A MonthView binds its cells when it draws, from a new page model
+            Picture picture = new Picture();
+            Canvas canvas = picture.beginRecording(Math.max(1, monthView.getWidth()),
+                    Math.max(1, monthView.getHeight()));
+            long allocatedBefore = getAllocatedBytes();
+            long start = SystemClock.elapsedRealtimeNanos();
+            if (adapter != null) {
+                adapter.invalidatePageModel();
+            }
+            monthView.draw(canvas);
+            bindNanos = SystemClock.elapsedRealtimeNanos() - start;
+            long allocatedAfter = getAllocatedBytes();
+            picture.endRecording();
+
+            if (allocatedBefore >= 0 && cellCount > 0) {
+                allocatedBytesPerBind = (allocatedAfter - allocatedBefore) / cellCount;
+            }
+        }
+
+        return new PageStats(position, createNanos, inflatedViews, createBinds, cellCount,
+                rebinds, bindNanos, allocatedBytesPerBind);
+    }
+
+    /*
+     * Add view and its descendants to the seen views
+     *
+     * @return number of views not seen before
+     */
+    private int collectViews(View view) {
+        int added = seenViews.add(view) ? 1 : 0;
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                added += collectViews(group.getChildAt(i));
+            }
+        }
+        return added;
+    }
+
+    @Nullable
+    private static View findCells(View view) {
+        if (view instanceof GridView || view instanceof MonthView) {
+            return view;
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                View cells = findCells(group.getChildAt(i));
+                if (cells != null) {
+                    return cells;
+                }
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Bytes allocated so far by the current thread, -1 if not available
+     */
+    private static long getAllocatedBytes() {
+        if (!allocationsChecked) {
+            allocationsChecked = true;
+            try {
+                Class<?> factory = Class.forName("java.lang.management.ManagementFactory");
+                threadMXBean = factory.getMethod("getThreadMXBean").invoke(null);
+                Class<?> beanClass = Class.forName("com.sun.management.ThreadMXBean");
+                if (beanClass.isInstance(threadMXBean)) {
+                    allocatedBytesMethod = beanClass.getMethod("getThreadAllocatedBytes", long.class);
+                }
+            } catch (ReflectiveOperationException | LinkageError e) {
+                allocatedBytesMethod = null;
+            }
+        }
+        if (allocatedBytesMethod == null) {
+            return -1;
+        }
+
+        try {
+            return (Long) allocatedBytesMethod.invoke(threadMXBean, Thread.currentThread().getId());
+        } catch (ReflectiveOperationException e) {
+            return -1;
+        }
+    }
+}
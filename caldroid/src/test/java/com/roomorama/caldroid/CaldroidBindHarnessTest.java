@@ -0,0 +1,111 @@
+package com.roomorama.caldroid;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+import androidx.fragment.app.FragmentActivity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class CaldroidBindHarnessTest {
+    private static final int PAGE_COUNT = 12;
+
+    // Pages created before the pager has pages to recycle
+    private static final int WARM_UP_PAGES = 4;
+
+    private CaldroidBindHarness harness;
+
+    @Before
+    public void setUp() {
+        FragmentActivity activity = Robolectric.buildActivity(FragmentActivity.class).setup().get();
+        harness = new CaldroidBindHarness(activity);
+    }
+
+    @Test
+    public void datePagesBindEachCellOncePerPass() {
+        CaldroidBindHarness.Report report = harness.run(new DateCaldroidFragment(), PAGE_COUNT);
+
+        assertEquals(PAGE_COUNT, report.getPages().size());
+        for (CaldroidBindHarness.PageStats page : report.getPages()) {
+            assertEquals(0, page.getCellCount() % 7);
+            assertTrue(page.getCellCount() >= 28 && page.getCellCount() <= 42);
+            assertTrue(page.getCreateBinds() >= page.getCellCount());
+            assertEquals(page.getCellCount(), page.getRebinds());
+        }
+    }
+
+    @Test
+    public void datePagesRecycleTheirViews() {
+        CaldroidBindHarness.Report report = harness.run(new DateCaldroidFragment(), PAGE_COUNT);
+
+        // A recycled page only needs new cells for a week more than before
+        for (int i = WARM_UP_PAGES; i < report.getPages().size(); i++) {
+            assertTrue(report.toString(), report.getPages().get(i).getInflatedViews() <= 7);
+        }
+    }
+
+    @Test
+    public void monthAndYearPagesBindEachCellOncePerPass() {
+        CaldroidBindHarness.Report monthReport = harness.run(new MonthCaldroidFragment(), 3);
+        for (CaldroidBindHarness.PageStats page : monthReport.getPages()) {
+            assertEquals(12, page.getCellCount());
+            assertEquals(page.getCellCount(), page.getRebinds());
+        }
+
+        YearCaldroidFragment yearFragment = new YearCaldroidFragment();
+        yearFragment.setMinDate(new GregorianCalendar(2010, Calendar.JANUARY, 1).getTime());
+        yearFragment.setMaxDate(new GregorianCalendar(2021, Calendar.DECEMBER, 31).getTime());
+        CaldroidBindHarness.Report yearReport = harness.run(yearFragment);
+        assertEquals(1, yearReport.getPages().size());
+        CaldroidBindHarness.PageStats page = yearReport.getPages().get(0);
+        assertEquals(12, page.getCellCount());
+        assertEquals(page.getCellCount(), page.getRebinds());
+    }
+
+    @Test
+    public void runRestoresTheMetrics() {
+        DateCaldroidFragment fragment = new DateCaldroidFragment();
+        harness.run(fragment, 1);
+        assertNull(fragment.getMetrics());
+
+        CaldroidMetrics metrics = new CaldroidMetrics() {
+        };
+        fragment = new DateCaldroidFragment();
+        fragment.setMetrics(metrics);
+        CaldroidBindHarness.Report report = harness.run(fragment, 1);
+        assertSame(metrics, fragment.getMetrics());
+        assertEquals(-1, report.getPages().get(0).getCreateBinds());
+    }
+
+    @Test
+    public void refreshViewOnlyRebindsChangedState() {
+        DateCaldroidFragment fragment = new DateCaldroidFragment();
+        CaldroidBindHarness.BindCounter counter = new CaldroidBindHarness.BindCounter();
+        fragment.setMetrics(counter);
+        harness.show(fragment);
+        try {
+            int binds = counter.cellBinds;
+            fragment.refreshView();
+            harness.layout(fragment.requireView());
+            assertEquals(binds, counter.cellBinds);
+
+            fragment.setSelectedDate(new Date());
+            fragment.refreshView();
+            harness.layout(fragment.requireView());
+            assertTrue(counter.cellBinds > binds);
+        } finally {
+            harness.remove(fragment);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.roomorama.caldroid;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DateBitSetTest {
+    @Test
+    public void addsAndRemovesDates() {
+        DateBitSet set = new DateBitSet();
+        int day = EpochDay.of(2024, 2, 29);
+        set.add(day);
+        assertTrue(set.contains(day));
+        assertFalse(set.contains(day - 1));
+        assertEquals(1, set.size());
+        assertEquals(1 << 28, set.getMonthWord(EpochDay.toEpochMonth(2024, 2)));
+
+        set.remove(day);
+        assertTrue(set.isEmpty());
+        assertFalse(set.anyInMonth(2024, 2));
+    }
+
+    @Test
+    public void togglesDates() {
+        DateBitSet set = new DateBitSet();
+        int day = EpochDay.of(1969, 12, 31);
+        assertTrue(set.toggle(day));
+        assertTrue(set.contains(day));
+        assertFalse(set.toggle(day));
+        assertFalse(set.contains(day));
+    }
+
+    @Test
+    public void rangesSpanMonthsAndYears() {
+        DateBitSet set = new DateBitSet();
+        int from = EpochDay.of(2023, 12, 30);
+        int to = EpochDay.of(2024, 3, 2);
+        set.addRange(from, to);
+        assertEquals(to - from + 1, set.size());
+        assertTrue(set.anyInYear(2023));
+        assertTrue(set.anyInMonth(2024, 2));
+        assertFalse(set.anyInYear(2025));
+        assertEquals(0x1FFFFFFF, set.getMonthWord(EpochDay.toEpochMonth(2024, 2)));
+
+        set.removeRange(EpochDay.of(2024, 1, 1), EpochDay.of(2024, 2, 29));
+        assertArrayEquals(new int[]{from, from + 1, to - 1, to}, set.toEpochDays());
+    }
+
+    @Test
+    public void findsTheNextDate() {
+        DateBitSet set = new DateBitSet();
+        int first = EpochDay.of(2024, 1, 31);
+        int second = EpochDay.of(2024, 5, 1);
+        set.add(first);
+        set.add(second);
+        assertEquals(first, set.nextSetDay(first));
+        assertEquals(second, set.nextSetDay(first + 1));
+        assertEquals(Integer.MIN_VALUE, set.nextSetDay(second + 1));
+    }
+
+    @Test
+    public void encodesMonthsAsArray() {
+        DateBitSet set = new DateBitSet();
+        set.add(EpochDay.of(2024, 1, 1));
+        set.add(EpochDay.of(2024, 1, 3));
+        set.add(EpochDay.of(2030, 7, 31));
+
+        DateBitSet copy = DateBitSet.fromArray(set.toArray());
+        assertEquals(set, copy);
+        assertEquals(set.hashCode(), copy.hashCode());
+        assertEquals(3, copy.toDateTimeList().size());
+    }
+
+    @Test
+    public void versionChangesWithTheSet() {
+        DateBitSet set = new DateBitSet();
+        int version = set.getVersion();
+        set.add(10);
+        assertNotEquals(version, set.getVersion());
+
+        version = set.getVersion();
+        set.add(10);
+        set.remove(11);
+        assertEquals(version, set.getVersion());
+    }
+
+    @Test
+    public void addsAndRemovesSets() {
+        DateBitSet set = new DateBitSet();
+        set.addRange(0, 9);
+        DateBitSet other = new DateBitSet();
+        other.addRange(5, 40);
+
+        DateBitSet union = new DateBitSet(set);
+        union.addAll(other);
+        assertEquals(41, union.size());
+
+        union.removeAll(other);
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, union.toEpochDays());
+        assertEquals(10, set.size());
+    }
+}
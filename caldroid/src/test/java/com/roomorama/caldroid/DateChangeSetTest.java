@@ -0,0 +1,71 @@
+package com.roomorama.caldroid;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DateChangeSetTest {
+    @Test
+    public void appliesChangesToTheSets() {
+        DateBitSet selected = new DateBitSet();
+        DateRangeSet disabled = new DateRangeSet();
+        int day = EpochDay.of(2024, 3, 10);
+        selected.add(day);
+
+        DateBitSet changed = new DateChangeSet()
+                .select(day)
+                .select(day + 1)
+                .unselect(day + 2)
+                .disable(day + 3)
+                .applyTo(selected, disabled);
+
+        assertArrayEquals(new int[]{day + 1, day + 3}, changed.toEpochDays());
+        assertTrue(selected.contains(day + 1));
+        assertTrue(disabled.contains(day + 3));
+    }
+
+    @Test
+    public void unselectsAndEnablesDatesOfTheLists() {
+        DateBitSet selected = new DateBitSet();
+        DateRangeSet disabled = new DateRangeSet();
+        DateTimeList selectedList = new DateTimeList();
+        DateTimeList disableList = new DateTimeList();
+        int day = EpochDay.of(2024, 3, 10);
+        selectedList.add(EpochDay.toDateTime(day));
+        selectedList.add(EpochDay.toDateTime(day + 1));
+        disableList.add(EpochDay.toDateTime(day + 2));
+
+        DateBitSet changed = new DateChangeSet()
+                .unselect(day)
+                .enable(day + 2)
+                .applyTo(selected, disabled, selectedList, disableList);
+
+        assertArrayEquals(new int[]{day, day + 2}, changed.toEpochDays());
+        assertEquals(1, selectedList.size());
+        assertEquals(day + 1, EpochDay.fromDateTime(selectedList.get(0)));
+        assertTrue(disableList.isEmpty());
+    }
+
+    @Test
+    public void datesOfTheListsDoNotCountAsChanged() {
+        DateBitSet selected = new DateBitSet();
+        DateRangeSet disabled = new DateRangeSet();
+        DateTimeList selectedList = new DateTimeList();
+        DateTimeList disableList = new DateTimeList();
+        int day = EpochDay.of(2024, 3, 10);
+        selectedList.add(EpochDay.toDateTime(day));
+        disableList.add(EpochDay.toDateTime(day + 1));
+
+        DateBitSet changed = new DateChangeSet()
+                .select(day)
+                .disable(day + 1)
+                .applyTo(selected, disabled, selectedList, disableList);
+
+        assertTrue(changed.isEmpty());
+        assertFalse(selectedList.isEmpty());
+        assertFalse(disableList.isEmpty());
+    }
+}
@@ -0,0 +1,100 @@
+package com.roomorama.caldroid;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DateRangeSetTest {
+    @Test
+    public void mergesAdjacentAndOverlappingRanges() {
+        DateRangeSet set = new DateRangeSet();
+        set.addRange(10, 20);
+        set.addRange(30, 40);
+        set.add(21);
+        assertArrayEquals(new int[]{10, 21, 30, 40}, set.toArray());
+
+        set.addRange(15, 35);
+        assertArrayEquals(new int[]{10, 40}, set.toArray());
+        assertEquals(1, set.getRangeCount());
+        assertEquals(31, set.getDayCount());
+    }
+
+    @Test
+    public void keepsRangesSorted() {
+        DateRangeSet set = new DateRangeSet();
+        for (int start = 100; start >= 0; start -= 10) {
+            set.addRange(start, start + 2);
+        }
+        assertEquals(11, set.getRangeCount());
+        for (int i = 1; i < set.getRangeCount(); i++) {
+            assertTrue(set.getRangeEnd(i - 1) + 1 < set.getRangeStart(i));
+        }
+    }
+
+    @Test
+    public void containsAndIntersects() {
+        DateRangeSet set = DateRangeSet.fromArray(new int[]{-5, 5, 20, 30});
+        assertTrue(set.contains(-5));
+        assertTrue(set.contains(5));
+        assertFalse(set.contains(6));
+        assertFalse(set.contains(19));
+        assertTrue(set.contains(25));
+
+        assertTrue(set.intersects(6, 20));
+        assertFalse(set.intersects(6, 19));
+        assertTrue(set.containsRange(21, 29));
+        assertFalse(set.containsRange(4, 21));
+        assertTrue(set.containsRange(1, 0));
+    }
+
+    @Test
+    public void removesRangesAcrossIntervals() {
+        DateRangeSet set = DateRangeSet.fromArray(new int[]{0, 10, 20, 30, 40, 50});
+        set.removeRange(5, 45);
+        assertArrayEquals(new int[]{0, 4, 46, 50}, set.toArray());
+
+        set.remove(2);
+        assertArrayEquals(new int[]{0, 1, 3, 4, 46, 50}, set.toArray());
+
+        set.clear();
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    public void versionChangesWithTheSet() {
+        DateRangeSet set = new DateRangeSet();
+        int version = set.getVersion();
+        set.addRange(1, 3);
+        assertNotEquals(version, set.getVersion());
+
+        version = set.getVersion();
+        set.removeRange(2, 2);
+        assertNotEquals(version, set.getVersion());
+
+        version = set.getVersion();
+        set.clear();
+        assertNotEquals(version, set.getVersion());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsReversedRanges() {
+        new DateRangeSet().addRange(10, 9);
+    }
+
+    @Test
+    public void copiesAndCompares() {
+        DateRangeSet set = DateRangeSet.fromArray(new int[]{1, 3, 7, 7});
+        DateRangeSet copy = new DateRangeSet(set);
+        assertEquals(set, copy);
+        assertEquals(set.hashCode(), copy.hashCode());
+
+        copy.add(4);
+        assertNotEquals(set, copy);
+        assertArrayEquals(new int[]{1, 3, 7, 7}, set.toArray());
+        assertEquals(5, copy.toDateTimeList().size());
+    }
+}
@@ -0,0 +1,87 @@
+package com.roomorama.caldroid;
+
+import android.os.Parcel;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+
+import hirondelle.date4j.DateTime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class DateSetParcelTest {
+    @Test
+    public void roundTripsRanges() {
+        int[] ranges = {EpochDay.of(1, 1, 1), EpochDay.of(1, 1, 3),
+                -1, 0, 100, 100, EpochDay.of(9999, 12, 1), EpochDay.of(9999, 12, 31)};
+        DateSetParcel parcel = DateSetParcel.of(DateRangeSet.fromArray(ranges));
+        assertArrayEquals(ranges, parcel.toRangeArray());
+
+        DateRangeSet set = new DateRangeSet();
+        parcel.addTo(set);
+        assertArrayEquals(ranges, set.toArray());
+    }
+
+    @Test
+    public void roundTripsBitSets() {
+        DateBitSet bits = new DateBitSet();
+        for (int epochDay = 0; epochDay < 365; epochDay += 2) {
+            bits.add(epochDay);
+        }
+        bits.addRange(1000, 1100);
+
+        DateSetParcel parcel = DateSetParcel.of(bits);
+        DateBitSet copy = new DateBitSet();
+        parcel.addTo(copy);
+        assertEquals(bits, copy);
+
+        // Every other day of a year stays far below the size of the strings
+        assertTrue(parcel.getEncodedSize() < 1024);
+    }
+
+    @Test
+    public void sortsAndMergesDateTimes() {
+        DateSetParcel parcel = DateSetParcel.ofDateTimes(Arrays.asList(
+                new DateTime("2013-07-03"), null, new DateTime("2013-07-01"),
+                new DateTime("2013-07-02"), new DateTime("2013-07-02")));
+        assertArrayEquals(new int[]{EpochDay.of(2013, 7, 1), EpochDay.of(2013, 7, 3)},
+                parcel.toRangeArray());
+        assertEquals(3, parcel.toDateTimeList().size());
+    }
+
+    @Test
+    public void encodesEmptySets() {
+        DateSetParcel parcel = DateSetParcel.of(new DateRangeSet());
+        assertEquals(0, parcel.toRangeArray().length);
+        assertEquals(1, parcel.getEncodedSize());
+    }
+
+    @Test
+    public void roundTripsThroughAndroidParcel() {
+        DateBitSet bits = new DateBitSet();
+        bits.addRange(EpochDay.of(2024, 1, 1), EpochDay.of(2024, 1, 10));
+        bits.add(EpochDay.of(2024, 3, 1));
+        DateSetParcel original = DateSetParcel.of(bits);
+
+        Parcel parcel = Parcel.obtain();
+        try {
+            original.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            DateSetParcel copy = DateSetParcel.CREATOR.createFromParcel(parcel);
+            assertEquals(original.getEncodedSize(), copy.getEncodedSize());
+            assertArrayEquals(original.toRangeArray(), copy.toRangeArray());
+
+            DateBitSet copyBits = new DateBitSet();
+            copy.addTo(copyBits);
+            assertEquals(bits, copyBits);
+        } finally {
+            parcel.recycle();
+        }
+    }
+}
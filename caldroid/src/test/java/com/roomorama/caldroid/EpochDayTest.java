@@ -0,0 +1,95 @@
+package com.roomorama.caldroid;
+
+import org.junit.Test;
+
+import hirondelle.date4j.DateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EpochDayTest {
+    @Test
+    public void epochStartsOnJanuaryFirst1970() {
+        assertEquals(0, EpochDay.of(1970, 1, 1));
+        assertEquals(-1, EpochDay.of(1969, 12, 31));
+        assertEquals(59, EpochDay.of(1970, 3, 1));
+    }
+
+    @Test
+    public void splitsEpochDaysIntoDates() {
+        int[][] dates = {{1, 1, 1}, {1600, 2, 29}, {1969, 12, 31}, {2000, 2, 29},
+                {2013, 2, 28}, {2024, 12, 31}, {9999, 12, 31}};
+        for (int[] date : dates) {
+            int epochDay = EpochDay.of(date[0], date[1], date[2]);
+            assertEquals(date[0], EpochDay.yearOf(epochDay));
+            assertEquals(date[1], EpochDay.monthOf(epochDay));
+            assertEquals(date[2], EpochDay.dayOf(epochDay));
+        }
+    }
+
+    @Test
+    public void countsEveryDayOnce() {
+        int epochDay = EpochDay.of(1899, 1, 1);
+        for (int year = 1899; year <= 2101; year++) {
+            for (int month = 1; month <= 12; month++) {
+                for (int day = 1; day <= EpochDay.daysInMonth(year, month); day++) {
+                    assertEquals(epochDay++, EpochDay.of(year, month, day));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rollsOverflowingDaysIntoTheNextMonth() {
+        assertEquals(EpochDay.of(2013, 3, 2), EpochDay.of(2013, 2, 30));
+        assertEquals(EpochDay.of(2013, 2, 28), EpochDay.of(2013, 3, 0));
+    }
+
+    @Test
+    public void weekDaysFollowDate4J() {
+        // 1970-01-01 was a Thursday
+        assertEquals(5, EpochDay.weekDayOf(0));
+        assertEquals(4, EpochDay.weekDayOf(-1));
+        int epochDay = EpochDay.of(2024, 6, 2);
+        assertEquals(new DateTime("2024-06-02").getWeekDay().intValue(), EpochDay.weekDayOf(epochDay));
+        assertEquals(1, EpochDay.weekDayOf(epochDay));
+    }
+
+    @Test
+    public void leapYears() {
+        assertTrue(EpochDay.isLeapYear(2000));
+        assertTrue(EpochDay.isLeapYear(2024));
+        assertFalse(EpochDay.isLeapYear(1900));
+        assertFalse(EpochDay.isLeapYear(2023));
+        assertEquals(29, EpochDay.daysInMonth(2024, 2));
+        assertEquals(28, EpochDay.daysInMonth(1900, 2));
+        assertEquals(30, EpochDay.daysInMonth(2024, 11));
+    }
+
+    @Test
+    public void epochMonths() {
+        int epochMonth = EpochDay.toEpochMonth(2024, 3);
+        assertEquals(2024 * 12 + 2, epochMonth);
+        assertEquals(epochMonth, EpochDay.epochMonthOf(EpochDay.of(2024, 3, 31)));
+    }
+
+    @Test
+    public void convertsDateTimes() {
+        DateTime dateTime = new DateTime("2013-07-15");
+        int epochDay = EpochDay.fromDateTime(dateTime);
+        assertEquals(EpochDay.of(2013, 7, 15), epochDay);
+        assertEquals(dateTime, EpochDay.toDateTime(epochDay).truncate(DateTime.Unit.DAY));
+        assertEquals(epochDay, EpochDay.fromDate(EpochDay.toDate(epochDay)));
+    }
+
+    @Test
+    public void instancesCompareByDay() {
+        EpochDay first = EpochDay.valueOf(2024, 1, 31);
+        EpochDay second = first.plusDays(1);
+        assertEquals(EpochDay.valueOf(2024, 2, 1), second);
+        assertEquals(EpochDay.valueOf(2024, 2, 1).hashCode(), second.hashCode());
+        assertTrue(first.compareTo(second) < 0);
+        assertEquals(2, second.getMonth());
+    }
+}
@@ -0,0 +1,91 @@
+package com.roomorama.caldroid;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import hirondelle.date4j.DateTime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class IsoDateCodecTest {
+    @Test
+    public void parsesDates() {
+        assertEquals(EpochDay.of(2013, 7, 5), IsoDateCodec.parse("2013-07-05"));
+        assertEquals(EpochDay.of(2013, 7, 5), IsoDateCodec.parse("2013-7-5"));
+        assertEquals(EpochDay.of(1, 1, 1), IsoDateCodec.parse("1-01-01"));
+    }
+
+    @Test
+    public void ignoresTextAfterTheDay() {
+        assertEquals(EpochDay.of(2013, 7, 5), IsoDateCodec.parse("2013-07-05 10:30"));
+        assertEquals(EpochDay.of(2013, 7, 5), IsoDateCodec.parse("2013-07-05T10:30"));
+    }
+
+    @Test
+    public void rollsOverNonExistentDates() {
+        assertEquals(EpochDay.of(2013, 3, 2), IsoDateCodec.parse("2013-02-30"));
+        assertEquals(EpochDay.of(2014, 1, 1), IsoDateCodec.parse("2013-13-01"));
+        assertEquals(EpochDay.of(2013, 2, 28), IsoDateCodec.parse("2013-03-00"));
+        assertEquals(EpochDay.of(2012, 12, 10), IsoDateCodec.parse("2013-00-10"));
+    }
+
+    @Test
+    public void rejectsText() {
+        String[] texts = {"", "2013", "2013-07", "2013/07/05", "2013-07-", "-07-05",
+                "20130-07-05", "2013-007-05", "2013-07-005", "july"};
+        for (String text : texts) {
+            assertEquals(text, IsoDateCodec.INVALID, IsoDateCodec.parse(text));
+        }
+    }
+
+    @Test
+    public void formatsLikeDate4J() {
+        int[] epochDays = {EpochDay.of(1000, 1, 1), EpochDay.of(1969, 12, 31),
+                EpochDay.of(2024, 2, 29), EpochDay.of(9999, 12, 31)};
+        for (int epochDay : epochDays) {
+            String text = IsoDateCodec.format(epochDay);
+            assertEquals(EpochDay.toDateTime(epochDay).format("YYYY-MM-DD"), text);
+            assertEquals(epochDay, IsoDateCodec.parse(text));
+        }
+
+        // Years are padded to 4 digits
+        assertEquals("0001-01-01", IsoDateCodec.format(EpochDay.of(1, 1, 1)));
+
+        StringBuilder builder = new StringBuilder("date ");
+        IsoDateCodec.formatTo(EpochDay.of(2013, 7, 5), builder);
+        assertEquals("date 2013-07-05", builder.toString());
+    }
+
+    @Test
+    public void parseAllSkipsInvalidText() {
+        int[] epochDays = IsoDateCodec.parseAll(Arrays.asList("2013-07-05", "nope", "2013-07-01"));
+        assertArrayEquals(new int[]{EpochDay.of(2013, 7, 5), EpochDay.of(2013, 7, 1)}, epochDays);
+    }
+
+    @Test
+    public void parseIntoMergesConsecutiveDates() {
+        DateRangeSet ranges = new DateRangeSet();
+        int count = IsoDateCodec.parseInto(Arrays.asList(
+                "2013-07-03", "2013-07-01", "2013-07-02", "2013-07-10", "nope"), ranges);
+        assertEquals(4, count);
+        assertArrayEquals(new int[]{EpochDay.of(2013, 7, 1), EpochDay.of(2013, 7, 3),
+                EpochDay.of(2013, 7, 10), EpochDay.of(2013, 7, 10)}, ranges.toArray());
+
+        DateBitSet bits = new DateBitSet();
+        assertEquals(2, IsoDateCodec.parseInto(Arrays.asList("2013-07-03", "2013-02-30"), bits));
+        assertArrayEquals(new int[]{EpochDay.of(2013, 3, 2), EpochDay.of(2013, 7, 3)},
+                bits.toEpochDays());
+    }
+
+    @Test
+    public void formatsDateTimeLists() {
+        ArrayList<DateTime> dateTimes = IsoDateCodec.parseDateTimes(
+                Arrays.asList("2013-07-05", "2014-01-31"));
+        assertEquals(Arrays.asList("2013-07-05", "2014-01-31"), IsoDateCodec.formatAll(dateTimes));
+        assertEquals(Arrays.asList("2013-07-05"),
+                IsoDateCodec.formatAll(new int[]{EpochDay.of(2013, 7, 5)}));
+    }
+}
@@ -0,0 +1,57 @@
+package com.roomorama.caldroid;
+
+import org.junit.Test;
+
+import hirondelle.date4j.DateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MonthPageRangeTest {
+    @Test
+    public void coversTheMonthsOfMinAndMaxDate() {
+        MonthPageRange range = new MonthPageRange(new DateTime("2023-11-15"), new DateTime("2024-02-03"));
+        assertEquals(4, range.getItemCount());
+        assertEquals(11, range.positionToMonth(0));
+        assertEquals(2023, range.positionToYear(0));
+        assertEquals(2, range.positionToMonth(3));
+        assertEquals(2024, range.positionToYear(3));
+        assertEquals(new DateTime(2024, 1, 1, 0, 0, 0, 0), range.positionToDateTime(2));
+    }
+
+    @Test
+    public void coversAllYearsWithoutBounds() {
+        MonthPageRange range = new MonthPageRange(null, null);
+        assertEquals(9999 * 12, range.getItemCount());
+        assertEquals(MonthPageRange.MIN_EPOCH_MONTH, range.positionToEpochMonth(0));
+        assertEquals(MonthPageRange.MAX_EPOCH_MONTH,
+                range.positionToEpochMonth(range.getItemCount() - 1));
+    }
+
+    @Test
+    public void clampsPositions() {
+        MonthPageRange range = new MonthPageRange(new DateTime("2024-01-01"), new DateTime("2024-12-31"));
+        assertEquals(0, range.dateTimeToPosition(new DateTime("2020-06-01")));
+        assertEquals(5, range.dateTimeToPosition(new DateTime("2024-06-30")));
+        assertEquals(11, range.dateTimeToPosition(new DateTime("2030-01-01")));
+
+        int epochMonth = EpochDay.toEpochMonth(2024, 6);
+        assertEquals(5, range.epochMonthToPosition(epochMonth));
+        assertTrue(range.containsEpochMonth(epochMonth));
+        assertFalse(range.containsEpochMonth(EpochDay.toEpochMonth(2025, 1)));
+    }
+
+    @Test
+    public void reportsChangedBounds() {
+        MonthPageRange range = new MonthPageRange(new DateTime("2024-01-01"), new DateTime("2024-12-31"));
+        assertFalse(range.setBounds(new DateTime("2024-01-20"), new DateTime("2024-12-01")));
+        assertTrue(range.setBounds(new DateTime("2023-12-01"), new DateTime("2024-12-01")));
+        assertEquals(13, range.getItemCount());
+
+        // Max before min shows the month of min
+        assertTrue(range.setBounds(new DateTime("2024-05-01"), new DateTime("2024-01-01")));
+        assertEquals(1, range.getItemCount());
+        assertEquals(5, range.positionToMonth(0));
+    }
+}
@@ -0,0 +1,151 @@
+package com.roomorama.caldroid.benchmark;
+
+import com.roomorama.caldroid.CalendarHelper;
+import com.roomorama.caldroid.DateRangeSet;
+import com.roomorama.caldroid.EpochDay;
+import com.roomorama.caldroid.IsoDateCodec;
+import com.roomorama.caldroid.MonthLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Random;
+
+import hirondelle.date4j.DateTime;
+
+/*
+ * Benchmarks of the CalendarHelper methods called for every page and every
+ * date passed through the public API. Inputs are generated from a fixed seed,
+ * each invocation takes the next one so the JIT can not fold a constant.
+ */
+@State(Scope.Thread)
+public class CalendarHelperBenchmark {
+    private static final int INPUT_COUNT = 1024;
+    private static final long SEED = 42L;
+
+    /*
+     * Number of dates passed to convertToStringList and the bulk codec
+     */
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private int[] months;
+    private int[] years;
+    private Date[] dates;
+    private DateTime[] dateTimes;
+    private String[] dateStrings;
+    private ArrayList<DateTime> dateTimeList;
+    private ArrayList<String> dateStringList;
+    private int[] epochDayArray;
+    private final int[] epochDays = new int[CalendarHelper.MAX_DAYS_IN_FULL_WEEKS];
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(SEED);
+        months = new int[INPUT_COUNT];
+        years = new int[INPUT_COUNT];
+        dates = new Date[INPUT_COUNT];
+        dateTimes = new DateTime[INPUT_COUNT];
+        dateStrings = new String[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            months[i] = 1 + random.nextInt(12);
+            years[i] = 1950 + random.nextInt(150);
+            DateTime dateTime = new DateTime(years[i], months[i], 1 + random.nextInt(28), 0, 0, 0, 0);
+            dateTimes[i] = dateTime;
+            dates[i] = CalendarHelper.convertDateTimeToDate(dateTime);
+            dateStrings[i] = dateTime.format("YYYY-MM-DD");
+        }
+
+        dateTimeList = new ArrayList<>(size);
+        DateTime dateTime = new DateTime(2000, 1, 1, 0, 0, 0, 0);
+        for (int i = 0; i < size; i++) {
+            dateTimeList.add(dateTime);
+            dateTime = dateTime.plusDays(1);
+        }
+        dateStringList = CalendarHelper.convertToStringList(dateTimeList);
+        epochDayArray = IsoDateCodec.parseAll(dateStringList);
+    }
+
+    private int next() {
+        index = (index + 1) & (INPUT_COUNT - 1);
+        return index;
+    }
+
+    @Benchmark
+    public ArrayList<DateTime> getFullWeeks() {
+        int i = next();
+        return CalendarHelper.getFullWeeks(months[i], years[i], 1, true);
+    }
+
+    @Benchmark
+    public int getFullWeeksEpochDays() {
+        int i = next();
+        return CalendarHelper.getFullWeeks(months[i], years[i], 1, true, epochDays);
+    }
+
+    /*
+     * Months all over the inputs, mostly misses of the month layout cache
+     */
+    @Benchmark
+    public MonthLayout getMonthLayout() {
+        int i = next();
+        return CalendarHelper.getMonthLayout(months[i], years[i], 1, true);
+    }
+
+    /*
+     * Swiping back and forth over 16 months, hits of the month layout cache
+     */
+    @Benchmark
+    public MonthLayout getMonthLayoutSwiping() {
+        int month = next() & 15;
+        return CalendarHelper.getMonthLayout(month % 12 + 1, 2024 + month / 12, 1, true);
+    }
+
+    @Benchmark
+    public DateTime convertDateToDateTime() {
+        return CalendarHelper.convertDateToDateTime(dates[next()]);
+    }
+
+    @Benchmark
+    public Date convertDateTimeToDate() {
+        return CalendarHelper.convertDateTimeToDate(dateTimes[next()]);
+    }
+
+    @Benchmark
+    public DateTime getDateTimeFromString() {
+        return CalendarHelper.getDateTimeFromString(dateStrings[next()], null);
+    }
+
+    @Benchmark
+    public ArrayList<String> convertToStringList() {
+        return CalendarHelper.convertToStringList(dateTimeList);
+    }
+
+    @Benchmark
+    public int isoDateCodecParse() {
+        return IsoDateCodec.parse(dateStrings[next()]);
+    }
+
+    @Benchmark
+    public String isoDateCodecFormat() {
+        return IsoDateCodec.format(EpochDay.fromDateTime(dateTimes[next()]));
+    }
+
+    @Benchmark
+    public DateRangeSet isoDateCodecParseInto() {
+        DateRangeSet dates = new DateRangeSet();
+        IsoDateCodec.parseInto(dateStringList, dates);
+        return dates;
+    }
+
+    @Benchmark
+    public ArrayList<String> isoDateCodecFormatAll() {
+        return IsoDateCodec.formatAll(epochDayArray);
+    }
+}
@@ -0,0 +1,110 @@
+package com.roomorama.caldroid.benchmark;
+
+import com.roomorama.caldroid.DateBitSet;
+import com.roomorama.caldroid.DateRangeSet;
+import com.roomorama.caldroid.EpochDay;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+import hirondelle.date4j.DateTime;
+
+/*
+ * Membership checks on the disabled and selected dates, the check done for
+ * every cell of every page. DateRangeSet and DateBitSet are compared with the
+ * ArrayList<DateTime> Caldroid used before and with a HashSet<DateTime>.
+ * <p/>
+ * The dates are size random days, from a fixed seed, spread over three times
+ * as many days, so about a third of the probes are members. Ranges form
+ * naturally where consecutive days are picked.
+ */
+@State(Scope.Thread)
+public class DateIndexBenchmark {
+    private static final int PROBE_COUNT = 1024;
+    private static final long SEED = 42L;
+    private static final int FIRST_EPOCH_DAY = EpochDay.of(2000, 1, 1);
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private DateRangeSet dateRangeSet;
+    private DateBitSet dateBitSet;
+    private ArrayList<DateTime> dateTimeList;
+    private HashSet<DateTime> dateTimeSet;
+
+    private int[] probeEpochDays;
+    private DateTime[] probeDateTimes;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(SEED);
+        int span = size * 3;
+
+        dateRangeSet = new DateRangeSet();
+        dateBitSet = new DateBitSet();
+        dateTimeList = new ArrayList<>(size);
+        dateTimeSet = new HashSet<>();
+        int count = 0;
+        while (count < size) {
+            int epochDay = FIRST_EPOCH_DAY + random.nextInt(span);
+            if (!dateBitSet.contains(epochDay)) {
+                dateBitSet.add(epochDay);
+                dateRangeSet.add(epochDay);
+                DateTime dateTime = EpochDay.toDateTime(epochDay);
+                dateTimeList.add(dateTime);
+                dateTimeSet.add(dateTime);
+                count++;
+            }
+        }
+
+        probeEpochDays = new int[PROBE_COUNT];
+        probeDateTimes = new DateTime[PROBE_COUNT];
+        for (int i = 0; i < PROBE_COUNT; i++) {
+            probeEpochDays[i] = FIRST_EPOCH_DAY + random.nextInt(span);
+            probeDateTimes[i] = EpochDay.toDateTime(probeEpochDays[i]);
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (PROBE_COUNT - 1);
+        return index;
+    }
+
+    @Benchmark
+    public boolean dateRangeSetContains() {
+        return dateRangeSet.contains(probeEpochDays[next()]);
+    }
+
+    @Benchmark
+    public boolean dateRangeSetContainsDateTime() {
+        return dateRangeSet.contains(probeDateTimes[next()]);
+    }
+
+    @Benchmark
+    public boolean dateBitSetContains() {
+        return dateBitSet.contains(probeEpochDays[next()]);
+    }
+
+    @Benchmark
+    public boolean dateBitSetContainsDateTime() {
+        return dateBitSet.contains(probeDateTimes[next()]);
+    }
+
+    @Benchmark
+    public boolean arrayListContains() {
+        return dateTimeList.contains(probeDateTimes[next()]);
+    }
+
+    @Benchmark
+    public boolean hashSetContains() {
+        return dateTimeSet.contains(probeDateTimes[next()]);
+    }
+}
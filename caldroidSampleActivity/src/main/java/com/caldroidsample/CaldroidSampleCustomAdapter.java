@@ -23,6 +23,12 @@ public class CaldroidSampleCustomAdapter extends CaldroidGridAdapter {
 		super(context, month, year, caldroidData, extraData);
 	}
 
+	// getView reads selectedDates and disableDates directly
+	@Override
+	protected boolean fillsProtectedLists() {
+		return true;
+	}
+
 	@Override
 	public View getView(int position, View convertView, ViewGroup parent) {
 		LayoutInflater inflater = (LayoutInflater) context
@@ -45,7 +51,7 @@ public class CaldroidSampleCustomAdapter extends CaldroidGridAdapter {
 		tv1.setTextColor(Color.BLACK);
 
 		// Get dateTime of this cell
-		DateTime dateTime = this.datetimeList.get(position);
+		DateTime dateTime = getDatetimeList().get(position);
 		Resources resources = context.getResources();
 
 		// Set color of the dates in previous / next month